@@ -0,0 +1,62 @@
+package benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Login, session lookup and user lookup as the user directory grows
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AuthServiceBenchmark {
+    @Param({"1000", "100000"})
+    public int userCount;
+
+    private ServiceFixture fixture;
+    private String[] tokens;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        fixture = new ServiceFixture(100, userCount, 0);
+        tokens = new String[userCount];
+        for (int i = 0; i < userCount; i++) {
+            tokens[i] = fixture.authService.openSession(fixture.emails[i], ServiceFixture.PASSWORD);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        fixture.close();
+    }
+
+    private int nextIndex() {
+        next = next + 1 == userCount ? 0 : next + 1;
+        return next;
+    }
+
+    @Benchmark
+    public boolean login() {
+        return fixture.authService.login(fixture.emails[nextIndex()], ServiceFixture.PASSWORD);
+    }
+
+    @Benchmark
+    public void resolveSession(Blackhole blackhole) {
+        blackhole.consume(fixture.authService.resolveSession(tokens[nextIndex()]));
+    }
+
+    @Benchmark
+    public boolean loginUnknownEmail() {
+        return fixture.authService.login("nobody@bench.edu", ServiceFixture.PASSWORD);
+    }
+
+    @Benchmark
+    public void findUserById(Blackhole blackhole) {
+        blackhole.consume(fixture.authService.findUserById(fixture.students[nextIndex()].getUserID()));
+    }
+}
@@ -0,0 +1,71 @@
+package benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import service.CourseFilter;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Catalog search and autocomplete as the catalog grows.
+ * Fixture courses are titled "Course i" and described as "Benchmark course",
+ * so "benchmark course" matches the whole catalog and only the top results are kept.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CourseSearchBenchmark {
+    private static final int LIMIT = 20;
+
+    @Param({"1000", "50000"})
+    public int catalogSize;
+
+    private ServiceFixture fixture;
+    private String middleCode;
+    private String middleNumber;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        fixture = new ServiceFixture(catalogSize, 1, 0);
+        middleCode = fixture.courses.get(catalogSize / 2).getCourseCode();
+        middleNumber = Integer.toString(catalogSize / 2);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        fixture.close();
+    }
+
+    @Benchmark
+    public void findCourseByCode(Blackhole blackhole) {
+        blackhole.consume(fixture.courseService.findCourseByCode(middleCode));
+    }
+
+    @Benchmark
+    public void searchSingleMatch(Blackhole blackhole) {
+        blackhole.consume(fixture.courseService.searchCourses("course " + middleNumber, CourseFilter.ANY, LIMIT));
+    }
+
+    @Benchmark
+    public void searchWholeCatalog(Blackhole blackhole) {
+        blackhole.consume(fixture.courseService.searchCourses("benchmark course", CourseFilter.ANY, LIMIT));
+    }
+
+    @Benchmark
+    public void searchWithFilter(Blackhole blackhole) {
+        blackhole.consume(fixture.courseService.searchCourses("course",
+                CourseFilter.ANY.withCredits(3, 3).withOpenSeats(), LIMIT));
+    }
+
+    @Benchmark
+    public void suggestCodePrefix(Blackhole blackhole) {
+        blackhole.consume(fixture.courseService.suggestCourses(middleCode.substring(0, 3), 8));
+    }
+
+    @Benchmark
+    public void suggestTitleWords(Blackhole blackhole) {
+        blackhole.consume(fixture.courseService.suggestCourses("course " + middleNumber.charAt(0), 8));
+    }
+}
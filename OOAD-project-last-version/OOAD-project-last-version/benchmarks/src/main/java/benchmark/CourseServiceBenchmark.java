@@ -0,0 +1,67 @@
+package benchmark;
+
+import model.CourseOffering;
+import model.Student;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Eligibility checks on the registration path, across catalog sizes and student schedules
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CourseServiceBenchmark {
+    @Param({"100", "2000"})
+    public int catalogSize;
+
+    @Param({"0", "4", "12"})
+    public int registrationsPerStudent;
+
+    private ServiceFixture fixture;
+    private Student student;
+    private CourseOffering freeOffering;
+    private CourseOffering takenOffering;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        fixture = new ServiceFixture(catalogSize, 100, registrationsPerStudent);
+        student = fixture.students[0];
+        freeOffering = fixture.freeRootOfferings.get(0);
+        takenOffering = registrationsPerStudent > 0 ? fixture.offerings.get(0) : freeOffering;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        fixture.close();
+    }
+
+    @Benchmark
+    public boolean checkPrerequisitesDeepCourse() {
+        return fixture.courseService.checkPrerequisites(student, fixture.deepestCourse());
+    }
+
+    @Benchmark
+    public boolean checkScheduleConflictFree() {
+        return fixture.courseService.checkScheduleConflict(student, freeOffering);
+    }
+
+    @Benchmark
+    public boolean checkScheduleConflictTaken() {
+        return fixture.courseService.checkScheduleConflict(student, takenOffering);
+    }
+
+    @Benchmark
+    public void findOfferingById(Blackhole blackhole) {
+        blackhole.consume(fixture.courseService.findOfferingById(1000 + catalogSize / 2));
+    }
+
+    @Benchmark
+    public void degreePathDeepCourse(Blackhole blackhole) {
+        blackhole.consume(fixture.courseService.getPrerequisiteGraph().getDegreePath(fixture.deepestCourse()));
+    }
+}
@@ -0,0 +1,64 @@
+package benchmark;
+
+import model.CourseOffering;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import service.OfferingQuery;
+import util.Page;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Multi-attribute offering queries through the secondary indexes, next to a
+ * plain scan of every offering with the same conditions.
+ * Fixture offerings meet on one weekday each, 08:00 to 19:00, all in CS for 3 credits,
+ * so the day and start time are the selective conditions.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class OfferingQueryBenchmark {
+    private static final int PAGE_SIZE = 20;
+
+    @Param({"1000", "50000"})
+    public int catalogSize;
+
+    private ServiceFixture fixture;
+    private OfferingQuery tuesdayAfternoon;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        fixture = new ServiceFixture(catalogSize, 1, 0);
+        tuesdayAfternoon = OfferingQuery.all().department("CS").credits(3).onDays("Tue")
+                .startingAfter("17:00").withOpenSeats();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        fixture.close();
+    }
+
+    @Benchmark
+    public long indexedQuery() {
+        return fixture.courseService.queryOfferings(tuesdayAfternoon).count();
+    }
+
+    @Benchmark
+    public long scanQuery() {
+        return fixture.courseService.getCourseOfferings().stream()
+                .filter(offering -> offering.getInstructor().getDepartment().equalsIgnoreCase("CS")
+                        && offering.getCourse().getCredits() == 3
+                        && (offering.getSchedule().getDayMask() & 0b10) != 0
+                        && offering.getSchedule().getStartMinute() >= 17 * 60
+                        && offering.checkAvailability())
+                .count();
+    }
+
+    @Benchmark
+    public void firstPage(Blackhole blackhole) {
+        Page<CourseOffering> page = fixture.courseService.queryOfferings(tuesdayAfternoon, Page.FIRST, PAGE_SIZE);
+        blackhole.consume(page.getItems());
+    }
+}
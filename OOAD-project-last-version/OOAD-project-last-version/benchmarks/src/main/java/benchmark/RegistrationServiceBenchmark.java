@@ -0,0 +1,67 @@
+package benchmark;
+
+import model.CourseOffering;
+import model.Registration;
+import model.Student;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import service.RegistrationService;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Single-threaded cost of the registration path.
+ * Each operation registers a student and drops the course again, so the
+ * offering never fills up; the fixture is rebuilt every iteration to keep
+ * per-student history and inboxes bounded.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RegistrationServiceBenchmark {
+    @Param({"100", "2000"})
+    public int catalogSize;
+
+    @Param({"1000", "20000"})
+    public int userCount;
+
+    @Param({"0", "4", "12"})
+    public int registrationsPerStudent;
+
+    private ServiceFixture fixture;
+    private CourseOffering target;
+    private int next;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        fixture = new ServiceFixture(catalogSize, userCount, registrationsPerStudent);
+        target = fixture.freeRootOfferings.get(0);
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() {
+        fixture.close();
+    }
+
+    @Benchmark
+    public boolean registerAndDrop() {
+        next = next + 1 >= userCount ? 0 : next + 1;
+        Student student = fixture.students[next];
+        RegistrationService.RegistrationResult result =
+                fixture.registrationService.registerCourse(student, target.getOfferingID());
+        if (!result.isSuccess()) {
+            return false;
+        }
+        List<Registration> registrations = student.getRegistrations();
+        Registration latest = registrations.get(registrations.size() - 1);
+        return fixture.registrationService.dropCourse(student, latest.getRegistrationID());
+    }
+
+    @Benchmark
+    public void getStudentsInCourse(Blackhole blackhole) {
+        blackhole.consume(fixture.registrationService.getStudentsInCourse(fixture.offerings.get(0).getOfferingID()));
+    }
+}
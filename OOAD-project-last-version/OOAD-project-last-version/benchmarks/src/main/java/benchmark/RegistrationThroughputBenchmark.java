@@ -0,0 +1,80 @@
+package benchmark;
+
+import model.CourseOffering;
+import model.Registration;
+import model.Student;
+import org.openjdk.jmh.annotations.*;
+import service.RegistrationService;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Concurrent throughput of register + drop.
+ * Every thread works on its own slice of students. With hotOffering all threads
+ * hit the same offering (seat counter contention); otherwise each thread uses
+ * a different offering. Run with -t to change the thread count.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(8)
+@State(Scope.Benchmark)
+public class RegistrationThroughputBenchmark {
+    private static final int STUDENTS_PER_THREAD = 1000;
+
+    @Param({"20000"})
+    public int userCount;
+
+    @Param({"true", "false"})
+    public boolean hotOffering;
+
+    private ServiceFixture fixture;
+    private AtomicInteger threadCounter;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        fixture = new ServiceFixture(100, userCount, 0);
+        threadCounter = new AtomicInteger();
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() {
+        fixture.close();
+    }
+
+    @State(Scope.Thread)
+    public static class Worker {
+        private Student[] students;
+        private CourseOffering target;
+        private int next;
+
+        @Setup(Level.Iteration)
+        public void setUp(RegistrationThroughputBenchmark benchmark) {
+            ServiceFixture fixture = benchmark.fixture;
+            int index = benchmark.threadCounter.getAndIncrement();
+            int from = (index * STUDENTS_PER_THREAD) % fixture.students.length;
+            students = Arrays.copyOfRange(fixture.students, from, from + STUDENTS_PER_THREAD);
+            List<CourseOffering> free = fixture.freeRootOfferings;
+            target = benchmark.hotOffering ? free.get(0) : free.get(index % free.size());
+            next = 0;
+        }
+    }
+
+    @Benchmark
+    public boolean registerAndDrop(Worker worker) {
+        worker.next = worker.next + 1 >= worker.students.length ? 0 : worker.next + 1;
+        Student student = worker.students[worker.next];
+        RegistrationService.RegistrationResult result =
+                fixture.registrationService.registerCourse(student, worker.target.getOfferingID());
+        if (!result.isSuccess()) {
+            return false;
+        }
+        List<Registration> registrations = student.getRegistrations();
+        Registration latest = registrations.get(registrations.size() - 1);
+        return fixture.registrationService.dropCourse(student, latest.getRegistrationID());
+    }
+}
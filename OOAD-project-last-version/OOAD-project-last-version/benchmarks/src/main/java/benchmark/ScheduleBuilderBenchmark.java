@@ -0,0 +1,79 @@
+package benchmark;
+
+import model.*;
+import org.openjdk.jmh.annotations.*;
+import service.CourseService;
+import service.SchedulePreferences;
+import service.ScheduleBuilder;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Timetable search for a wishlist of courses with many sections each.
+ * Sections get seeded random days and start times between 08:00 and 18:00,
+ * so plenty of combinations clash and plenty do not.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ScheduleBuilderBenchmark {
+    private static final String[] DAYS = {"Mon, Wed", "Tue, Thu", "Mon, Wed, Fri", "Fri", "Tue", "Wed, Fri"};
+    private static final int TOP_K = 5;
+
+    @Param({"6"})
+    public int courseCount;
+
+    @Param({"12", "40"})
+    public int sectionsPerCourse;
+
+    private ScheduleBuilder builder;
+    private List<String> wishlist;
+    private RegistrationRules rules;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        CourseService courseService = new CourseService();
+        Instructor instructor = new Instructor(1, "Bench Instructor", "instructor@bench.edu", "password", "CS");
+        Semester semester = new Semester("Bench", LocalDate.of(2025, 1, 1), LocalDate.of(2025, 5, 31));
+        Random random = new Random(42);
+        wishlist = new ArrayList<>();
+        int offeringID = 1000;
+        for (int c = 0; c < courseCount; c++) {
+            Course course = courseService.addCourse(String.format("W%03d", c), "Wish " + c, 3, "Benchmark course");
+            wishlist.add(course.getCourseCode());
+            for (int s = 0; s < sectionsPerCourse; s++) {
+                int hour = 8 + random.nextInt(10);
+                Schedule schedule = new Schedule(DAYS[random.nextInt(DAYS.length)],
+                        String.format("%02d:00", hour), String.format("%02d:15", hour + 1));
+                courseService.addCourseOffering(new CourseOffering(offeringID++, course, instructor, semester,
+                        schedule, 30));
+            }
+        }
+        builder = new ScheduleBuilder(courseService);
+        rules = new RegistrationRules(18, false, false);
+    }
+
+    @Benchmark
+    public ScheduleBuilder.Result anyTimetable() {
+        return builder.build(wishlist, null, rules, SchedulePreferences.NONE, TOP_K,
+                ScheduleBuilder.DEFAULT_BUDGET_MILLIS);
+    }
+
+    @Benchmark
+    public ScheduleBuilder.Result noEarlyMornings() {
+        return builder.build(wishlist, null, rules, SchedulePreferences.NONE.noClassesBefore("10:00"), TOP_K,
+                ScheduleBuilder.DEFAULT_BUDGET_MILLIS);
+    }
+
+    @Benchmark
+    public ScheduleBuilder.Result compactFewerDays() {
+        return builder.build(wishlist, null, rules, SchedulePreferences.NONE.compactDays().fewerDays(), TOP_K,
+                ScheduleBuilder.DEFAULT_BUDGET_MILLIS);
+    }
+}
@@ -0,0 +1,108 @@
+package benchmark;
+
+import model.*;
+import service.AuthService;
+import service.CourseService;
+import service.RegistrationService;
+import util.PasswordHasher;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A populated, in-memory system shared by the benchmarks.
+ *
+ * Course i requires courses i-1 and i/2, except every fourth course, which has no
+ * prerequisites ("root" courses). Each course has one offering; the first 60
+ * offerings occupy distinct weekly slots, so root offerings among them never conflict.
+ * Every student has completed the whole catalog and is registered in the first
+ * registrationsPerStudent root offerings.
+ */
+final class ServiceFixture {
+    private static final String[] DAYS = {"Mon", "Tue", "Wed", "Thu", "Fri"};
+    private static final int HOURS_PER_DAY = 12;
+    static final String PASSWORD = "password";
+
+    final AuthService authService;
+    final CourseService courseService;
+    final RegistrationService registrationService;
+    final List<Course> courses;
+    final List<CourseOffering> offerings;
+    final List<CourseOffering> freeRootOfferings;
+    final Student[] students;
+    final String[] emails;
+
+    ServiceFixture(int catalogSize, int userCount, int registrationsPerStudent) {
+        // The services report to the console; keep that out of the measurements
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+
+        // Login cost is a tuning knob; keep it low so the lookup path stays visible
+        authService = new AuthService(null, new PasswordHasher(PasswordHasher.MIN_ITERATIONS));
+        courseService = new CourseService();
+        registrationService = new RegistrationService(courseService);
+        courses = new ArrayList<>(catalogSize);
+        offerings = new ArrayList<>(catalogSize);
+        freeRootOfferings = new ArrayList<>();
+
+        String passwordHash = authService.getPasswordHasher().hash(PASSWORD);
+        Instructor instructor = new Instructor(authService.generateUserID(), "Bench Instructor",
+                "instructor@bench.edu", passwordHash, "CS");
+        authService.registerUser(instructor);
+        Semester semester = new Semester("Bench", LocalDate.of(2025, 1, 1), LocalDate.of(2025, 5, 31));
+        semester.openRegistration();
+
+        for (int i = 0; i < catalogSize; i++) {
+            Course course = courseService.addCourse(String.format("B%05d", i), "Course " + i, 3, "Benchmark course");
+            if (i % 4 != 0) {
+                courseService.addPrerequisite(course, courses.get(i - 1));
+                if (i / 2 != i - 1) {
+                    courseService.addPrerequisite(course, courses.get(i / 2));
+                }
+            }
+            courses.add(course);
+
+            int hour = 8 + (i / DAYS.length) % HOURS_PER_DAY;
+            Schedule schedule = new Schedule(DAYS[i % DAYS.length],
+                    String.format("%02d:00", hour), String.format("%02d:50", hour));
+            CourseOffering offering = new CourseOffering(1000 + i, course, instructor, semester, schedule,
+                    Math.max(userCount, 1) * 2);
+            courseService.addCourseOffering(offering);
+            offerings.add(offering);
+        }
+
+        List<CourseOffering> rootOfferings = new ArrayList<>();
+        for (int i = 0; i < Math.min(catalogSize, DAYS.length * HOURS_PER_DAY); i += 4) {
+            rootOfferings.add(offerings.get(i));
+        }
+        if (registrationsPerStudent >= rootOfferings.size()) {
+            throw new IllegalArgumentException("registrationsPerStudent must leave a free root offering");
+        }
+
+        students = new Student[userCount];
+        emails = new String[userCount];
+        for (int i = 0; i < userCount; i++) {
+            emails[i] = "student" + i + "@bench.edu";
+            students[i] = new Student(authService.generateUserID(), "Student " + i, emails[i], passwordHash,
+                    1 + i % 4, "CS");
+            authService.registerUser(students[i]);
+            for (Course course : courses) {
+                students[i].getTranscript().markCompleted(course);
+            }
+            for (int r = 0; r < registrationsPerStudent; r++) {
+                registrationService.registerCourse(students[i], rootOfferings.get(r).getOfferingID());
+            }
+        }
+        freeRootOfferings.addAll(rootOfferings.subList(registrationsPerStudent, rootOfferings.size()));
+    }
+
+    Course deepestCourse() {
+        return courses.get(courses.size() - 1);
+    }
+
+    void close() {
+        registrationService.shutdown();
+        authService.shutdown();
+    }
+}
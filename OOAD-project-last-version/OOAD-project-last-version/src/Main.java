@@ -1,8 +1,35 @@
 import ui.ConsoleUI;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 
 public class Main {
     public static void main(String[] args) {
-        ConsoleUI ui = new ConsoleUI();
-        ui.start();
+        // Pass --db to persist data in the local H2 database between runs,
+        // or --journal to keep an event journal with snapshots instead.
+        // --metrics FILE keeps writing registration metrics to FILE.
+        // --serve PORT serves network clients instead of the console menu.
+        ConsoleUI.Storage storage = ConsoleUI.Storage.MEMORY;
+        Path metricsFile = null;
+        int port = -1;
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--db")) {
+                storage = ConsoleUI.Storage.DATABASE;
+            } else if (args[i].equals("--journal")) {
+                storage = ConsoleUI.Storage.JOURNAL;
+            } else if (args[i].equals("--metrics") && i + 1 < args.length) {
+                metricsFile = Paths.get(args[++i]);
+            } else if (args[i].equals("--serve") && i + 1 < args.length) {
+                port = Integer.parseInt(args[++i]);
+            }
+        }
+        ConsoleUI ui = new ConsoleUI(storage);
+        if (metricsFile != null) {
+            ui.exportMetrics(metricsFile);
+        }
+        if (port >= 0) {
+            ui.serve(port);
+        } else {
+            ui.start();
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,368 @@
+package dataset;
+
+import model.*;
+import util.PasswordHasher;
+import java.nio.ByteBuffer;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Deterministic generator for large, realistic university datasets.
+ *
+ * The catalog is split over departments and levels 100-400; higher-level
+ * courses require lower-level ones, mostly in the same department, so
+ * prerequisites always form a DAG. Every term offers about 60% of the
+ * catalog with the usual meeting patterns (MWF 50 minutes, TR 75 minutes,
+ * evening seminars). Students get a history that respects prerequisites,
+ * seat limits and schedule conflicts, and are registered for the current term.
+ *
+ * Courses and offerings are kept (they are needed to build registrations),
+ * but students are handed to the sink one at a time and then forgotten,
+ * so millions of students can be generated without holding them in memory.
+ */
+public class DatasetGenerator {
+    static final String PASSWORD = "password";
+
+    private static final String[] DEPARTMENTS = {"CS", "MATH", "PHYS", "CHEM", "BIO", "ECON", "HIST", "ENGL", "PSYC", "ART"};
+    private static final String[] DEPARTMENT_NAMES = {"Computer Science", "Mathematics", "Physics", "Chemistry",
+            "Biology", "Economics", "History", "English", "Psychology", "Fine Arts"};
+    private static final String[] TOPICS = {"Foundations", "Methods", "Theory", "Systems", "Analysis", "Design",
+            "Applications", "Seminar", "Topics", "Laboratory", "Principles", "Modeling"};
+    private static final String[] FIRST_NAMES = {"Ahmed", "Mariam", "Omar", "Sara", "Youssef", "Nour", "Ali", "Laila",
+            "John", "Emma", "Liam", "Olivia", "Noah", "Ava", "Lucas", "Mia", "Hana", "Karim", "Salma", "Ziad"};
+    private static final String[] LAST_NAMES = {"Hassan", "Ibrahim", "Mahmoud", "Saleh", "Farouk", "Smith", "Johnson",
+            "Brown", "Garcia", "Miller", "Davis", "Wilson", "Mostafa", "Adel", "Nasser", "Khalil"};
+
+    // Meeting patterns and how common they are
+    private static final String[] PATTERN_DAYS = {"MWF", "TR", "MW", "M", "T", "W", "R"};
+    private static final int[] PATTERN_MINUTES = {50, 75, 75, 170, 170, 170, 170};
+    private static final int[] PATTERN_WEIGHTS = {45, 35, 10, 3, 3, 2, 2};
+    // Start hours 8:00 to 18:00, busiest mid-morning
+    private static final int FIRST_START_HOUR = 8;
+    private static final int[] START_HOUR_WEIGHTS = {6, 10, 12, 12, 8, 9, 9, 8, 6, 4, 3};
+    private static final int[] CAPACITIES = {15, 25, 30, 40, 60, 100, 200};
+    private static final int[] CAPACITY_WEIGHTS = {10, 25, 25, 20, 10, 7, 3};
+    private static final int[] CREDITS = {3, 4, 1, 2};
+    private static final int[] CREDIT_WEIGHTS = {70, 20, 5, 5};
+    private static final int[] PREREQUISITE_COUNT_WEIGHTS = {15, 45, 30, 10};
+
+    private static final int OFFERED_PERCENT = 60;
+    private static final int MAJOR_PERCENT = 70;
+    private static final int DROPPED_PERCENT = 8;
+    private static final int ATTEMPTS_PER_COURSE = 12;
+    // The current term is fixed so the same spec always produces the same dates
+    private static final LocalDate CURRENT_TERM_START = LocalDate.of(2025, 9, 1);
+
+    private final DatasetSpec spec;
+    private final SplittableRandom random;
+
+    // Catalog, indexed by course index
+    private Course[] courses;
+    private int[] courseDepartments;
+    private int[] courseLevels;
+    private int[][] prerequisites;
+    // Offerings per term (oldest first; the last term is the current one), all and by department
+    private Semester[] terms;
+    private CourseOffering[][] termOfferings;
+    private CourseOffering[][][] termOfferingsByDepartment;
+    private int[] offeringCourse;
+    private int[] enrolled;
+    private int nextRegistrationID;
+    private DatasetSummary summary;
+    private String passwordHash;
+
+    public DatasetGenerator(DatasetSpec spec) {
+        this.spec = spec;
+        this.random = new SplittableRandom(spec.getSeed());
+    }
+
+    /**
+     * Generate the whole dataset into the sink
+     * @return Counts of what was generated
+     */
+    public DatasetSummary generate(DatasetSink sink) {
+        long started = System.nanoTime();
+        summary = new DatasetSummary();
+        nextRegistrationID = 0;
+        passwordHash = hashPassword();
+
+        Instructor[] instructors = generateInstructors(sink);
+        generateCourses(sink);
+        generateOfferings(sink, instructors);
+        int firstStudentID = instructors.length + 1;
+        for (int i = 0; i < spec.getStudentCount(); i++) {
+            generateStudent(sink, firstStudentID + i, i);
+        }
+        summary.stored = sink.finish();
+        summary.elapsedNanos = System.nanoTime() - started;
+        return summary;
+    }
+
+    // Every generated user has the same password, so one hash is shared by all of them.
+    // The salt comes from the seed to keep the output repeatable.
+    private String hashPassword() {
+        byte[] salt = ByteBuffer.allocate(16).putLong(spec.getSeed()).putLong(spec.getStudentCount()).array();
+        return new PasswordHasher().hash(PASSWORD, salt);
+    }
+
+    private Instructor[] generateInstructors(DatasetSink sink) {
+        // At least one instructor per department, about one per four courses
+        int count = Math.max(DEPARTMENTS.length, spec.getCourseCount() / 4);
+        Instructor[] instructors = new Instructor[count];
+        for (int i = 0; i < count; i++) {
+            String name = "Dr. " + pick(FIRST_NAMES) + " " + pick(LAST_NAMES);
+            instructors[i] = new Instructor(i + 1, name, "instructor" + i + "@gen.university.edu", passwordHash,
+                    DEPARTMENT_NAMES[i % DEPARTMENTS.length]);
+            sink.addUser(instructors[i]);
+        }
+        summary.users += count;
+        return instructors;
+    }
+
+    private void generateCourses(DatasetSink sink) {
+        int count = spec.getCourseCount();
+        int perDepartment = (count + DEPARTMENTS.length - 1) / DEPARTMENTS.length;
+        courses = new Course[count];
+        courseDepartments = new int[count];
+        courseLevels = new int[count];
+        prerequisites = new int[count][];
+        int[][] codeSequence = new int[DEPARTMENTS.length][5];
+        // Earlier courses by department and level, to draw prerequisites from
+        List<List<List<Integer>>> earlier = new ArrayList<>();
+        for (int d = 0; d < DEPARTMENTS.length; d++) {
+            List<List<Integer>> byLevel = new ArrayList<>();
+            for (int level = 0; level <= 4; level++) {
+                byLevel.add(new ArrayList<>());
+            }
+            earlier.add(byLevel);
+        }
+
+        for (int i = 0; i < count; i++) {
+            int department = i % DEPARTMENTS.length;
+            int level = 1 + (i / DEPARTMENTS.length) * 4 / perDepartment;
+            String code = String.format("%s%d%03d", DEPARTMENTS[department], level,
+                    codeSequence[department][level]++);
+            String title = DEPARTMENT_NAMES[department] + " " + pick(TOPICS) + " " + code.substring(
+                    DEPARTMENTS[department].length());
+            courses[i] = new Course(code, title, weighted(CREDITS, CREDIT_WEIGHTS),
+                    "Level " + level + "00 course in " + DEPARTMENT_NAMES[department]);
+            courseDepartments[i] = department;
+            courseLevels[i] = level;
+            prerequisites[i] = choosePrerequisites(earlier, department, level);
+            earlier.get(department).get(level).add(i);
+            sink.addCourse(courses[i]);
+        }
+        summary.courses = count;
+
+        for (int i = 0; i < count; i++) {
+            for (int prerequisite : prerequisites[i]) {
+                sink.addPrerequisite(courses[i], courses[prerequisite]);
+                summary.prerequisites++;
+            }
+        }
+    }
+
+    private int[] choosePrerequisites(List<List<List<Integer>>> earlier, int department, int level) {
+        if (level == 1) {
+            return new int[0];
+        }
+        int wanted = weighted(new int[] {0, 1, 2, 3}, PREREQUISITE_COUNT_WEIGHTS);
+        int[] chosen = new int[wanted];
+        int found = 0;
+        for (int attempt = 0; attempt < wanted * 4 && found < wanted; attempt++) {
+            // Mostly the previous level of the same department, sometimes another department
+            int fromDepartment = random.nextInt(10) == 0 ? random.nextInt(DEPARTMENTS.length) : department;
+            int fromLevel = random.nextInt(4) == 0 ? 1 + random.nextInt(level - 1) : level - 1;
+            List<Integer> candidates = earlier.get(fromDepartment).get(fromLevel);
+            if (candidates.isEmpty()) continue;
+            int candidate = candidates.get(random.nextInt(candidates.size()));
+            if (!contains(chosen, found, candidate)) {
+                chosen[found++] = candidate;
+            }
+        }
+        return Arrays.copyOf(chosen, found);
+    }
+
+    private void generateOfferings(DatasetSink sink, Instructor[] instructors) {
+        int termCount = spec.getPastTerms() + 1;
+        terms = new Semester[termCount];
+        termOfferings = new CourseOffering[termCount][];
+        termOfferingsByDepartment = new CourseOffering[termCount][DEPARTMENTS.length][];
+        List<Integer> courseOfOffering = new ArrayList<>();
+        int nextOfferingID = 1;
+
+        for (int t = 0; t < termCount; t++) {
+            terms[t] = termAt(termCount - 1 - t);
+            if (t == termCount - 1) {
+                terms[t].openRegistration();
+            }
+            List<CourseOffering> offered = new ArrayList<>();
+            List<List<CourseOffering>> byDepartment = new ArrayList<>();
+            for (int d = 0; d < DEPARTMENTS.length; d++) {
+                byDepartment.add(new ArrayList<>());
+            }
+            for (int i = 0; i < courses.length; i++) {
+                if (random.nextInt(100) >= OFFERED_PERCENT) continue;
+                int department = courseDepartments[i];
+                int instructorsInDepartment = (instructors.length - department + DEPARTMENTS.length - 1) /
+                        DEPARTMENTS.length;
+                Instructor instructor = instructors[department +
+                        DEPARTMENTS.length * random.nextInt(instructorsInDepartment)];
+                CourseOffering offering = new CourseOffering(nextOfferingID++, courses[i], instructor, terms[t],
+                        randomSchedule(), weighted(CAPACITIES, CAPACITY_WEIGHTS));
+                offered.add(offering);
+                byDepartment.get(department).add(offering);
+                courseOfOffering.add(i);
+                sink.addOffering(offering);
+            }
+            termOfferings[t] = offered.toArray(new CourseOffering[0]);
+            for (int d = 0; d < DEPARTMENTS.length; d++) {
+                termOfferingsByDepartment[t][d] = byDepartment.get(d).toArray(new CourseOffering[0]);
+            }
+        }
+        summary.offerings = nextOfferingID - 1;
+        offeringCourse = new int[nextOfferingID];
+        for (int id = 1; id < nextOfferingID; id++) {
+            offeringCourse[id] = courseOfOffering.get(id - 1);
+        }
+        enrolled = new int[nextOfferingID];
+    }
+
+    // Terms alternate Fall and Spring, counted back from the current Fall term
+    private static Semester termAt(int termsBack) {
+        int year = CURRENT_TERM_START.getYear() - (termsBack + 1) / 2;
+        if (termsBack % 2 == 0) {
+            return new Semester("Fall " + year, LocalDate.of(year, 9, 1), LocalDate.of(year, 12, 20));
+        }
+        return new Semester("Spring " + (year + 1), LocalDate.of(year + 1, 1, 15), LocalDate.of(year + 1, 5, 15));
+    }
+
+    private Schedule randomSchedule() {
+        int pattern = weightedIndex(PATTERN_WEIGHTS);
+        int start = (FIRST_START_HOUR + weightedIndex(START_HOUR_WEIGHTS)) * 60;
+        if (PATTERN_DAYS[pattern].equals("TR") && random.nextBoolean()) {
+            start += 30; // TR classes often start on the half hour
+        }
+        int end = start + PATTERN_MINUTES[pattern];
+        return new Schedule(PATTERN_DAYS[pattern], String.format("%02d:%02d", start / 60, start % 60),
+                String.format("%02d:%02d", end / 60, end % 60));
+    }
+
+    private void generateStudent(DatasetSink sink, int userID, int index) {
+        int level = 1 + random.nextInt(4);
+        int major = random.nextInt(DEPARTMENTS.length);
+        Student student = new Student(userID, pick(FIRST_NAMES) + " " + pick(LAST_NAMES),
+                "student" + index + "@gen.university.edu", passwordHash, level, DEPARTMENT_NAMES[major]);
+        sink.addUser(student);
+        summary.users++;
+
+        // Two terms per year of study so far, limited to the generated history
+        int currentTerm = terms.length - 1;
+        int attended = Math.min(spec.getPastTerms(), (level - 1) * 2 + random.nextInt(2));
+        int[] completed = new int[attended * spec.getCoursesPerTerm()];
+        int completedCount = 0;
+        for (int t = currentTerm - attended; t <= currentTerm; t++) {
+            boolean current = t == currentTerm;
+            int levelThen = Math.max(1, level - (currentTerm - t + 1) / 2);
+            int[] taken = chooseTermCourses(t, major, levelThen, completed, completedCount);
+            for (int offeringID : taken) {
+                CourseOffering offering = offeringById(t, offeringID);
+                String status = current ? "registered" :
+                        random.nextInt(100) < DROPPED_PERCENT ? "dropped" : "completed";
+                long createdAt = terms[t].getStartDate().minusDays(1 + random.nextInt(30))
+                        .atTime(8 + random.nextInt(12), random.nextInt(60))
+                        .toInstant(ZoneOffset.UTC).toEpochMilli();
+                sink.addRegistration(++nextRegistrationID, student, offering, status, createdAt);
+                summary.registrations++;
+                if (status.equals("completed")) {
+                    completed[completedCount++] = offeringCourse[offeringID];
+                }
+            }
+        }
+    }
+
+    // Offerings of one term are numbered consecutively, so the term's array is indexed by ID
+    private CourseOffering offeringById(int term, int offeringID) {
+        CourseOffering[] offered = termOfferings[term];
+        return offered[offeringID - offered[0].getOfferingID()];
+    }
+
+    /**
+     * Pick up to coursesPerTerm offerings the student could really take:
+     * prerequisites completed, not taken before, a free seat and no clash with the other picks
+     * @return The offering IDs, with their seats already claimed
+     */
+    private int[] chooseTermCourses(int term, int major, int level, int[] completed, int completedCount) {
+        int wanted = spec.getCoursesPerTerm();
+        int[] chosen = new int[wanted];
+        Schedule[] schedules = new Schedule[wanted];
+        int found = 0;
+        if (termOfferings[term].length == 0) {
+            return new int[0];
+        }
+        for (int attempt = 0; attempt < wanted * ATTEMPTS_PER_COURSE && found < wanted; attempt++) {
+            CourseOffering[] pool = random.nextInt(100) < MAJOR_PERCENT &&
+                    termOfferingsByDepartment[term][major].length > 0
+                    ? termOfferingsByDepartment[term][major] : termOfferings[term];
+            CourseOffering offering = pool[random.nextInt(pool.length)];
+            int course = offeringCourse[offering.getOfferingID()];
+            if (courseLevels[course] > level || enrolled[offering.getOfferingID()] >= offering.getCapacity() ||
+                    contains(completed, completedCount, course) ||
+                    !containsAll(completed, completedCount, prerequisites[course]) ||
+                    clashes(offering, chosen, schedules, found)) {
+                continue;
+            }
+            enrolled[offering.getOfferingID()]++;
+            schedules[found] = offering.getSchedule();
+            chosen[found++] = offering.getOfferingID();
+        }
+        return Arrays.copyOf(chosen, found);
+    }
+
+    private boolean clashes(CourseOffering offering, int[] chosen, Schedule[] schedules, int found) {
+        int course = offeringCourse[offering.getOfferingID()];
+        for (int i = 0; i < found; i++) {
+            if (offeringCourse[chosen[i]] == course || schedules[i].conflictsWith(offering.getSchedule())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean contains(int[] values, int count, int value) {
+        for (int i = 0; i < count; i++) {
+            if (values[i] == value) return true;
+        }
+        return false;
+    }
+
+    private static boolean containsAll(int[] values, int count, int[] required) {
+        for (int value : required) {
+            if (!contains(values, count, value)) return false;
+        }
+        return true;
+    }
+
+    private String pick(String[] values) {
+        return values[random.nextInt(values.length)];
+    }
+
+    private int weighted(int[] values, int[] weights) {
+        return values[weightedIndex(weights)];
+    }
+
+    private int weightedIndex(int[] weights) {
+        int total = 0;
+        for (int weight : weights) total += weight;
+        int roll = random.nextInt(total);
+        for (int i = 0; i < weights.length; i++) {
+            roll -= weights[i];
+            if (roll < 0) return i;
+        }
+        return weights.length - 1;
+    }
+}
@@ -0,0 +1,108 @@
+package dataset;
+
+import repository.SchemaInitializer;
+import service.AuthService;
+import service.CourseService;
+import service.RegistrationService;
+import util.ConnectionPool;
+import util.DatabaseConnection;
+import util.PooledConnection;
+import java.sql.SQLException;
+
+/**
+ * Command line entry point for generating scale-test data.
+ *
+ *   [--students N] [--courses N] [--terms N] [--per-term N] [--seed N] [--h2]
+ *
+ * Without --h2 the data is loaded into the in-memory services and the heap
+ * they retain is reported; with --h2 it is streamed into the local database,
+ * where "Main --db" picks it up.
+ */
+public class DatasetGeneratorMain {
+    public static void main(String[] args) {
+        int students = 10_000;
+        int courses = 1_000;
+        int pastTerms = 4;
+        int perTerm = 4;
+        long seed = 42;
+        boolean database = false;
+        try {
+            for (int i = 0; i < args.length; i++) {
+                String option = args[i];
+                if (option.equals("--h2")) {
+                    database = true;
+                    continue;
+                }
+                if (i + 1 >= args.length) {
+                    throw new IllegalArgumentException("Missing value for " + option);
+                }
+                String value = args[++i];
+                switch (option) {
+                    case "--students": students = Integer.parseInt(value); break;
+                    case "--courses": courses = Integer.parseInt(value); break;
+                    case "--terms": pastTerms = Integer.parseInt(value); break;
+                    case "--per-term": perTerm = Integer.parseInt(value); break;
+                    case "--seed": seed = Long.parseLong(value); break;
+                    default: throw new IllegalArgumentException("Unknown option " + option);
+                }
+            }
+            DatasetSpec spec = new DatasetSpec(seed, students, courses, pastTerms, perTerm);
+            System.out.println("Generating " + spec);
+            if (database) {
+                generateIntoDatabase(spec);
+            } else {
+                generateIntoMemory(spec);
+            }
+        } catch (IllegalArgumentException e) {
+            System.out.println("Error: " + e.getMessage());
+            System.out.println("Usage: [--students N] [--courses N] [--terms N] [--per-term N] [--seed N] [--h2]");
+        }
+    }
+
+    private static void generateIntoMemory(DatasetSpec spec) {
+        long heapBefore = usedHeap();
+        AuthService authService = new AuthService();
+        CourseService courseService = new CourseService();
+        RegistrationService registrationService = new RegistrationService(courseService);
+        DatasetSummary summary = new DatasetGenerator(spec)
+                .generate(new ServiceDatasetSink(authService, courseService, registrationService));
+        long heapAfter = usedHeap();
+        System.out.println("Generated " + summary);
+        System.out.printf("Heap retained by the services: %.1f MB (%d users, %d offerings)%n",
+                (heapAfter - heapBefore) / 1048576.0, authService.getAllUsers().size(),
+                courseService.getCourseOfferings().size());
+        registrationService.shutdown();
+        authService.shutdown();
+    }
+
+    private static void generateIntoDatabase(DatasetSpec spec) {
+        ConnectionPool pool = DatabaseConnection.getPool();
+        if (pool == null) {
+            return;
+        }
+        try (PooledConnection connection = pool.borrow()) {
+            if (!SchemaInitializer.createSchema(connection.getConnection())) {
+                return;
+            }
+        } catch (SQLException e) {
+            System.out.println("Error: Could not open the database: " + e.getMessage());
+            return;
+        }
+        try {
+            DatasetSummary summary = new DatasetGenerator(spec).generate(new JdbcDatasetSink(pool));
+            System.out.println("Generated " + summary);
+        } catch (SQLException e) {
+            System.out.println("Error: Could not open the database: " + e.getMessage());
+        } finally {
+            DatabaseConnection.closeConnection();
+        }
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,27 @@
+package dataset;
+
+import model.*;
+
+/**
+ * Receives generated data one entity at a time.
+ * Entities arrive in dependency order: instructors, courses, prerequisites,
+ * offerings, then each student directly followed by their registrations.
+ */
+public interface DatasetSink {
+    void addUser(User user);
+
+    void addCourse(Course course);
+
+    void addPrerequisite(Course course, Course prerequisite);
+
+    void addOffering(CourseOffering offering);
+
+    void addRegistration(int registrationID, Student student, CourseOffering offering, String status,
+                         long createdAtMillis);
+
+    /**
+     * Called once after the last entity
+     * @return true if everything was stored
+     */
+    boolean finish();
+}
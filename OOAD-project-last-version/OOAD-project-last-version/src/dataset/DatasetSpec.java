@@ -0,0 +1,43 @@
+package dataset;
+
+/**
+ * Size and seed of a generated dataset.
+ * The same spec always generates exactly the same data.
+ */
+public class DatasetSpec {
+    private final long seed;
+    private final int studentCount;
+    private final int courseCount;
+    private final int pastTerms;
+    private final int coursesPerTerm;
+
+    /**
+     * @param seed Seed for every random choice
+     * @param studentCount Number of students
+     * @param courseCount Number of courses in the catalog
+     * @param pastTerms Number of finished terms with historical registrations
+     * @param coursesPerTerm How many courses a student takes each term
+     */
+    public DatasetSpec(long seed, int studentCount, int courseCount, int pastTerms, int coursesPerTerm) {
+        if (studentCount < 0 || courseCount <= 0 || pastTerms < 0 || coursesPerTerm < 0) {
+            throw new IllegalArgumentException("Dataset sizes cannot be negative and need at least one course");
+        }
+        this.seed = seed;
+        this.studentCount = studentCount;
+        this.courseCount = courseCount;
+        this.pastTerms = pastTerms;
+        this.coursesPerTerm = coursesPerTerm;
+    }
+
+    public long getSeed() { return seed; }
+    public int getStudentCount() { return studentCount; }
+    public int getCourseCount() { return courseCount; }
+    public int getPastTerms() { return pastTerms; }
+    public int getCoursesPerTerm() { return coursesPerTerm; }
+
+    @Override
+    public String toString() {
+        return String.format("seed %d, %d students, %d courses, %d past terms, %d courses per term",
+                seed, studentCount, courseCount, pastTerms, coursesPerTerm);
+    }
+}
@@ -0,0 +1,29 @@
+package dataset;
+
+/**
+ * What a generator run produced
+ */
+public class DatasetSummary {
+    long users;
+    long courses;
+    long prerequisites;
+    long offerings;
+    long registrations;
+    long elapsedNanos;
+    boolean stored;
+
+    public long getUsers() { return users; }
+    public long getCourses() { return courses; }
+    public long getPrerequisites() { return prerequisites; }
+    public long getOfferings() { return offerings; }
+    public long getRegistrations() { return registrations; }
+    public long getElapsedNanos() { return elapsedNanos; }
+    public boolean isStored() { return stored; }
+
+    @Override
+    public String toString() {
+        return String.format("%d users, %d courses, %d prerequisites, %d offerings, %d registrations in %.1f s%s",
+                users, courses, prerequisites, offerings, registrations, elapsedNanos / 1e9,
+                stored ? "" : " (not everything was stored)");
+    }
+}
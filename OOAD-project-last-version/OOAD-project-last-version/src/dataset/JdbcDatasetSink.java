@@ -0,0 +1,199 @@
+package dataset;
+
+import model.*;
+import service.UserDirectory;
+import util.ConnectionPool;
+import util.PooledConnection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+
+/**
+ * Writes generated data directly into the H2 tables in JDBC batches.
+ * One connection is held for the whole load and every full batch is
+ * committed, so memory use stays flat no matter how large the dataset is.
+ * After the first SQL error the remaining data is skipped.
+ */
+public class JdbcDatasetSink implements DatasetSink {
+    private static final int BATCH_SIZE = 1000;
+
+    private static final String UPSERT_USER =
+            "MERGE INTO users (user_id, name, email, email_key, password, role, level, major, department, admin_role) " +
+            "KEY (user_id) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String UPSERT_COURSE =
+            "MERGE INTO courses (course_code, title, credits, description, ordinal) KEY (course_code) VALUES (?, ?, ?, ?, ?)";
+    private static final String UPSERT_PREREQUISITE =
+            "MERGE INTO course_prerequisites (course_code, prerequisite_code) KEY (course_code, prerequisite_code) VALUES (?, ?)";
+    private static final String UPSERT_OFFERING =
+            "MERGE INTO course_offerings (offering_id, course_code, instructor_id, term_name, term_start, term_end, " +
+            "registration_status, days, start_time, end_time, capacity) KEY (offering_id) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String UPSERT_REGISTRATION =
+            "MERGE INTO registrations (registration_id, student_id, offering_id, status, created_at) " +
+            "KEY (registration_id) VALUES (?, ?, ?, ?, ?)";
+
+    private final PooledConnection connection;
+    private final Batch users;
+    private final Batch courses;
+    private final Batch prerequisites;
+    private final Batch offerings;
+    private final Batch registrations;
+    private int nextOrdinal;
+    private boolean failed;
+
+    public JdbcDatasetSink(ConnectionPool pool) throws SQLException {
+        this.connection = pool.borrow();
+        connection.getConnection().setAutoCommit(false);
+        this.users = new Batch(UPSERT_USER);
+        this.courses = new Batch(UPSERT_COURSE);
+        this.prerequisites = new Batch(UPSERT_PREREQUISITE);
+        this.offerings = new Batch(UPSERT_OFFERING);
+        this.registrations = new Batch(UPSERT_REGISTRATION);
+    }
+
+    @Override
+    public void addUser(User user) {
+        if (failed) return;
+        try {
+            PreparedStatement statement = users.statement;
+            statement.setInt(1, user.getUserID());
+            statement.setString(2, user.getName());
+            statement.setString(3, user.getEmail());
+            statement.setString(4, UserDirectory.normalizeEmail(user.getEmail()));
+            statement.setString(5, user.getPassword());
+            statement.setString(6, user.getRole());
+            statement.setNull(7, Types.INTEGER);
+            statement.setNull(8, Types.VARCHAR);
+            statement.setNull(9, Types.VARCHAR);
+            statement.setNull(10, Types.VARCHAR);
+            if (user instanceof Student) {
+                statement.setInt(7, ((Student) user).getLevel());
+                statement.setString(8, ((Student) user).getMajor());
+            } else if (user instanceof Instructor) {
+                statement.setString(9, ((Instructor) user).getDepartment());
+            } else if (user instanceof Administrator) {
+                statement.setString(10, ((Administrator) user).getAdminRole());
+            }
+            users.add();
+        } catch (SQLException e) {
+            fail("user " + user.getEmail(), e);
+        }
+    }
+
+    @Override
+    public void addCourse(Course course) {
+        if (failed) return;
+        try {
+            PreparedStatement statement = courses.statement;
+            statement.setString(1, course.getCourseCode());
+            statement.setString(2, course.getTitle());
+            statement.setInt(3, course.getCredits());
+            statement.setString(4, course.getDescription());
+            statement.setInt(5, nextOrdinal++);
+            courses.add();
+        } catch (SQLException e) {
+            fail("course " + course.getCourseCode(), e);
+        }
+    }
+
+    @Override
+    public void addPrerequisite(Course course, Course prerequisite) {
+        if (failed) return;
+        try {
+            PreparedStatement statement = prerequisites.statement;
+            statement.setString(1, course.getCourseCode());
+            statement.setString(2, prerequisite.getCourseCode());
+            prerequisites.add();
+        } catch (SQLException e) {
+            fail("prerequisite of " + course.getCourseCode(), e);
+        }
+    }
+
+    @Override
+    public void addOffering(CourseOffering offering) {
+        if (failed) return;
+        try {
+            PreparedStatement statement = offerings.statement;
+            Semester semester = offering.getSemester();
+            Schedule schedule = offering.getSchedule();
+            statement.setInt(1, offering.getOfferingID());
+            statement.setString(2, offering.getCourse().getCourseCode());
+            statement.setInt(3, offering.getInstructor().getUserID());
+            statement.setString(4, semester.getTermName());
+            statement.setDate(5, Date.valueOf(semester.getStartDate()));
+            statement.setDate(6, Date.valueOf(semester.getEndDate()));
+            statement.setString(7, semester.getRegistrationStatus());
+            statement.setString(8, schedule.getDays());
+            statement.setString(9, schedule.getStartTime());
+            statement.setString(10, schedule.getEndTime());
+            statement.setInt(11, offering.getCapacity());
+            offerings.add();
+        } catch (SQLException e) {
+            fail("offering " + offering.getOfferingID(), e);
+        }
+    }
+
+    @Override
+    public void addRegistration(int registrationID, Student student, CourseOffering offering, String status,
+                                long createdAtMillis) {
+        if (failed) return;
+        try {
+            PreparedStatement statement = registrations.statement;
+            statement.setInt(1, registrationID);
+            statement.setInt(2, student.getUserID());
+            statement.setInt(3, offering.getOfferingID());
+            statement.setString(4, status);
+            statement.setTimestamp(5, new Timestamp(createdAtMillis));
+            registrations.add();
+        } catch (SQLException e) {
+            fail("registration " + registrationID, e);
+        }
+    }
+
+    @Override
+    public boolean finish() {
+        try {
+            if (!failed) {
+                for (Batch batch : new Batch[] {users, courses, prerequisites, offerings, registrations}) {
+                    batch.flush();
+                }
+            }
+        } catch (SQLException e) {
+            fail("the last batch", e);
+        } finally {
+            connection.close();
+        }
+        return !failed;
+    }
+
+    private void fail(String what, SQLException e) {
+        System.out.println("Error writing generated " + what + ": " + e.getMessage());
+        failed = true;
+    }
+
+    private final class Batch {
+        private final PreparedStatement statement;
+        private int pending;
+
+        Batch(String sql) throws SQLException {
+            this.statement = connection.prepare(sql);
+        }
+
+        void add() throws SQLException {
+            statement.addBatch();
+            if (++pending == BATCH_SIZE) {
+                flush();
+            }
+        }
+
+        void flush() throws SQLException {
+            if (pending > 0) {
+                statement.executeBatch();
+                connection.getConnection().commit();
+                pending = 0;
+            }
+        }
+    }
+}
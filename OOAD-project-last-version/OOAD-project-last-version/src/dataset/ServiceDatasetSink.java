@@ -0,0 +1,53 @@
+package dataset;
+
+import model.*;
+import service.AuthService;
+import service.CourseService;
+import service.RegistrationService;
+
+/**
+ * Loads generated data straight into the in-memory services
+ */
+public class ServiceDatasetSink implements DatasetSink {
+    private final AuthService authService;
+    private final CourseService courseService;
+    private final RegistrationService registrationService;
+
+    public ServiceDatasetSink(AuthService authService, CourseService courseService,
+                              RegistrationService registrationService) {
+        this.authService = authService;
+        this.courseService = courseService;
+        this.registrationService = registrationService;
+    }
+
+    @Override
+    public void addUser(User user) {
+        authService.registerUser(user);
+    }
+
+    @Override
+    public void addCourse(Course course) {
+        courseService.addCourse(course);
+    }
+
+    @Override
+    public void addPrerequisite(Course course, Course prerequisite) {
+        courseService.addPrerequisite(course, prerequisite);
+    }
+
+    @Override
+    public void addOffering(CourseOffering offering) {
+        courseService.addCourseOffering(offering);
+    }
+
+    @Override
+    public void addRegistration(int registrationID, Student student, CourseOffering offering, String status,
+                                long createdAtMillis) {
+        registrationService.importRegistration(registrationID, student, offering, status, createdAtMillis);
+    }
+
+    @Override
+    public boolean finish() {
+        return true;
+    }
+}
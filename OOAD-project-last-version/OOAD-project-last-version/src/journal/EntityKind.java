@@ -0,0 +1,36 @@
+package journal;
+
+/**
+ * The kinds of records kept in the journal.
+ * Codes are written to disk, so existing values must never change.
+ */
+public enum EntityKind {
+    USER(1),
+    COURSE(2),
+    PREREQUISITE(3),
+    OFFERING(4),
+    REGISTRATION(5),
+    SPECIAL_REQUEST(6);
+
+    private final byte code;
+
+    EntityKind(int code) {
+        this.code = (byte) code;
+    }
+
+    public byte getCode() {
+        return code;
+    }
+
+    /**
+     * @return The kind stored under a code, or null if the code is unknown
+     */
+    public static EntityKind fromCode(byte code) {
+        for (EntityKind kind : values()) {
+            if (kind.code == code) {
+                return kind;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,626 @@
+package journal;
+
+import monitoring.PersistenceFlushEvent;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Append-only journal of every state change, with group commit and snapshots.
+ *
+ * Callers hand over an event and block until it is on disk; a single writer
+ * thread drains everything queued meanwhile, writes it in one go and pays for
+ * one fsync per group. Every snapshotInterval events a new journal segment is
+ * started and a copy of the folded state is written to a snapshot by a background
+ * thread, so commits never wait for it and recovery only loads the latest snapshot
+ * and replays the short tail written after it.
+ *
+ * A new snapshot is checksummed before it replaces anything, and the previous
+ * snapshot and the segments after it are kept, so an unreadable latest snapshot
+ * falls back to the one before. Recovery refuses to start if events are missing.
+ *
+ * Directory layout: snapshot-SEQ.snap holds everything up to SEQ,
+ * journal-SEQ.log holds the events from SEQ onwards.
+ * Record layout: [int length][long sequence][length bytes][int crc32 of sequence and body].
+ */
+public class EventJournal implements AutoCloseable {
+    private static final int SNAPSHOT_MAGIC = 0x4A534E50;
+    private static final int SNAPSHOT_VERSION = 1;
+    private static final int RECORD_OVERHEAD = 4 + 8 + 4;
+    private static final int MAX_BATCH = 1024;
+    private static final int BUFFER_SIZE = 256 * 1024;
+    private static final String SEGMENT_PREFIX = "journal-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final String SNAPSHOT_PREFIX = "snapshot-";
+    private static final String SNAPSHOT_SUFFIX = ".snap";
+
+    private final Path directory;
+    private final long snapshotInterval;
+    private final JournalState state;
+    private final BlockingQueue<PendingEvent> queue;
+    private final ReadWriteLock closeLock;
+    private final AtomicLong committedEvents;
+    private final AtomicLong groupCommits;
+    private final Thread writer;
+    private final ExecutorService snapshotter;
+    private final String recoverySummary;
+    private volatile boolean running;
+    private volatile boolean snapshotRequested;
+    private volatile boolean snapshotInFlight;
+    private volatile long durableSequence;
+    private volatile long snapshotSequence;
+
+    // Owned by the writer thread once it has started
+    private final CRC32 crc;
+    private ByteBuffer buffer;
+    private FileChannel segment;
+    private Path segmentPath;
+    private long lastSequence;
+    private long eventsSinceSnapshot;
+    private int snapshotRecords;
+
+    /**
+     * Open (or create) a journal directory and recover its state
+     * @param directory Where snapshots and journal segments live
+     * @param snapshotInterval Number of events between automatic snapshots
+     * @throws IOException if the directory cannot be used, a non-final segment is corrupt
+     *         or an unreadable snapshot leaves events that cannot be recovered
+     */
+    public EventJournal(Path directory, long snapshotInterval) throws IOException {
+        this.directory = directory;
+        this.snapshotInterval = snapshotInterval;
+        this.state = new JournalState();
+        this.queue = new LinkedBlockingQueue<>();
+        this.closeLock = new ReentrantReadWriteLock();
+        this.committedEvents = new AtomicLong(0);
+        this.groupCommits = new AtomicLong(0);
+        this.crc = new CRC32();
+        this.buffer = ByteBuffer.allocate(BUFFER_SIZE);
+
+        long started = System.nanoTime();
+        long replayed = recover();
+        this.durableSequence = lastSequence;
+        this.recoverySummary = String.format(
+                "Journal recovered %d records from snapshot #%d and replayed %d events in %.1f ms",
+                snapshotRecords, snapshotSequence, replayed,
+                (System.nanoTime() - started) / 1_000_000.0);
+
+        this.snapshotter = Executors.newSingleThreadExecutor(task -> {
+            Thread thread = new Thread(task, "journal-snapshot");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.running = true;
+        this.writer = new Thread(this::run, "journal-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    // ---------------------------------------------------------------- appending
+
+    /**
+     * Record the latest version of a record and wait until it is durable
+     * @param kind What kind of record this is
+     * @param key Integer or String identifying the record within its kind
+     * @param payload Encoded record (see Payload)
+     * @return true once the event is on disk, false if the journal is closed or the write failed
+     */
+    public boolean save(EntityKind kind, Object key, byte[] payload) {
+        return append(kind, key, payload).join();
+    }
+
+    /**
+     * Record the latest version of a record without waiting for the disk, so a caller
+     * holding a lock can release it before the group commit's fsync
+     * @return Completes with true once the event is on disk, false if the journal is closed or the write failed
+     */
+    public CompletableFuture<Boolean> saveAsync(EntityKind kind, Object key, byte[] payload) {
+        return append(kind, key, payload);
+    }
+
+    /**
+     * Record that a record was removed and wait until it is durable
+     */
+    public boolean delete(EntityKind kind, Object key) {
+        return append(kind, key, null).join();
+    }
+
+    private CompletableFuture<Boolean> append(EntityKind kind, Object key, byte[] payload) {
+        PendingEvent event = new PendingEvent(kind, key, payload);
+        closeLock.readLock().lock();
+        try {
+            if (!running) {
+                System.out.println("Error: Journal is closed; " + kind + " " + key + " was not recorded");
+                return CompletableFuture.completedFuture(false);
+            }
+            queue.offer(event);
+        } finally {
+            closeLock.readLock().unlock();
+        }
+        return event.done;
+    }
+
+    private void run() {
+        List<PendingEvent> batch = new ArrayList<>(MAX_BATCH);
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingEvent first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first != null) {
+                    batch.add(first);
+                    queue.drainTo(batch, MAX_BATCH - 1);
+                    commit(batch);
+                    batch.clear();
+                }
+            } catch (InterruptedException e) {
+                // Not used for shutdown: interrupting a FileChannel write would close the channel
+            }
+            if ((snapshotRequested || eventsSinceSnapshot >= snapshotInterval) && !snapshotInFlight) {
+                snapshotRequested = false;
+                startSnapshot();
+            }
+        }
+        // A clean shutdown leaves nothing to replay on the next start
+        if (eventsSinceSnapshot > 0) {
+            startSnapshot();
+        }
+        snapshotter.shutdown();
+        try {
+            snapshotter.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        try {
+            segment.close();
+        } catch (IOException e) {
+            System.out.println("Error closing journal segment: " + e.getMessage());
+        }
+    }
+
+    // Write the whole group, fsync once, then apply and release every waiting caller
+    private void commit(List<PendingEvent> batch) {
+        PersistenceFlushEvent flushEvent = new PersistenceFlushEvent();
+        flushEvent.begin();
+        long firstSequence = lastSequence + 1;
+        long startPosition = -1;
+        try {
+            startPosition = segment.position();
+            buffer.clear();
+            for (PendingEvent event : batch) {
+                int needed = RECORD_OVERHEAD + event.body.length;
+                if (buffer.remaining() < needed) {
+                    writeBuffer();
+                    if (buffer.capacity() < needed) {
+                        buffer = ByteBuffer.allocate(needed);
+                    }
+                }
+                int start = buffer.position();
+                buffer.putInt(event.body.length);
+                buffer.putLong(++lastSequence);
+                buffer.put(event.body);
+                ByteBuffer covered = buffer.duplicate();
+                covered.position(start + 4).limit(buffer.position());
+                crc.reset();
+                crc.update(covered);
+                buffer.putInt((int) crc.getValue());
+            }
+            writeBuffer();
+            segment.force(false);
+        } catch (IOException e) {
+            System.out.println("Error: Journal write failed: " + e.getMessage());
+            lastSequence = firstSequence - 1;
+            try {
+                if (startPosition >= 0) {
+                    segment.truncate(startPosition);
+                }
+            } catch (IOException ignored) {
+                // Recovery discards a torn tail anyway
+            }
+            for (PendingEvent event : batch) {
+                event.done.complete(false);
+            }
+            flushEvent.record("journal", batch.size(), false);
+            return;
+        }
+
+        for (PendingEvent event : batch) {
+            state.apply(event.kind, event.key, event.payload);
+        }
+        eventsSinceSnapshot += batch.size();
+        committedEvents.addAndGet(batch.size());
+        groupCommits.incrementAndGet();
+        durableSequence = lastSequence;
+        flushEvent.record("journal", batch.size(), true);
+        for (PendingEvent event : batch) {
+            event.done.complete(true);
+        }
+    }
+
+    private void writeBuffer() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            segment.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    // ---------------------------------------------------------------- snapshots
+
+    /**
+     * Ask the writer thread to take a snapshot after its current group
+     */
+    public void requestSnapshot() {
+        snapshotRequested = true;
+    }
+
+    // On the writer thread: start a fresh segment and hand a copy of the state to the snapshot thread
+    private void startSnapshot() {
+        long sequence = lastSequence;
+        if (sequence == snapshotSequence) {
+            return;
+        }
+        try {
+            rollSegment(sequence + 1);
+        } catch (IOException e) {
+            // Wait for another full interval rather than retrying on every poll
+            System.out.println("Error: Snapshot at #" + sequence + " failed: " + e.getMessage());
+            eventsSinceSnapshot = 0;
+            return;
+        }
+        eventsSinceSnapshot = 0;
+        JournalState.Frozen copy = state.freeze();
+        snapshotInFlight = true;
+        snapshotter.execute(() -> writeSnapshot(copy, sequence));
+    }
+
+    private void writeSnapshot(JournalState.Frozen copy, long sequence) {
+        Path target = directory.resolve(fileName(SNAPSHOT_PREFIX, sequence, SNAPSHOT_SUFFIX));
+        Path temp = directory.resolve(target.getFileName() + ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                CheckedOutputStream checked = new CheckedOutputStream(
+                        new BufferedOutputStream(Channels.newOutputStream(channel), BUFFER_SIZE), new CRC32());
+                DataOutputStream out = new DataOutputStream(checked);
+                out.writeInt(SNAPSHOT_MAGIC);
+                out.writeInt(SNAPSHOT_VERSION);
+                out.writeLong(sequence);
+                copy.writeTo(out);
+                out.writeInt((int) checked.getChecksum().getValue());
+                out.flush();
+                channel.force(true);
+            }
+            verifySnapshot(temp);
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            syncDirectory();
+            long previous = snapshotSequence;
+            snapshotSequence = sequence;
+            deleteObsoleteFiles(previous);
+        } catch (IOException e) {
+            System.out.println("Error: Snapshot at #" + sequence + " failed: " + e.getMessage());
+            try {
+                Files.deleteIfExists(temp);
+            } catch (IOException ignored) {
+                // Removed on the next start
+            }
+        } finally {
+            snapshotInFlight = false;
+        }
+    }
+
+    // Read the file back from disk and check it against its trailing checksum
+    private static void verifySnapshot(Path file) throws IOException {
+        long size = Files.size(file);
+        try (CheckedInputStream checked = new CheckedInputStream(
+                new BufferedInputStream(Files.newInputStream(file), BUFFER_SIZE), new CRC32())) {
+            DataInputStream in = new DataInputStream(checked);
+            byte[] chunk = new byte[BUFFER_SIZE];
+            for (long remaining = size - 4; remaining > 0; ) {
+                int read = (int) Math.min(chunk.length, remaining);
+                in.readFully(chunk, 0, read);
+                remaining -= read;
+            }
+            int expected = (int) checked.getChecksum().getValue();
+            if (in.readInt() != expected) {
+                throw new IOException("snapshot did not read back intact");
+            }
+        }
+    }
+
+    private long readSnapshot(Path file) throws IOException {
+        try (CheckedInputStream checked = new CheckedInputStream(
+                new BufferedInputStream(Files.newInputStream(file), BUFFER_SIZE), new CRC32())) {
+            DataInputStream in = new DataInputStream(checked);
+            if (in.readInt() != SNAPSHOT_MAGIC || in.readInt() != SNAPSHOT_VERSION) {
+                throw new IOException("not a snapshot file");
+            }
+            long sequence = in.readLong();
+            state.readFrom(in);
+            int expected = (int) checked.getChecksum().getValue();
+            if (in.readInt() != expected) {
+                throw new IOException("checksum mismatch");
+            }
+            return sequence;
+        }
+    }
+
+    // Later events go to a fresh segment, so every older segment is fully covered by the snapshot
+    private void rollSegment(long firstSequence) throws IOException {
+        Path next = directory.resolve(fileName(SEGMENT_PREFIX, firstSequence, SEGMENT_SUFFIX));
+        if (next.equals(segmentPath)) {
+            return;
+        }
+        // Open the new segment first so a failure leaves the current one usable
+        FileChannel opened = FileChannel.open(next, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        segment.close();
+        segmentPath = next;
+        segment = opened;
+    }
+
+    // Keep the previous snapshot and every segment after it as a fallback for the new one
+    private void deleteObsoleteFiles(long previous) throws IOException {
+        for (Path file : list(SEGMENT_PREFIX, SEGMENT_SUFFIX)) {
+            if (sequenceOf(file, SEGMENT_PREFIX, SEGMENT_SUFFIX) <= previous) {
+                Files.deleteIfExists(file);
+            }
+        }
+        for (Path file : list(SNAPSHOT_PREFIX, SNAPSHOT_SUFFIX)) {
+            if (sequenceOf(file, SNAPSHOT_PREFIX, SNAPSHOT_SUFFIX) < previous) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    private void syncDirectory() {
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            // Not supported on every platform; the rename itself is still atomic
+        }
+    }
+
+    // ---------------------------------------------------------------- recovery
+
+    private long recover() throws IOException {
+        Files.createDirectories(directory);
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : files.filter(f -> f.getFileName().toString().endsWith(".tmp"))
+                    .collect(Collectors.toList())) {
+                Files.deleteIfExists(file);
+            }
+        }
+
+        List<Path> snapshots = list(SNAPSHOT_PREFIX, SNAPSHOT_SUFFIX);
+        for (int i = snapshots.size() - 1; i >= 0; i--) {
+            try {
+                snapshotSequence = readSnapshot(snapshots.get(i));
+                break;
+            } catch (IOException e) {
+                System.out.println("Error: Ignoring unreadable snapshot " + snapshots.get(i).getFileName() +
+                        ": " + e.getMessage());
+                state.clear();
+            }
+        }
+        snapshotRecords = state.size();
+        lastSequence = snapshotSequence;
+
+        long replayed = 0;
+        List<Path> segments = list(SEGMENT_PREFIX, SEGMENT_SUFFIX);
+        for (int i = 0; i < segments.size(); i++) {
+            replayed += replay(segments.get(i), i == segments.size() - 1);
+        }
+        // Falling back to an older snapshot is only safe if the segments cover what the newer one held
+        if (!snapshots.isEmpty()) {
+            Path newest = snapshots.get(snapshots.size() - 1);
+            if (lastSequence < sequenceOf(newest, SNAPSHOT_PREFIX, SNAPSHOT_SUFFIX)) {
+                throw new IOException("Snapshot " + newest.getFileName() +
+                        " is unreadable and the journal does not cover the events it held");
+            }
+        }
+
+        if (segments.isEmpty()) {
+            segmentPath = directory.resolve(fileName(SEGMENT_PREFIX, lastSequence + 1, SEGMENT_SUFFIX));
+        } else {
+            segmentPath = segments.get(segments.size() - 1);
+        }
+        segment = FileChannel.open(segmentPath, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        segment.position(segment.size());
+        eventsSinceSnapshot = lastSequence - snapshotSequence;
+        return replayed;
+    }
+
+    // Apply every record newer than what we already have; a torn record can only be at the very end
+    private long replay(Path file, boolean lastSegment) throws IOException {
+        long size = Files.size(file);
+        long position = 0;
+        long replayed = 0;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), BUFFER_SIZE))) {
+            while (position < size) {
+                byte[] record;
+                try {
+                    int length = in.readInt();
+                    if (length < 0 || position + RECORD_OVERHEAD + length > size) {
+                        throw new EOFException("record runs past the end of the segment");
+                    }
+                    record = new byte[8 + length];
+                    in.readFully(record);
+                    crc.reset();
+                    crc.update(record);
+                    if (in.readInt() != (int) crc.getValue()) {
+                        throw new EOFException("checksum mismatch");
+                    }
+                } catch (EOFException e) {
+                    if (!lastSegment) {
+                        throw new IOException("Corrupt journal segment " + file.getFileName() + ": " + e.getMessage());
+                    }
+                    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+                        channel.truncate(position);
+                    }
+                    System.out.println("Discarded torn journal tail in " + file.getFileName() + " at byte " + position);
+                    break;
+                }
+                position += RECORD_OVERHEAD + record.length - 8;
+
+                long sequence = ByteBuffer.wrap(record).getLong();
+                if (sequence > lastSequence) {
+                    if (sequence != lastSequence + 1) {
+                        throw new IOException("Journal is missing events #" + (lastSequence + 1) + " to #" +
+                                (sequence - 1) + " before " + file.getFileName());
+                    }
+                    applyBody(record);
+                    lastSequence = sequence;
+                    replayed++;
+                }
+            }
+        }
+        return replayed;
+    }
+
+    private void applyBody(byte[] record) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(record, 8, record.length - 8));
+        EntityKind kind = EntityKind.fromCode(in.readByte());
+        Object key = Payload.readKey(in);
+        byte[] payload = null;
+        if (in.readBoolean()) {
+            payload = new byte[in.readInt()];
+            in.readFully(payload);
+        }
+        if (kind == null) {
+            throw new IOException("Unknown record kind in journal");
+        }
+        state.apply(kind, key, payload);
+    }
+
+    // ---------------------------------------------------------------- queries
+
+    /**
+     * Get the current payloads of one kind, in the order the records were first saved
+     */
+    public List<byte[]> payloads(EntityKind kind) {
+        return state.payloads(kind);
+    }
+
+    public List<Object> keys(EntityKind kind) {
+        return state.keys(kind);
+    }
+
+    public boolean isEmpty() {
+        return state.size() == 0;
+    }
+
+    public long getDurableSequence() {
+        return durableSequence;
+    }
+
+    public long getSnapshotSequence() {
+        return snapshotSequence;
+    }
+
+    public String getRecoverySummary() {
+        return recoverySummary;
+    }
+
+    public String getSummary() {
+        long commits = groupCommits.get();
+        long events = committedEvents.get();
+        return String.format("Journal: %d events in %d group commits (%.1f per fsync), durable #%d, snapshot #%d",
+                events, commits, commits == 0 ? 0.0 : (double) events / commits, durableSequence, snapshotSequence);
+    }
+
+    /**
+     * Finish every queued write, take a final snapshot and stop the writer
+     */
+    @Override
+    public void close() {
+        closeLock.writeLock().lock();
+        try {
+            if (!running) {
+                return;
+            }
+            running = false;
+        } finally {
+            closeLock.writeLock().unlock();
+        }
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private List<Path> list(String prefix, String suffix) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> {
+                String name = file.getFileName().toString();
+                return name.startsWith(prefix) && name.endsWith(suffix);
+            }).sorted(Comparator.comparingLong(file -> sequenceOf(file, prefix, suffix)))
+                    .collect(Collectors.toList());
+        }
+    }
+
+    private static long sequenceOf(Path file, String prefix, String suffix) {
+        String name = file.getFileName().toString();
+        try {
+            return Long.parseLong(name.substring(prefix.length(), name.length() - suffix.length()));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private static String fileName(String prefix, long sequence, String suffix) {
+        return String.format("%s%020d%s", prefix, sequence, suffix);
+    }
+
+    private static final class PendingEvent {
+        final EntityKind kind;
+        final Object key;
+        final byte[] payload;
+        final byte[] body;
+        final CompletableFuture<Boolean> done;
+
+        PendingEvent(EntityKind kind, Object key, byte[] payload) {
+            this.kind = kind;
+            this.key = key;
+            this.payload = payload;
+            // Encoded on the caller's thread so the writer only copies bytes
+            this.body = Payload.encode(out -> {
+                out.writeByte(kind.getCode());
+                Payload.writeKey(out, key);
+                out.writeBoolean(payload != null);
+                if (payload != null) {
+                    out.writeInt(payload.length);
+                    out.write(payload);
+                }
+            });
+            this.done = new CompletableFuture<>();
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package journal;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The latest payload of every live record, folded from the journal.
+ * Records keep the position of their first save, so registrations, offerings
+ * and users come back in creation order. This is exactly what a snapshot stores.
+ */
+class JournalState {
+    private final Map<EntityKind, LinkedHashMap<Object, byte[]>> records;
+
+    JournalState() {
+        this.records = new EnumMap<>(EntityKind.class);
+        for (EntityKind kind : EntityKind.values()) {
+            records.put(kind, new LinkedHashMap<>());
+        }
+    }
+
+    synchronized void apply(EntityKind kind, Object key, byte[] payload) {
+        if (payload == null) {
+            records.get(kind).remove(key);
+        } else {
+            records.get(kind).put(key, payload);
+        }
+    }
+
+    synchronized List<byte[]> payloads(EntityKind kind) {
+        return new ArrayList<>(records.get(kind).values());
+    }
+
+    synchronized List<Object> keys(EntityKind kind) {
+        return new ArrayList<>(records.get(kind).keySet());
+    }
+
+    synchronized int size() {
+        int size = 0;
+        for (Map<Object, byte[]> byKey : records.values()) {
+            size += byKey.size();
+        }
+        return size;
+    }
+
+    /**
+     * Capture every record for a snapshot written on another thread.
+     * Payloads are never modified in place, so the capture shares them and only
+     * fills three flat arrays, which keeps the time spent holding the lock short.
+     */
+    synchronized Frozen freeze() {
+        int size = size();
+        byte[] kinds = new byte[size];
+        Object[] keys = new Object[size];
+        byte[][] payloads = new byte[size][];
+        int index = 0;
+        for (Map.Entry<EntityKind, LinkedHashMap<Object, byte[]>> byKind : records.entrySet()) {
+            byte code = byKind.getKey().getCode();
+            for (Map.Entry<Object, byte[]> record : byKind.getValue().entrySet()) {
+                kinds[index] = code;
+                keys[index] = record.getKey();
+                payloads[index] = record.getValue();
+                index++;
+            }
+        }
+        return new Frozen(kinds, keys, payloads);
+    }
+
+    synchronized void readFrom(DataInputStream in) throws IOException {
+        int count = in.readInt();
+        for (int i = 0; i < count; i++) {
+            EntityKind kind = EntityKind.fromCode(in.readByte());
+            Object key = Payload.readKey(in);
+            byte[] payload = new byte[in.readInt()];
+            in.readFully(payload);
+            if (kind == null) {
+                throw new IOException("Unknown record kind in snapshot");
+            }
+            records.get(kind).put(key, payload);
+        }
+    }
+
+    synchronized void clear() {
+        for (Map<Object, byte[]> byKey : records.values()) {
+            byKey.clear();
+        }
+    }
+
+    /**
+     * Records captured by freeze(), in the layout writeTo uses
+     */
+    static final class Frozen {
+        private final byte[] kinds;
+        private final Object[] keys;
+        private final byte[][] payloads;
+
+        private Frozen(byte[] kinds, Object[] keys, byte[][] payloads) {
+            this.kinds = kinds;
+            this.keys = keys;
+            this.payloads = payloads;
+        }
+
+        void writeTo(DataOutputStream out) throws IOException {
+            out.writeInt(kinds.length);
+            for (int i = 0; i < kinds.length; i++) {
+                out.writeByte(kinds[i]);
+                Payload.writeKey(out, keys[i]);
+                out.writeInt(payloads[i].length);
+                out.write(payloads[i]);
+            }
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package journal;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * Helpers for the small binary records stored in the journal
+ */
+public final class Payload {
+    private Payload() {
+        // Static helpers only
+    }
+
+    public interface Encoder {
+        void write(DataOutputStream out) throws IOException;
+    }
+
+    public static byte[] encode(Encoder encoder) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            encoder.write(out);
+        } catch (IOException e) {
+            // Writing to memory cannot fail
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    public static DataInputStream decode(byte[] payload) {
+        return new DataInputStream(new ByteArrayInputStream(payload));
+    }
+
+    public static void writeNullable(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    public static String readNullable(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    static void writeKey(DataOutputStream out, Object key) throws IOException {
+        if (key instanceof Integer) {
+            out.writeByte(0);
+            out.writeInt((Integer) key);
+        } else {
+            out.writeByte(1);
+            out.writeUTF((String) key);
+        }
+    }
+
+    static Object readKey(DataInputStream in) throws IOException {
+        return in.readByte() == 0 ? (Object) in.readInt() : in.readUTF();
+    }
+}
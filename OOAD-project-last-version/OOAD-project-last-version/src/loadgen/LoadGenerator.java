@@ -0,0 +1,304 @@
+package loadgen;
+
+import model.CourseOffering;
+import model.Registration;
+import model.Student;
+import util.VirtualThreads;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Queue;
+import java.util.Random;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Drives the real services with many simulated students at once.
+ * All simulated students start together, like students waiting for registration
+ * to open. Each one gets its own virtual thread when the JVM has them (Java 21+);
+ * otherwise a bounded number of platform threads take turns between the students.
+ */
+public class LoadGenerator {
+    // Students in a rush fill a typical five-course term in one checkout
+    private static final int CART_SIZE = 5;
+    // Plenty to keep the services' locks contended without a platform thread per student
+    private static final int MAX_PLATFORM_LANES = 256;
+
+    private final LoadWorld world;
+
+    public LoadGenerator(LoadWorld world) {
+        this.world = world;
+    }
+
+    /**
+     * Let simulated students send random operations drawn from the mix
+     * @param concurrentStudents Number of simulated students, at most the world's population
+     * @param operationsPerStudent Requests each simulated student sends
+     * @param thinkMillis Mean pause between a student's requests (exponentially distributed), 0 for none
+     * @param traceFile Where to record the traffic, or null to not record it
+     */
+    public LoadReport run(int concurrentStudents, int operationsPerStudent, OperationMix mix, long seed,
+                          long thinkMillis, Path traceFile) throws IOException, InterruptedException {
+        if (concurrentStudents > world.getPopulationSize()) {
+            throw new IllegalArgumentException("More simulated students than the population holds");
+        }
+        LoadReport report = new LoadReport();
+        Queue<TraceEvent> events = traceFile != null ? new ConcurrentLinkedQueue<>() : null;
+
+        List<SimulatedStudent> students = new ArrayList<>(concurrentStudents);
+        for (int i = 0; operationsPerStudent > 0 && i < concurrentStudents; i++) {
+            int studentIndex = i;
+            Random random = new Random(seed * 31 + i);
+            students.add(new SimulatedStudent() {
+                private int sent;
+
+                @Override
+                boolean sendNext() {
+                    Operation operation = mix.next(random);
+                    int offeringID = chooseOffering(studentIndex, operation, random);
+                    long begin = System.nanoTime();
+                    execute(report, studentIndex, operation, offeringID, begin);
+                    if (events != null) {
+                        long offsetMicros = TimeUnit.NANOSECONDS.toMicros(begin - runStart);
+                        events.add(new TraceEvent(offsetMicros, studentIndex, operation, offeringID));
+                    }
+                    if (++sent == operationsPerStudent) {
+                        return false;
+                    }
+                    due = System.nanoTime();
+                    if (thinkMillis > 0) {
+                        long pause = (long) (-Math.log(1 - random.nextDouble()) * thinkMillis);
+                        due += TimeUnit.MILLISECONDS.toNanos(pause);
+                    }
+                    return true;
+                }
+            });
+        }
+        runAll(students, report);
+
+        if (events != null) {
+            List<TraceEvent> ordered = new ArrayList<>(events);
+            ordered.sort(Comparator.comparingLong(TraceEvent::getOffsetMicros));
+            try (TraceWriter writer = new TraceWriter(traceFile, world.getPopulationSize(), world.getCourseCount())) {
+                for (TraceEvent event : ordered) {
+                    writer.append(event);
+                }
+            }
+        }
+        return report;
+    }
+
+    /**
+     * Send the requests of a recorded trace again, one simulated student per student
+     * in the trace, keeping every student's requests in their original order
+     * @param realTime true to send each request at its recorded time, false to go as fast as possible
+     */
+    public LoadReport replay(TraceReader reader, boolean realTime) throws IOException, InterruptedException {
+        if (reader.getPopulationSize() != world.getPopulationSize() ||
+                reader.getCourseCount() != world.getCourseCount()) {
+            throw new IllegalArgumentException("The trace was recorded against a different world");
+        }
+        List<List<TraceEvent>> eventsByStudent = new ArrayList<>();
+        for (TraceEvent event = reader.next(); event != null; event = reader.next()) {
+            while (eventsByStudent.size() <= event.getStudentIndex()) {
+                eventsByStudent.add(new ArrayList<>());
+            }
+            eventsByStudent.get(event.getStudentIndex()).add(event);
+        }
+
+        LoadReport report = new LoadReport();
+        List<SimulatedStudent> students = new ArrayList<>();
+        for (List<TraceEvent> studentEvents : eventsByStudent) {
+            if (studentEvents.isEmpty()) continue;
+            students.add(new SimulatedStudent() {
+                private int sent;
+
+                @Override
+                void start(long runStart) {
+                    super.start(runStart);
+                    due = dueTime(studentEvents.get(0));
+                }
+
+                @Override
+                boolean sendNext() {
+                    TraceEvent event = studentEvents.get(sent++);
+                    // Measure from the scheduled time, so a backlog shows up as latency
+                    long begin = realTime ? due : System.nanoTime();
+                    execute(report, event.getStudentIndex(), event.getOperation(), event.getOfferingID(), begin);
+                    if (sent == studentEvents.size()) {
+                        return false;
+                    }
+                    due = dueTime(studentEvents.get(sent));
+                    return true;
+                }
+
+                private long dueTime(TraceEvent event) {
+                    return realTime ? runStart + TimeUnit.MICROSECONDS.toNanos(event.getOffsetMicros())
+                            : System.nanoTime();
+                }
+            });
+        }
+        runAll(students, report);
+        return report;
+    }
+
+    // Share the students out over lanes, start all lanes at the same moment and wait for them
+    private static void runAll(List<SimulatedStudent> students, LoadReport report) throws InterruptedException {
+        ExecutorService executor = VirtualThreads.newPerTaskExecutor();
+        int laneCount = students.size();
+        if (executor == null) {
+            laneCount = Math.min(laneCount, MAX_PLATFORM_LANES);
+            executor = Executors.newFixedThreadPool(Math.max(laneCount, 1));
+        }
+        List<List<SimulatedStudent>> lanes = new ArrayList<>(laneCount);
+        for (int i = 0; i < laneCount; i++) {
+            lanes.add(new ArrayList<>());
+        }
+        for (int i = 0; i < students.size(); i++) {
+            lanes.get(i % laneCount).add(students.get(i));
+        }
+        CountDownLatch ready = new CountDownLatch(laneCount);
+        CountDownLatch start = new CountDownLatch(1);
+        long[] runStart = new long[1];
+        List<Future<?>> futures = new ArrayList<>(laneCount);
+        for (List<SimulatedStudent> lane : lanes) {
+            futures.add(executor.submit(() -> {
+                ready.countDown();
+                start.await();
+                runLane(lane, runStart[0]);
+                return null;
+            }));
+        }
+        ready.await();
+        runStart[0] = System.nanoTime();
+        start.countDown();
+        try {
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Simulated student stopped unexpectedly", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+        report.finish(System.nanoTime() - runStart[0]);
+    }
+
+    // Send each student's requests when they are due, earliest first, until every student is done
+    private static void runLane(List<SimulatedStudent> lane, long runStart) {
+        PriorityQueue<SimulatedStudent> waiting = new PriorityQueue<>(lane.size(),
+                (a, b) -> Long.signum(a.due - b.due));
+        for (SimulatedStudent student : lane) {
+            student.start(runStart);
+            waiting.add(student);
+        }
+        while (!waiting.isEmpty()) {
+            SimulatedStudent student = waiting.poll();
+            for (long wait = student.due - System.nanoTime(); wait > 0; wait = student.due - System.nanoTime()) {
+                LockSupport.parkNanos(wait);
+            }
+            if (student.sendNext()) {
+                waiting.add(student);
+            }
+        }
+    }
+
+    // Popular courses get more traffic: low course indexes are picked far more often
+    private int chooseOffering(int studentIndex, Operation operation, Random random) {
+        if (operation == Operation.DROP) {
+            Student student = world.getStudent(studentIndex);
+            synchronized (student) {
+                List<Registration> registered = new ArrayList<>();
+                for (Registration registration : student.getRegistrations()) {
+                    if ("registered".equals(registration.getStatus())) {
+                        registered.add(registration);
+                    }
+                }
+                if (!registered.isEmpty()) {
+                    return registered.get(random.nextInt(registered.size())).getOfferingID();
+                }
+            }
+        }
+        double skewed = random.nextDouble() * random.nextDouble();
+        return world.getOfferingID((int) (skewed * world.getCourseCount()));
+    }
+
+    private void execute(LoadReport report, int studentIndex, Operation operation, int offeringID, long begin) {
+        boolean accepted;
+        try {
+            accepted = perform(world.getStudent(studentIndex), operation, offeringID);
+        } catch (RuntimeException e) {
+            report.recordFailure(operation, System.nanoTime() - begin);
+            return;
+        }
+        report.record(operation, System.nanoTime() - begin, accepted);
+    }
+
+    private boolean perform(Student student, Operation operation, int offeringID) {
+        switch (operation) {
+            case LOGIN:
+                return world.getAuthService().openSession(student.getEmail(), LoadWorld.PASSWORD) != null;
+            case BROWSE:
+                // Like the console: list every offering with its availability, then open one
+                for (CourseOffering offering : student.browseCourses(world.getCourseService().getCourseOfferings())) {
+                    offering.checkAvailability();
+                }
+                CourseOffering chosen = world.getCourseService().findOfferingById(offeringID);
+                return chosen != null && !chosen.getOfferingInfo().isEmpty();
+            case REGISTER:
+                return world.getRegistrationService().registerCourse(student, offeringID).isSuccess();
+            case DROP:
+                Registration registration = findRegistered(student, offeringID);
+                return registration != null &&
+                        world.getRegistrationService().dropCourse(student, registration.getRegistrationID());
+            case SPECIAL_REQUEST:
+                return world.getRegistrationService().submitSpecialRequest(student, offeringID, "Load test request");
+            case CHECKOUT:
+                return world.getRegistrationService().checkout(student, world.getCart(offeringID, CART_SIZE))
+                        .isSuccess();
+            default:
+                throw new IllegalArgumentException("Unknown operation: " + operation);
+        }
+    }
+
+    private static Registration findRegistered(Student student, int offeringID) {
+        synchronized (student) {
+            for (Registration registration : student.getRegistrations()) {
+                if (registration.getOfferingID() == offeringID && "registered".equals(registration.getStatus())) {
+                    return registration;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * One simulated student, sending its requests one at a time so that a lane
+     * thread can take turns between many students
+     */
+    private abstract static class SimulatedStudent {
+        long runStart;
+        // When the next request should go out, in System.nanoTime() terms
+        long due;
+
+        void start(long runStart) {
+            this.runStart = runStart;
+            this.due = runStart;
+        }
+
+        /**
+         * Send the request that is due and set when the next one is due
+         * @return false once the student has sent all its requests
+         */
+        abstract boolean sendNext();
+    }
+}
@@ -0,0 +1,120 @@
+package loadgen;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Command line entry point for rehearsing a registration rush.
+ *
+ *   run [--students N] [--population N] [--courses N] [--ops N] [--mix SPEC]
+ *       [--seed N] [--think MILLIS] [--record FILE]
+ *   replay FILE [--max-speed]
+ *
+ * A replay rebuilds the world the trace was recorded against and sends the
+ * same requests again, at their recorded times or as fast as possible.
+ */
+public class LoadGeneratorMain {
+    private static final PrintStream console = System.out;
+
+    public static void main(String[] args) {
+        try {
+            if (args.length > 0 && args[0].equals("run")) {
+                run(args);
+            } else if (args.length > 1 && args[0].equals("replay")) {
+                replay(args);
+            } else {
+                printUsage();
+            }
+        } catch (IllegalArgumentException e) {
+            console.println("Error: " + e.getMessage());
+            printUsage();
+        } catch (IOException e) {
+            console.println("Error: Could not access trace file: " + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            console.println("Error: Load run was interrupted");
+        } finally {
+            System.setOut(console);
+        }
+    }
+
+    private static void run(String[] args) throws IOException, InterruptedException {
+        int students = 200;
+        int population = -1;
+        int courses = 50;
+        int operations = 50;
+        OperationMix mix = OperationMix.OPENING_DAY;
+        long seed = 42;
+        long thinkMillis = 0;
+        Path traceFile = null;
+        for (int i = 1; i < args.length; i++) {
+            String option = args[i];
+            if (i + 1 >= args.length) {
+                throw new IllegalArgumentException("Missing value for " + option);
+            }
+            String value = args[++i];
+            switch (option) {
+                case "--students": students = Integer.parseInt(value); break;
+                case "--population": population = Integer.parseInt(value); break;
+                case "--courses": courses = Integer.parseInt(value); break;
+                case "--ops": operations = Integer.parseInt(value); break;
+                case "--mix": mix = OperationMix.parse(value); break;
+                case "--seed": seed = Long.parseLong(value); break;
+                case "--think": thinkMillis = Long.parseLong(value); break;
+                case "--record": traceFile = Paths.get(value); break;
+                default: throw new IllegalArgumentException("Unknown option " + option);
+            }
+        }
+        if (students <= 0 || courses <= 0 || operations <= 0) {
+            throw new IllegalArgumentException("--students, --courses and --ops must be positive");
+        }
+        population = Math.max(population, students);
+
+        console.printf("Simulating %d students x %d operations (population %d, %d courses, mix %s)%n",
+                students, operations, population, courses, mix);
+        silenceServices();
+        LoadWorld world = new LoadWorld(population, courses);
+        try {
+            LoadReport report = new LoadGenerator(world).run(students, operations, mix, seed, thinkMillis, traceFile);
+            report.print(console);
+            if (traceFile != null) {
+                console.println("Trace recorded to " + traceFile);
+            }
+        } finally {
+            world.shutdown();
+        }
+    }
+
+    private static void replay(String[] args) throws IOException, InterruptedException {
+        Path traceFile = Paths.get(args[1]);
+        boolean realTime = !(args.length > 2 && args[2].equals("--max-speed"));
+        try (TraceReader reader = new TraceReader(traceFile)) {
+            console.printf("Replaying %s %s (population %d, %d courses)%n", traceFile,
+                    realTime ? "at recorded speed" : "as fast as possible",
+                    reader.getPopulationSize(), reader.getCourseCount());
+            silenceServices();
+            LoadWorld world = new LoadWorld(reader.getPopulationSize(), reader.getCourseCount());
+            try {
+                new LoadGenerator(world).replay(reader, realTime).print(console);
+            } finally {
+                world.shutdown();
+            }
+        }
+    }
+
+    // The services print every login and registration; that would dominate the measurements
+    private static void silenceServices() {
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+    }
+
+    private static void printUsage() {
+        console.println("Usage:");
+        console.println("  run [--students N] [--population N] [--courses N] [--ops N] [--mix SPEC]");
+        console.println("      [--seed N] [--think MILLIS] [--record FILE]");
+        console.println("  replay FILE [--max-speed]");
+        console.println("SPEC example: " + OperationMix.OPENING_DAY);
+    }
+}
@@ -0,0 +1,80 @@
+package loadgen;
+
+import util.LatencyHistogram;
+import java.io.PrintStream;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency and outcome counts per operation for one load run.
+ * An operation is "rejected" when the service refused it (course full,
+ * wrong password, nothing to drop) and "failed" when it threw.
+ */
+public class LoadReport {
+    private final Map<Operation, LatencyHistogram> latencies;
+    private final Map<Operation, LongAdder> rejected;
+    private final Map<Operation, LongAdder> failed;
+    private volatile long elapsedNanos;
+
+    public LoadReport() {
+        this.latencies = new EnumMap<>(Operation.class);
+        this.rejected = new EnumMap<>(Operation.class);
+        this.failed = new EnumMap<>(Operation.class);
+        for (Operation operation : Operation.values()) {
+            latencies.put(operation, new LatencyHistogram());
+            rejected.put(operation, new LongAdder());
+            failed.put(operation, new LongAdder());
+        }
+    }
+
+    public void record(Operation operation, long latencyNanos, boolean accepted) {
+        latencies.get(operation).record(latencyNanos);
+        if (!accepted) {
+            rejected.get(operation).increment();
+        }
+    }
+
+    public void recordFailure(Operation operation, long latencyNanos) {
+        latencies.get(operation).record(latencyNanos);
+        failed.get(operation).increment();
+    }
+
+    void finish(long elapsedNanos) {
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    public LatencyHistogram getLatencies(Operation operation) {
+        return latencies.get(operation);
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    public void print(PrintStream out) {
+        double seconds = Math.max(elapsedNanos, 1) / 1e9;
+        LatencyHistogram all = new LatencyHistogram();
+        out.printf("%-16s %9s %9s %7s %11s %9s %9s %9s %9s%n",
+                "Operation", "Count", "Rejected", "Failed", "Ops/sec", "p50 us", "p99 us", "p999 us", "Max us");
+        for (Operation operation : Operation.values()) {
+            LatencyHistogram histogram = latencies.get(operation);
+            if (histogram.getCount() == 0) continue;
+            all.add(histogram);
+            printRow(out, operation.name(), histogram, rejected.get(operation).sum(),
+                    failed.get(operation).sum(), seconds);
+        }
+        long totalRejected = rejected.values().stream().mapToLong(LongAdder::sum).sum();
+        long totalFailed = failed.values().stream().mapToLong(LongAdder::sum).sum();
+        printRow(out, "ALL", all, totalRejected, totalFailed, seconds);
+        out.printf("Elapsed: %.2f s%n", seconds);
+    }
+
+    private static void printRow(PrintStream out, String name, LatencyHistogram histogram, long rejectedCount,
+                                 long failedCount, double seconds) {
+        out.printf("%-16s %9d %9d %7d %11.0f %9.1f %9.1f %9.1f %9.1f%n",
+                name, histogram.getCount(), rejectedCount, failedCount, histogram.getCount() / seconds,
+                histogram.getValueAtPercentile(50) / 1e3, histogram.getValueAtPercentile(99) / 1e3,
+                histogram.getValueAtPercentile(99.9) / 1e3, histogram.getMax() / 1e3);
+    }
+}
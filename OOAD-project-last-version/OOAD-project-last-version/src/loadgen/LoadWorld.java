@@ -0,0 +1,91 @@
+package loadgen;
+
+import model.*;
+import service.AuthService;
+import service.CourseService;
+import service.RegistrationService;
+import util.PasswordHasher;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * An in-memory system populated for load testing.
+ * The same population size and course count always build the same world,
+ * so a recorded trace can be replayed against a fresh copy.
+ * Seats are scarce on purpose: each offering holds about two students per
+ * course in the catalog, at least 10.
+ * Logins are checked at a reduced hashing cost so a rehearsal measures the
+ * registration path rather than PBKDF2.
+ */
+public class LoadWorld {
+    static final String PASSWORD = "loadtest";
+    private static final int PASSWORD_ITERATIONS = PasswordHasher.MIN_ITERATIONS;
+    private static final String[] DAYS = {"Mon", "Tue", "Wed", "Thu", "Fri"};
+
+    private final AuthService authService;
+    private final CourseService courseService;
+    private final RegistrationService registrationService;
+    private final Student[] students;
+    private final int[] offeringIDs;
+
+    public LoadWorld(int populationSize, int courseCount) {
+        this.authService = new AuthService(null, new PasswordHasher(PASSWORD_ITERATIONS));
+        this.courseService = new CourseService();
+        this.registrationService = new RegistrationService(courseService);
+        this.students = new Student[populationSize];
+        this.offeringIDs = new int[courseCount];
+
+        // One shared hash instead of one PBKDF2 run per generated user
+        String passwordHash = authService.getPasswordHasher().hash(PASSWORD);
+        Instructor instructor = new Instructor(authService.generateUserID(), "Load Instructor",
+                "instructor@load.test", passwordHash, "Computer Science");
+        authService.registerUser(instructor);
+        Semester semester = new Semester("Opening Day", LocalDate.now(), LocalDate.now().plusMonths(4));
+        semester.openRegistration();
+
+        int capacity = Math.max(10, populationSize * 2 / Math.max(courseCount, 1));
+        for (int i = 0; i < courseCount; i++) {
+            Course course = courseService.addCourse(String.format("LOAD%04d", i), "Load Course " + i, 3,
+                    "Generated for load testing");
+            int hour = 8 + (i / DAYS.length) % 12;
+            Schedule schedule = new Schedule(DAYS[i % DAYS.length],
+                    String.format("%02d:00", hour), String.format("%02d:50", hour));
+            CourseOffering offering = new CourseOffering(i + 1, course, instructor, semester, schedule, capacity);
+            courseService.addCourseOffering(offering);
+            offeringIDs[i] = offering.getOfferingID();
+        }
+
+        for (int i = 0; i < populationSize; i++) {
+            students[i] = new Student(authService.generateUserID(), "Load Student " + i, "student" + i + "@load.test",
+                    passwordHash, 1 + i % 4, "Computer Science");
+            authService.registerUser(students[i]);
+        }
+    }
+
+    public void shutdown() {
+        registrationService.shutdown();
+        authService.shutdown();
+    }
+
+    public AuthService getAuthService() { return authService; }
+    public CourseService getCourseService() { return courseService; }
+    public RegistrationService getRegistrationService() { return registrationService; }
+    public Student getStudent(int index) { return students[index]; }
+    public int getPopulationSize() { return students.length; }
+    public int getCourseCount() { return offeringIDs.length; }
+    public int getOfferingID(int index) { return offeringIDs[index]; }
+
+    /**
+     * A registration cart of consecutive courses starting at an offering.
+     * Consecutive courses meet on different weekdays, so a cart of up to five never clashes with itself.
+     */
+    public List<Integer> getCart(int offeringID, int size) {
+        List<Integer> cart = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            // Offering IDs are the course index plus one
+            cart.add(offeringIDs[(offeringID - 1 + i) % offeringIDs.length]);
+        }
+        return cart;
+    }
+}
@@ -0,0 +1,31 @@
+package loadgen;
+
+/**
+ * The kinds of request a simulated student sends
+ */
+public enum Operation {
+    LOGIN(1),
+    BROWSE(2),
+    REGISTER(3),
+    DROP(4),
+    SPECIAL_REQUEST(5),
+    // Register for a cart of several courses in one call
+    CHECKOUT(6);
+
+    private final byte code;
+
+    Operation(int code) {
+        this.code = (byte) code;
+    }
+
+    public byte getCode() { return code; }
+
+    public static Operation fromCode(byte code) {
+        for (Operation operation : values()) {
+            if (operation.code == code) {
+                return operation;
+            }
+        }
+        throw new IllegalArgumentException("Unknown operation code: " + code);
+    }
+}
@@ -0,0 +1,82 @@
+package loadgen;
+
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Relative weights of the operations a simulated student picks from.
+ * Written as e.g. "login=10,browse=40,register=30,drop=15,special_request=5";
+ * operations that are not listed get weight 0.
+ */
+public class OperationMix {
+    // Opening day: mostly browsing and registering
+    public static final OperationMix OPENING_DAY = parse("login=10,browse=35,register=40,drop=10,special_request=5");
+
+    private final int[] cumulativeWeights;
+
+    private OperationMix(int[] weights) {
+        this.cumulativeWeights = new int[weights.length];
+        int total = 0;
+        for (int i = 0; i < weights.length; i++) {
+            total += weights[i];
+            cumulativeWeights[i] = total;
+        }
+        if (total <= 0) {
+            throw new IllegalArgumentException("At least one operation needs a positive weight");
+        }
+    }
+
+    /**
+     * @throws IllegalArgumentException If the text names an unknown operation or a bad weight
+     */
+    public static OperationMix parse(String text) {
+        int[] weights = new int[Operation.values().length];
+        for (String part : text.split(",")) {
+            String[] pair = part.trim().split("=");
+            if (pair.length != 2) {
+                throw new IllegalArgumentException("Expected operation=weight but got '" + part.trim() + "'");
+            }
+            Operation operation = parseOperation(pair[0].trim());
+            int weight = Integer.parseInt(pair[1].trim());
+            if (weight < 0) {
+                throw new IllegalArgumentException("Weight for " + operation + " cannot be negative");
+            }
+            weights[operation.ordinal()] = weight;
+        }
+        return new OperationMix(weights);
+    }
+
+    private static Operation parseOperation(String name) {
+        for (Operation operation : Operation.values()) {
+            if (operation.name().equalsIgnoreCase(name)) {
+                return operation;
+            }
+        }
+        throw new IllegalArgumentException("Unknown operation '" + name + "'");
+    }
+
+    public Operation next(Random random) {
+        int roll = random.nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        for (int i = 0; i < cumulativeWeights.length; i++) {
+            if (roll < cumulativeWeights[i]) {
+                return Operation.values()[i];
+            }
+        }
+        throw new IllegalStateException("Roll outside the mix: " + roll);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder text = new StringBuilder();
+        int previous = 0;
+        for (Operation operation : Operation.values()) {
+            int weight = cumulativeWeights[operation.ordinal()] - previous;
+            previous = cumulativeWeights[operation.ordinal()];
+            if (weight > 0) {
+                if (text.length() > 0) text.append(',');
+                text.append(operation.name().toLowerCase(Locale.ROOT)).append('=').append(weight);
+            }
+        }
+        return text.toString();
+    }
+}
@@ -0,0 +1,23 @@
+package loadgen;
+
+/**
+ * One request in a traffic trace: who sent what, and when relative to the start of the run
+ */
+public final class TraceEvent {
+    private final long offsetMicros;
+    private final int studentIndex;
+    private final Operation operation;
+    private final int offeringID;
+
+    public TraceEvent(long offsetMicros, int studentIndex, Operation operation, int offeringID) {
+        this.offsetMicros = offsetMicros;
+        this.studentIndex = studentIndex;
+        this.operation = operation;
+        this.offeringID = offeringID;
+    }
+
+    public long getOffsetMicros() { return offsetMicros; }
+    public int getStudentIndex() { return studentIndex; }
+    public Operation getOperation() { return operation; }
+    public int getOfferingID() { return offeringID; }
+}
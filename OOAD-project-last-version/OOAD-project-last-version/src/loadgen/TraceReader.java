@@ -0,0 +1,78 @@
+package loadgen;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Reads a trace written by TraceWriter, one event at a time
+ */
+public class TraceReader implements Closeable {
+    private final DataInputStream in;
+    private final int populationSize;
+    private final int courseCount;
+    private long lastOffsetMicros;
+
+    public TraceReader(Path file) throws IOException {
+        this.in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 1 << 16));
+        if (in.readInt() != TraceWriter.MAGIC) {
+            in.close();
+            throw new IOException(file + " is not a registration trace");
+        }
+        byte version = in.readByte();
+        if (version != TraceWriter.VERSION) {
+            in.close();
+            throw new IOException("Unsupported trace version " + version);
+        }
+        this.populationSize = (int) readVarint();
+        this.courseCount = (int) readVarint();
+    }
+
+    /**
+     * @return The next event, or null at the end of the trace
+     */
+    public TraceEvent next() throws IOException {
+        int first = in.read();
+        if (first < 0) {
+            return null;
+        }
+        long delta = readVarint(first);
+        int studentIndex = (int) readVarint();
+        Operation operation = Operation.fromCode(in.readByte());
+        int offeringID = (int) readVarint();
+        lastOffsetMicros += delta;
+        return new TraceEvent(lastOffsetMicros, studentIndex, operation, offeringID);
+    }
+
+    private long readVarint() throws IOException {
+        int first = in.read();
+        if (first < 0) {
+            throw new EOFException("Trace ends in the middle of an event");
+        }
+        return readVarint(first);
+    }
+
+    private long readVarint(int first) throws IOException {
+        long value = first & 0x7F;
+        int shift = 7;
+        int current = first;
+        while ((current & 0x80) != 0) {
+            current = in.readUnsignedByte();
+            value |= (long) (current & 0x7F) << shift;
+            shift += 7;
+        }
+        return value;
+    }
+
+    public int getPopulationSize() { return populationSize; }
+    public int getCourseCount() { return courseCount; }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+}
@@ -0,0 +1,64 @@
+package loadgen;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Writes a traffic trace in a compact binary format.
+ *
+ * Header: magic "RTRC", version byte, then the population size and course count
+ * (both varints) so a replay can rebuild the same world.
+ * Each event: time since the previous event in microseconds, student index and
+ * offering ID as unsigned varints, plus one operation byte, so a typical event
+ * takes 4 to 6 bytes. Events must be appended in time order.
+ */
+public class TraceWriter implements Closeable {
+    static final int MAGIC = 0x52545243;
+    static final byte VERSION = 1;
+
+    private final DataOutputStream out;
+    private long lastOffsetMicros;
+    private long eventCount;
+
+    public TraceWriter(Path file, int populationSize, int courseCount) throws IOException {
+        this.out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file), 1 << 16));
+        out.writeInt(MAGIC);
+        out.writeByte(VERSION);
+        writeVarint(populationSize);
+        writeVarint(courseCount);
+    }
+
+    public void append(TraceEvent event) throws IOException {
+        long delta = event.getOffsetMicros() - lastOffsetMicros;
+        if (delta < 0) {
+            throw new IllegalArgumentException("Trace events must be appended in time order");
+        }
+        writeVarint(delta);
+        writeVarint(event.getStudentIndex());
+        out.writeByte(event.getOperation().getCode());
+        writeVarint(event.getOfferingID());
+        lastOffsetMicros = event.getOffsetMicros();
+        eventCount++;
+    }
+
+    private void writeVarint(long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    public long getEventCount() {
+        return eventCount;
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+}
@@ -10,6 +10,8 @@ public class Course {
     private String description;
     private List<CourseOffering> offerings;
     private List<Course> prerequisites;
+    private int ordinal;
+    private volatile long[] prerequisiteMask;
 
     public Course(String courseCode, String title, int credits, String description) {
         this.courseCode = courseCode;
@@ -18,6 +20,8 @@ public class Course {
         this.description = description;
         this.offerings = new ArrayList<>();
         this.prerequisites = new ArrayList<>();
+        this.ordinal = -1;
+        this.prerequisiteMask = new long[0];
     }
 
     public String getCourseInfo() {
@@ -30,7 +34,13 @@ public class Course {
     }
 
     public void addPrerequisite(Course prerequisite) {
-        prerequisites.add(prerequisite);
+        if (!prerequisites.contains(prerequisite)) {
+            prerequisites.add(prerequisite);
+        }
+    }
+
+    public boolean removePrerequisite(Course prerequisite) {
+        return prerequisites.remove(prerequisite);
     }
 
     // Getters and Setters
@@ -40,4 +50,10 @@ public class Course {
     public String getDescription() { return description; }
     public List<CourseOffering> getOfferings() { return offerings; }
     public List<Course> getPrerequisites() { return prerequisites; }
+    public int getOrdinal() { return ordinal; }
+    public long[] getPrerequisiteMask() { return prerequisiteMask; }
+
+    // Maintained by the catalog's prerequisite graph
+    public void setOrdinal(int ordinal) { this.ordinal = ordinal; }
+    public void setPrerequisiteMask(long[] prerequisiteMask) { this.prerequisiteMask = prerequisiteMask; }
 }
\ No newline at end of file
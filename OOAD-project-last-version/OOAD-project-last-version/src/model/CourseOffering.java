@@ -1,7 +1,10 @@
 package model;
 
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class CourseOffering {
     private int offeringID;
@@ -10,8 +13,20 @@ public class CourseOffering {
     private Semester semester;
     private Schedule schedule;
     private int capacity;
-    private int currentEnrollment;
-    private List<Registration> registrations;
+    // Seats that are either reserved by an in-flight registration or already enrolled
+    private final AtomicInteger claimedSeats;
+    private final AtomicInteger currentEnrollment;
+    // Active registrations only, keyed by student ID and kept in registration order
+    private final Map<Integer, Registration> roster;
+    private final Waitlist waitlist;
+    private volatile AvailabilityListener availabilityListener;
+
+    /**
+     * Told when the offering fills up or a seat frees up in a full offering
+     */
+    public interface AvailabilityListener {
+        void availabilityChanged(CourseOffering offering);
+    }
 
     public CourseOffering(int offeringID, Course course, Instructor instructor,
                           Semester semester, Schedule schedule, int capacity) {
@@ -21,8 +36,10 @@ public class CourseOffering {
         this.semester = semester;
         this.schedule = schedule;
         this.capacity = capacity;
-        this.currentEnrollment = 0;
-        this.registrations = new ArrayList<>();
+        this.claimedSeats = new AtomicInteger(0);
+        this.currentEnrollment = new AtomicInteger(0);
+        this.roster = new LinkedHashMap<>();
+        this.waitlist = new Waitlist();
 
         // Add this offering to instructor's list
         instructor.addCourseOffering(this);
@@ -31,28 +48,135 @@ public class CourseOffering {
     public String getOfferingInfo() {
         return String.format("Offering ID: %d\nCourse: %s\nInstructor: %s\nSchedule: %s\nCapacity: %d/%d",
                 offeringID, course.getTitle(), instructor.getName(),
-                schedule.getSchedule(), currentEnrollment, capacity);
+                schedule.getSchedule(), currentEnrollment.get(), capacity);
+    }
+
+    /**
+     * Atomically claim a seat for an in-flight registration.
+     * The seat counts against capacity until it is committed or released,
+     * so concurrent callers can never oversell the offering.
+     * @return true if a seat was reserved, false if the offering is full
+     */
+    public boolean tryReserveSeat() {
+        while (true) {
+            int claimed = claimedSeats.get();
+            if (claimed >= capacity) {
+                return false;
+            }
+            if (claimedSeats.compareAndSet(claimed, claimed + 1)) {
+                if (claimed + 1 == capacity) {
+                    notifyAvailabilityChanged();
+                }
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Give back a seat reserved with tryReserveSeat() that was never committed
+     */
+    public void releaseSeat() {
+        if (decrementIfPositive(claimedSeats) == capacity) {
+            notifyAvailabilityChanged();
+        }
+    }
+
+    /**
+     * Turn a reserved seat into an enrollment
+     */
+    public void commitSeat() {
+        currentEnrollment.incrementAndGet();
+    }
+
+    /**
+     * Free the seat of an enrolled student (e.g. after a drop)
+     */
+    public void releaseEnrollment() {
+        if (decrementIfPositive(currentEnrollment) > 0 && decrementIfPositive(claimedSeats) == capacity) {
+            notifyAvailabilityChanged();
+        }
+    }
+
+    /**
+     * @return The value before the decrement, or 0 if the counter was already empty
+     */
+    private static int decrementIfPositive(AtomicInteger counter) {
+        while (true) {
+            int value = counter.get();
+            if (value <= 0) {
+                return 0;
+            }
+            if (counter.compareAndSet(value, value - 1)) {
+                return value;
+            }
+        }
+    }
+
+    private void notifyAvailabilityChanged() {
+        AvailabilityListener listener = availabilityListener;
+        if (listener != null) {
+            listener.availabilityChanged(this);
+        }
     }
 
     public void increaseEnrollment() {
-        if (currentEnrollment < capacity) {
-            currentEnrollment++;
+        if (tryReserveSeat()) {
+            commitSeat();
         }
     }
 
     public void decreaseEnrollment() {
-        if (currentEnrollment > 0) {
-            currentEnrollment--;
-        }
+        releaseEnrollment();
     }
 
     public boolean checkAvailability() {
-        return currentEnrollment < capacity;
+        return claimedSeats.get() < capacity;
+    }
+
+    /**
+     * Add an active registration to the roster
+     */
+    public void addToRoster(Registration registration) {
+        synchronized (roster) {
+            roster.put(registration.getStudent().getUserID(), registration);
+        }
     }
 
-    public void addRegistration(Registration registration) {
-        registrations.add(registration);
-        increaseEnrollment();
+    /**
+     * Take a registration off the roster once it is dropped or completed
+     */
+    public void removeFromRoster(Registration registration) {
+        synchronized (roster) {
+            roster.remove(registration.getStudent().getUserID(), registration);
+        }
+    }
+
+    /**
+     * @return The active registrations, in the order the students registered
+     */
+    public List<Registration> getRoster() {
+        synchronized (roster) {
+            return new ArrayList<>(roster.values());
+        }
+    }
+
+    /**
+     * @return The students currently registered, in the order they registered
+     */
+    public List<Student> getRosterStudents() {
+        synchronized (roster) {
+            List<Student> students = new ArrayList<>(roster.size());
+            for (Registration registration : roster.values()) {
+                students.add(registration.getStudent());
+            }
+            return students;
+        }
+    }
+
+    public boolean isOnRoster(Student student) {
+        synchronized (roster) {
+            return roster.containsKey(student.getUserID());
+        }
     }
 
     // Getters and Setters
@@ -62,5 +186,10 @@ public class CourseOffering {
     public Semester getSemester() { return semester; }
     public Schedule getSchedule() { return schedule; }
     public int getCapacity() { return capacity; }
-    public int getCurrentEnrollment() { return currentEnrollment; }
+    public int getCurrentEnrollment() { return currentEnrollment.get(); }
+    public Waitlist getWaitlist() { return waitlist; }
+
+    public void setAvailabilityListener(AvailabilityListener availabilityListener) {
+        this.availabilityListener = availabilityListener;
+    }
 }
\ No newline at end of file
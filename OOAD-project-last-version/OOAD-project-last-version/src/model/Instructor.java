@@ -20,9 +20,10 @@ public class Instructor extends User {
     }
 
     public List<Student> viewStudents(CourseOffering offering) {
-        List<Student> students = new ArrayList<>();
-        // Implementation would query registrations
-        return students;
+        if (!courseOfferings.contains(offering)) {
+            return new ArrayList<>();
+        }
+        return offering.getRosterStudents();
     }
 
     public void approveRequest(int requestID) {
@@ -17,6 +17,14 @@ public class Notification {
         this.read = false;
     }
 
+    public Notification(int notificationID, User user, String message, LocalDateTime date, boolean read) {
+        this.notificationID = notificationID;
+        this.user = user;
+        this.message = message;
+        this.date = date;
+        this.read = read;
+    }
+
     public void showNotification() {
         System.out.println("[" + date + "] " + message);
     }
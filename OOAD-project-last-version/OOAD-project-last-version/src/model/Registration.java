@@ -1,34 +1,73 @@
 package model;
 
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
 
+/**
+ * A view of one registration in a RegistrationStore.
+ * The view only holds the registration ID; every field is read from the store,
+ * so all views of the same registration always agree.
+ */
 public class Registration {
-    private int registrationID;
-    private Student student;
-    private CourseOffering courseOffering;
-    private String status;
-    private LocalDateTime timestamp;
+    private static final String[] STATUS_NAMES = {null, "pending", "registered", "dropped", "completed"};
 
-    public Registration(int registrationID, Student student, CourseOffering courseOffering, String status) {
+    private final RegistrationStore store;
+    private final int registrationID;
+
+    Registration(RegistrationStore store, int registrationID) {
+        this.store = store;
         this.registrationID = registrationID;
-        this.student = student;
-        this.courseOffering = courseOffering;
-        this.status = status;
-        this.timestamp = LocalDateTime.now();
+    }
+
+    static byte statusCode(String status) {
+        for (byte code = 1; code < STATUS_NAMES.length; code++) {
+            if (STATUS_NAMES[code].equals(status)) {
+                return code;
+            }
+        }
+        throw new IllegalArgumentException("Unknown registration status: " + status);
     }
 
     public String getRegistrationInfo() {
         return String.format("Registration ID: %d\nStudent: %s\nCourse: %s\nStatus: %s\nTime: %s",
-                registrationID, student.getName(),
-                courseOffering.getCourse().getTitle(), status, timestamp);
+                registrationID, getStudent().getName(),
+                getCourseOffering().getCourse().getTitle(), getStatus(), getTimestamp());
+    }
+
+    /**
+     * Atomically change the status, but only from the expected one
+     * @return true if the status was expected and is now changed
+     */
+    public boolean changeStatus(String expected, String status) {
+        return store.compareAndSetStatus(registrationID, statusCode(expected), statusCode(status));
     }
 
     // Getters and Setters
     public int getRegistrationID() { return registrationID; }
-    public Student getStudent() { return student; }
-    public CourseOffering getCourseOffering() { return courseOffering; }
-    public String getStatus() { return status; }
-    public LocalDateTime getTimestamp() { return timestamp; }
+    public Student getStudent() { return store.student(registrationID); }
+    public CourseOffering getCourseOffering() { return store.offering(registrationID); }
+    public int getStudentID() { return store.studentID(registrationID); }
+    public int getOfferingID() { return store.offeringID(registrationID); }
+    public String getStatus() { return STATUS_NAMES[store.status(registrationID)]; }
+    public long getCreatedAtMillis() { return store.createdAt(registrationID); }
 
-    public void setStatus(String status) { this.status = status; }
-}
\ No newline at end of file
+    public LocalDateTime getTimestamp() {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(store.createdAt(registrationID)), ZoneId.systemDefault());
+    }
+
+    public void setStatus(String status) { store.setStatus(registrationID, statusCode(status)); }
+
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) return true;
+        if (!(other instanceof Registration)) return false;
+        Registration that = (Registration) other;
+        return store == that.store && registrationID == that.registrationID;
+    }
+
+    @Override
+    public int hashCode() {
+        return Integer.hashCode(registrationID);
+    }
+}
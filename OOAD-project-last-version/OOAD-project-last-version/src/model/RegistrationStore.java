@@ -0,0 +1,206 @@
+package model;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * The canonical copy of every registration, stored column by column.
+ * A registration costs 17 bytes of primitive data (student ID, offering ID,
+ * status code, creation time) instead of a full object graph; Registration
+ * objects are only thin views holding a registration ID.
+ * Columns are split into fixed-size chunks so growing never copies existing data.
+ * Chunks are allocated on first write, so a gap in restored IDs costs one null
+ * pointer per chunk rather than a chunk of empty columns.
+ */
+public class RegistrationStore {
+    private static final int CHUNK_BITS = 14;
+    private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+    private static final VarHandle STATUS = MethodHandles.arrayElementVarHandle(byte[].class);
+
+    private volatile Chunk[] chunks;
+    private final AtomicInteger lastRegistrationID;
+    // Dimension tables: one entry per student or offering, not per registration
+    private final ConcurrentMap<Integer, Student> students;
+    private final ConcurrentMap<Integer, CourseOffering> offerings;
+
+    public RegistrationStore() {
+        this.chunks = new Chunk[0];
+        this.lastRegistrationID = new AtomicInteger(0);
+        this.students = new ConcurrentHashMap<>();
+        this.offerings = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Store a new registration under the next free ID, timestamped now
+     * @return The view of the stored registration
+     */
+    public Registration create(Student student, CourseOffering offering, String status) {
+        int registrationID = lastRegistrationID.incrementAndGet();
+        write(registrationID, student, offering, Registration.statusCode(status), System.currentTimeMillis());
+        return new Registration(this, registrationID);
+    }
+
+    /**
+     * Put back a registration loaded from a repository under its original ID
+     * New registrations get IDs after the highest restored one
+     * @return The view of the stored registration
+     * @throws IllegalArgumentException If the ID is not positive
+     */
+    public Registration restore(int registrationID, Student student, CourseOffering offering, String status,
+                                long createdAtMillis) {
+        if (registrationID <= 0) {
+            throw new IllegalArgumentException("Registration ID must be positive but was " + registrationID);
+        }
+        lastRegistrationID.accumulateAndGet(registrationID, Math::max);
+        write(registrationID, student, offering, Registration.statusCode(status), createdAtMillis);
+        return new Registration(this, registrationID);
+    }
+
+    private void write(int registrationID, Student student, CourseOffering offering, byte status,
+                       long createdAtMillis) {
+        students.putIfAbsent(student.getUserID(), student);
+        offerings.putIfAbsent(offering.getOfferingID(), offering);
+        Chunk chunk = chunkFor(registrationID);
+        int slot = registrationID & CHUNK_MASK;
+        chunk.studentIDs[slot] = student.getUserID();
+        chunk.offeringIDs[slot] = offering.getOfferingID();
+        chunk.createdAt[slot] = createdAtMillis;
+        STATUS.setVolatile(chunk.statuses, slot, status);
+    }
+
+    private Chunk chunkFor(int registrationID) {
+        int index = registrationID >>> CHUNK_BITS;
+        Chunk[] current = chunks;
+        if (index < current.length && current[index] != null) {
+            return current[index];
+        }
+        synchronized (this) {
+            current = chunks;
+            if (index >= current.length || current[index] == null) {
+                // Publish a new array rather than filling a gap in place, so readers see the chunk safely
+                Chunk[] grown = Arrays.copyOf(current, Math.max(current.length, index + 1));
+                grown[index] = new Chunk();
+                chunks = grown;
+                current = grown;
+            }
+            return current[index];
+        }
+    }
+
+    /**
+     * @return A view of the registration, or null if no registration has this ID
+     */
+    public Registration get(int registrationID) {
+        if (registrationID <= 0 || registrationID > lastRegistrationID.get()) {
+            return null;
+        }
+        Chunk[] current = chunks;
+        int index = registrationID >>> CHUNK_BITS;
+        if (index >= current.length || current[index] == null ||
+                (byte) STATUS.getVolatile(current[index].statuses, registrationID & CHUNK_MASK) == 0) {
+            return null;
+        }
+        return new Registration(this, registrationID);
+    }
+
+    /**
+     * Visit every stored registration in ID order
+     */
+    public void forEach(Consumer<Registration> action) {
+        int last = lastRegistrationID.get();
+        Chunk[] current = chunks;
+        for (int index = 0; index < current.length; index++) {
+            Chunk chunk = current[index];
+            if (chunk == null) {
+                continue;
+            }
+            int first = Math.max(1, index << CHUNK_BITS);
+            int end = (int) Math.min(last, ((long) index << CHUNK_BITS) + CHUNK_MASK);
+            for (int id = first; id <= end; id++) {
+                if ((byte) STATUS.getVolatile(chunk.statuses, id & CHUNK_MASK) != 0) {
+                    action.accept(new Registration(this, id));
+                }
+            }
+        }
+    }
+
+    /**
+     * Count registrations with a given status without creating any views
+     */
+    public int countByStatus(String status) {
+        byte code = Registration.statusCode(status);
+        int last = lastRegistrationID.get();
+        Chunk[] current = chunks;
+        int count = 0;
+        for (int index = 0; index < current.length; index++) {
+            Chunk chunk = current[index];
+            if (chunk == null) {
+                continue;
+            }
+            int first = Math.max(1, index << CHUNK_BITS);
+            int end = (int) Math.min(last, ((long) index << CHUNK_BITS) + CHUNK_MASK);
+            for (int id = first; id <= end; id++) {
+                if ((byte) STATUS.getVolatile(chunk.statuses, id & CHUNK_MASK) == code) {
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    public int size() {
+        return lastRegistrationID.get();
+    }
+
+    // Column accessors used by Registration views
+
+    int studentID(int registrationID) {
+        return chunks[registrationID >>> CHUNK_BITS].studentIDs[registrationID & CHUNK_MASK];
+    }
+
+    int offeringID(int registrationID) {
+        return chunks[registrationID >>> CHUNK_BITS].offeringIDs[registrationID & CHUNK_MASK];
+    }
+
+    long createdAt(int registrationID) {
+        return chunks[registrationID >>> CHUNK_BITS].createdAt[registrationID & CHUNK_MASK];
+    }
+
+    byte status(int registrationID) {
+        return (byte) STATUS.getVolatile(chunks[registrationID >>> CHUNK_BITS].statuses, registrationID & CHUNK_MASK);
+    }
+
+    void setStatus(int registrationID, byte status) {
+        STATUS.setVolatile(chunks[registrationID >>> CHUNK_BITS].statuses, registrationID & CHUNK_MASK, status);
+    }
+
+    /**
+     * Atomically move a registration from one status to another
+     * @return true if the registration had the expected status and was changed
+     */
+    boolean compareAndSetStatus(int registrationID, byte expected, byte status) {
+        return STATUS.compareAndSet(chunks[registrationID >>> CHUNK_BITS].statuses,
+                registrationID & CHUNK_MASK, expected, status);
+    }
+
+    Student student(int registrationID) {
+        return students.get(studentID(registrationID));
+    }
+
+    CourseOffering offering(int registrationID) {
+        return offerings.get(offeringID(registrationID));
+    }
+
+    private static final class Chunk {
+        final int[] studentIDs = new int[CHUNK_SIZE];
+        final int[] offeringIDs = new int[CHUNK_SIZE];
+        final byte[] statuses = new byte[CHUNK_SIZE];
+        final long[] createdAt = new long[CHUNK_SIZE];
+    }
+}
@@ -1,27 +1,173 @@
 package model;
 
+import java.util.Arrays;
+import java.util.Locale;
+
 public class Schedule {
+    // Weekly occupancy is tracked in 5-minute slots: 7 days x 288 slots = 2016 bits
+    static final int SLOT_MINUTES = 5;
+    static final int SLOTS_PER_DAY = 24 * 60 / SLOT_MINUTES;
+    static final int SLOT_WORDS = (7 * SLOTS_PER_DAY + 63) / 64;
+
+    private static final String[] DAY_NAMES = {"mon", "tue", "wed", "thu", "fri", "sat", "sun"};
+    private static final String DAY_LETTERS = "MTWRFSU";
+
     private String days;
     private String startTime;
     private String endTime;
 
+    // Compact form parsed once: bit 0 = Monday ... bit 6 = Sunday, times in minutes of the day
+    private final int dayMask;
+    private final int startMinute;
+    private final int endMinute;
+    private final long[] slotMask;
+    private final int firstWord;
+
     public Schedule(String days, String startTime, String endTime) {
         this.days = days;
         this.startTime = startTime;
         this.endTime = endTime;
+
+        int mask = parseDays(days);
+        int start = parseMinute(startTime);
+        int end = parseMinute(endTime);
+        if (mask == 0 || start < 0 || end <= start) {
+            mask = 0;
+            start = -1;
+            end = -1;
+        }
+        this.dayMask = mask;
+        this.startMinute = start;
+        this.endMinute = end;
+
+        // Only the words actually covered by this schedule are stored
+        long[] fullMask = new long[SLOT_WORDS];
+        int first = 0;
+        int last = -1;
+        if (mask != 0) {
+            first = SLOT_WORDS;
+            int firstSlot = start / SLOT_MINUTES;
+            int lastSlot = (end + SLOT_MINUTES - 1) / SLOT_MINUTES; // exclusive
+            for (int day = 0; day < 7; day++) {
+                if ((mask & (1 << day)) == 0) continue;
+                for (int slot = firstSlot; slot < lastSlot; slot++) {
+                    int bit = day * SLOTS_PER_DAY + slot;
+                    fullMask[bit >>> 6] |= 1L << bit;
+                }
+                first = Math.min(first, (day * SLOTS_PER_DAY + firstSlot) >>> 6);
+                last = Math.max(last, (day * SLOTS_PER_DAY + lastSlot - 1) >>> 6);
+            }
+        }
+        this.firstWord = first;
+        this.slotMask = Arrays.copyOfRange(fullMask, first, last + 1);
+    }
+
+    /**
+     * Parse day strings such as "Mon, Wed, Fri", "Tuesday/Thursday" or "MWF"
+     * @return Bitmask with bit 0 = Monday, or 0 if nothing could be parsed
+     */
+    static int parseDays(String days) {
+        if (days == null) return 0;
+        int mask = 0;
+        for (String token : days.trim().split("[,\\s/&]+")) {
+            if (token.isEmpty()) continue;
+            int day = dayOfName(token.toLowerCase(Locale.ROOT));
+            if (day >= 0) {
+                mask |= 1 << day;
+                continue;
+            }
+            // Compact notation, e.g. "MWF" or "TR"
+            for (int i = 0; i < token.length(); i++) {
+                int letter = DAY_LETTERS.indexOf(Character.toUpperCase(token.charAt(i)));
+                if (letter < 0) return 0;
+                mask |= 1 << letter;
+            }
+        }
+        return mask;
+    }
+
+    private static int dayOfName(String token) {
+        if (token.length() < 2) return -1;
+        for (int day = 0; day < DAY_NAMES.length; day++) {
+            String name = DAY_NAMES[day];
+            // "mo", "tue", "thurs", "friday" ... all map to their day
+            if (token.length() <= 3 ? name.startsWith(token) : token.startsWith(name)) {
+                return day;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Parse "HH:mm" into minutes since midnight
+     * @return Minute of the day, or -1 if the format is invalid
+     */
+    static int parseMinute(String time) {
+        if (time == null) return -1;
+        String trimmed = time.trim();
+        int colon = trimmed.indexOf(':');
+        if (colon <= 0 || colon == trimmed.length() - 1) return -1;
+        try {
+            int hours = Integer.parseInt(trimmed.substring(0, colon));
+            int minutes = Integer.parseInt(trimmed.substring(colon + 1));
+            if (hours < 0 || hours > 24 || minutes < 0 || minutes > 59) return -1;
+            int total = hours * 60 + minutes;
+            return total > 24 * 60 ? -1 : total;
+        } catch (NumberFormatException e) {
+            return -1;
+        }
     }
 
     public String getSchedule() {
         return String.format("%s: %s - %s", days, startTime, endTime);
     }
 
+    /**
+     * Two schedules conflict when they share a day and their time intervals overlap.
+     * Intervals are half-open, so a class ending at 10:30 does not clash with one starting at 10:30.
+     */
     public boolean conflictsWith(Schedule other) {
-        return this.days.equals(other.days) &&
-                this.startTime.equals(other.startTime);
+        if (!isParsed() || !other.isParsed()) {
+            // Fall back to the textual comparison for schedules we could not parse
+            return this.days.equals(other.days) &&
+                    this.startTime.equals(other.startTime);
+        }
+        return (this.dayMask & other.dayMask) != 0 &&
+                this.startMinute < other.endMinute &&
+                other.startMinute < this.endMinute;
+    }
+
+    public boolean isParsed() {
+        return dayMask != 0;
+    }
+
+    /**
+     * @return true if both ends fall on a slot boundary, so the slot bitmap is exact
+     */
+    boolean isSlotAligned() {
+        return startMinute % SLOT_MINUTES == 0 && endMinute % SLOT_MINUTES == 0;
+    }
+
+    boolean overlapsSlots(long[] occupancy) {
+        for (int i = 0; i < slotMask.length; i++) {
+            if ((occupancy[firstWord + i] & slotMask[i]) != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    void orInto(long[] occupancy) {
+        for (int i = 0; i < slotMask.length; i++) {
+            occupancy[firstWord + i] |= slotMask[i];
+        }
     }
 
     // Getters and Setters
     public String getDays() { return days; }
     public String getStartTime() { return startTime; }
     public String getEndTime() { return endTime; }
-}
\ No newline at end of file
+    public int getDayMask() { return dayMask; }
+    public int getStartMinute() { return startMinute; }
+    public int getEndMinute() { return endMinute; }
+}
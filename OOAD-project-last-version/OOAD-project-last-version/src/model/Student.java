@@ -8,6 +8,8 @@ public class Student extends User {
     private String major;
     private List<Registration> registrations;
     private List<SpecialRequest> specialRequests;
+    private WeeklyOccupancy occupancy;
+    private Transcript transcript;
 
     public Student(int userID, String name, String email, String password, int level, String major) {
         super(userID, name, email, password, "STUDENT");
@@ -15,21 +17,20 @@ public class Student extends User {
         this.major = major;
         this.registrations = new ArrayList<>();
         this.specialRequests = new ArrayList<>();
+        this.occupancy = new WeeklyOccupancy();
+        this.transcript = new Transcript();
     }
 
     public List<CourseOffering> browseCourses(List<CourseOffering> allOfferings) {
         return allOfferings;
     }
 
-    public boolean registerCourse(CourseOffering offering) {
-        Registration registration = new Registration(
-                registrations.size() + 1,
-                this,
-                offering,
-                "pending"
-        );
+    public void addRegistration(Registration registration) {
         registrations.add(registration);
-        return true;
+    }
+
+    public void addSpecialRequest(SpecialRequest request) {
+        specialRequests.add(request);
     }
 
     public boolean dropCourse(int registrationID) {
@@ -58,4 +59,6 @@ public class Student extends User {
     public String getMajor() { return major; }
     public List<Registration> getRegistrations() { return registrations; }
     public List<SpecialRequest> getSpecialRequests() { return specialRequests; }
+    public WeeklyOccupancy getOccupancy() { return occupancy; }
+    public Transcript getTranscript() { return transcript; }
 }
\ No newline at end of file
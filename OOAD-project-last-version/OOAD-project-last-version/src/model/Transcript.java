@@ -0,0 +1,93 @@
+package model;
+
+import java.util.Arrays;
+
+/**
+ * Per-student record of completed and in-progress courses.
+ * Courses are stored as bits at their catalog ordinal, so checking a whole
+ * prerequisite set is a word-wise containsAll instead of a registration scan.
+ */
+public class Transcript {
+    private long[] completed;
+    private long[] inProgress;
+
+    public Transcript() {
+        this.completed = new long[1];
+        this.inProgress = new long[1];
+    }
+
+    private static long[] set(long[] words, int ordinal) {
+        int word = ordinal >>> 6;
+        if (word >= words.length) {
+            words = Arrays.copyOf(words, Math.max(word + 1, words.length * 2));
+        }
+        words[word] |= 1L << ordinal;
+        return words;
+    }
+
+    private static void clear(long[] words, int ordinal) {
+        int word = ordinal >>> 6;
+        if (word < words.length) {
+            words[word] &= ~(1L << ordinal);
+        }
+    }
+
+    private static boolean get(long[] words, int ordinal) {
+        int word = ordinal >>> 6;
+        return word < words.length && (words[word] & (1L << ordinal)) != 0;
+    }
+
+    public void markInProgress(Course course) {
+        if (course.getOrdinal() < 0) return;
+        inProgress = set(inProgress, course.getOrdinal());
+    }
+
+    public void clearInProgress(Course course) {
+        if (course.getOrdinal() < 0) return;
+        clear(inProgress, course.getOrdinal());
+    }
+
+    public void markCompleted(Course course) {
+        if (course.getOrdinal() < 0) return;
+        clear(inProgress, course.getOrdinal());
+        completed = set(completed, course.getOrdinal());
+    }
+
+    public boolean hasCompleted(Course course) {
+        return course.getOrdinal() >= 0 && get(completed, course.getOrdinal());
+    }
+
+    public boolean isInProgress(Course course) {
+        return course.getOrdinal() >= 0 && get(inProgress, course.getOrdinal());
+    }
+
+    /**
+     * Check a set of courses against everything the student has taken or is taking
+     * @param required Bitset words indexed by course ordinal
+     * @return true if every required course is completed or in progress
+     */
+    public boolean containsAll(long[] required) {
+        for (int i = 0; i < required.length; i++) {
+            long held = 0L;
+            if (i < completed.length) held |= completed[i];
+            if (i < inProgress.length) held |= inProgress[i];
+            if ((required[i] & ~held) != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Strict variant of containsAll that ignores in-progress courses
+     */
+    public boolean hasCompletedAll(long[] required) {
+        for (int i = 0; i < required.length; i++) {
+            long held = i < completed.length ? completed[i] : 0L;
+            if ((required[i] & ~held) != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -1,5 +1,7 @@
 package model;
 
+import util.PasswordHasher;
+
 public abstract class User {
     protected int userID;
     protected String name;
@@ -16,7 +18,11 @@ public abstract class User {
     }
 
     public boolean login(String email, String password) {
-        return this.email.equals(email) && this.password.equals(password);
+        return this.email.equals(email) && checkPassword(password);
+    }
+
+    public boolean checkPassword(String password) {
+        return PasswordHasher.matches(password, this.password);
     }
 
     public void logout() {
@@ -28,6 +34,7 @@ public abstract class User {
     public String getName() { return name; }
     public String getEmail() { return email; }
     public String getRole() { return role; }
+    public String getPassword() { return password; }
 
     public void setName(String name) { this.name = name; }
     public void setEmail(String email) { this.email = email; }
@@ -0,0 +1,119 @@
+package model;
+
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * Students waiting for a seat in a full offering.
+ * Higher-level students come first; within a level the earliest request wins.
+ */
+public class Waitlist {
+    private static final Comparator<Entry> PRIORITY =
+            Comparator.comparingInt((Entry entry) -> -entry.level).thenComparingLong(entry -> entry.sequence);
+
+    private final PriorityQueue<Entry> queue;
+    private final Set<Integer> waitingStudents;
+    private long nextSequence;
+
+    public Waitlist() {
+        this.queue = new PriorityQueue<>(PRIORITY);
+        this.waitingStudents = new HashSet<>();
+    }
+
+    /**
+     * Queue a student for a seat
+     * @return The student's 1-based position, or -1 if they are already waiting
+     */
+    public synchronized int add(Student student) {
+        if (!waitingStudents.add(student.getUserID())) {
+            return -1;
+        }
+        Entry entry = new Entry(student, nextSequence++);
+        queue.add(entry);
+        return positionOf(entry);
+    }
+
+    /**
+     * Take the highest-priority student off the list
+     * @return The entry, or null if nobody is waiting
+     */
+    public synchronized Entry poll() {
+        Entry entry = queue.poll();
+        if (entry != null) {
+            waitingStudents.remove(entry.student.getUserID());
+        }
+        return entry;
+    }
+
+    /**
+     * Put back an entry taken with poll() that could not be served, keeping its original priority
+     */
+    public synchronized void requeue(Entry entry) {
+        if (waitingStudents.add(entry.student.getUserID())) {
+            queue.add(entry);
+        }
+    }
+
+    public synchronized boolean remove(Student student) {
+        if (!waitingStudents.remove(student.getUserID())) {
+            return false;
+        }
+        queue.removeIf(entry -> entry.student.getUserID() == student.getUserID());
+        return true;
+    }
+
+    public synchronized boolean contains(Student student) {
+        return waitingStudents.contains(student.getUserID());
+    }
+
+    /**
+     * @return The student's 1-based position, or -1 if they are not waiting
+     */
+    public synchronized int getPosition(Student student) {
+        for (Entry entry : queue) {
+            if (entry.student.getUserID() == student.getUserID()) {
+                return positionOf(entry);
+            }
+        }
+        return -1;
+    }
+
+    // The heap is not sorted, so count how many entries are ahead
+    private int positionOf(Entry target) {
+        int ahead = 0;
+        for (Entry entry : queue) {
+            if (PRIORITY.compare(entry, target) < 0) {
+                ahead++;
+            }
+        }
+        return ahead + 1;
+    }
+
+    public synchronized int size() {
+        return queue.size();
+    }
+
+    public synchronized boolean isEmpty() {
+        return queue.isEmpty();
+    }
+
+    public static final class Entry {
+        private final Student student;
+        private final int level;
+        private final long sequence;
+        private final LocalDateTime requestedAt;
+
+        private Entry(Student student, long sequence) {
+            this.student = student;
+            this.level = student.getLevel();
+            this.sequence = sequence;
+            this.requestedAt = LocalDateTime.now();
+        }
+
+        public Student getStudent() { return student; }
+        public LocalDateTime getRequestedAt() { return requestedAt; }
+    }
+}
@@ -0,0 +1,78 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Weekly timetable of one student as a bitmap of 5-minute slots.
+ * A conflict check is a handful of word-wise ANDs; only schedules whose
+ * times are not on a 5-minute boundary need an exact interval comparison.
+ */
+public class WeeklyOccupancy {
+    private final long[] slots;
+    private final List<Schedule> schedules;
+    private int unalignedCount;
+    private int unparsedCount;
+
+    public WeeklyOccupancy() {
+        this.slots = new long[Schedule.SLOT_WORDS];
+        this.schedules = new ArrayList<>();
+    }
+
+    public boolean conflictsWith(Schedule schedule) {
+        if (!schedule.isParsed() || unparsedCount > 0) {
+            return scanForConflict(schedule);
+        }
+        if (!schedule.overlapsSlots(slots)) {
+            return false;
+        }
+        if (schedule.isSlotAligned() && unalignedCount == 0) {
+            return true; // the bitmap is exact, no need to look at the intervals
+        }
+        return scanForConflict(schedule);
+    }
+
+    private boolean scanForConflict(Schedule schedule) {
+        for (Schedule existing : schedules) {
+            if (existing.conflictsWith(schedule)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public void add(Schedule schedule) {
+        schedules.add(schedule);
+        if (!schedule.isParsed()) {
+            unparsedCount++;
+            return;
+        }
+        if (!schedule.isSlotAligned()) {
+            unalignedCount++;
+        }
+        schedule.orInto(slots);
+    }
+
+    /**
+     * Remove one occurrence of a schedule and recompute the bitmap from
+     * the remaining ones, so overlapping entries never clear each other
+     */
+    public void remove(Schedule schedule) {
+        if (!schedules.remove(schedule)) {
+            return;
+        }
+        Arrays.fill(slots, 0L);
+        unalignedCount = 0;
+        unparsedCount = 0;
+        List<Schedule> remaining = new ArrayList<>(schedules);
+        schedules.clear();
+        for (Schedule existing : remaining) {
+            add(existing);
+        }
+    }
+
+    public int size() {
+        return schedules.size();
+    }
+}
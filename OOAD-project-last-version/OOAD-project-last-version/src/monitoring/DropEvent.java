@@ -0,0 +1,44 @@
+package monitoring;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * One call to RegistrationService.dropCourse
+ */
+@Name("university.Drop")
+@Label("Drop Course")
+@Category({"University", "Registration"})
+@StackTrace(false)
+public class DropEvent extends Event {
+    @Label("Student ID")
+    int studentID;
+
+    @Label("Registration ID")
+    int registrationID;
+
+    @Label("Offering ID")
+    @Description("Offering of the registration, or -1 if it was not found")
+    int offeringID;
+
+    @Label("Success")
+    boolean success;
+
+    /**
+     * End the event and commit it if recording wants it; fields are only set when it does
+     */
+    public void record(int studentID, int registrationID, int offeringID, boolean success) {
+        end();
+        if (shouldCommit()) {
+            this.studentID = studentID;
+            this.registrationID = registrationID;
+            this.offeringID = offeringID;
+            this.success = success;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package monitoring;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * A prerequisite or schedule conflict check in CourseService.
+ * These run on every registration, so by default only slow checks are recorded.
+ */
+@Name("university.EligibilityCheck")
+@Label("Eligibility Check")
+@Category({"University", "Registration"})
+@Description("A prerequisite or schedule conflict check that took longer than the threshold")
+@StackTrace(false)
+@Threshold("10 us")
+public class EligibilityCheckEvent extends Event {
+    public static final String PREREQUISITES = "prerequisites";
+    public static final String SCHEDULE_CONFLICT = "schedule conflict";
+
+    @Label("Check")
+    String check;
+
+    @Label("Student ID")
+    int studentID;
+
+    @Label("Course Code")
+    String courseCode;
+
+    @Label("Passed")
+    @Description("true if the check did not stop the registration")
+    boolean passed;
+
+    /**
+     * End the event and commit it if recording wants it; fields are only set when it does
+     */
+    public void record(String check, int studentID, String courseCode, boolean passed) {
+        end();
+        if (shouldCommit()) {
+            this.check = check;
+            this.studentID = studentID;
+            this.courseCode = courseCode;
+            this.passed = passed;
+            commit();
+        }
+    }
+}
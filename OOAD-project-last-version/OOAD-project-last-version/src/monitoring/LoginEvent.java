@@ -0,0 +1,37 @@
+package monitoring;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A login attempt, emitted by AuthService.login
+ */
+@Name("university.Login")
+@Label("Login")
+@Category({"University", "Authentication"})
+@Description("A user tried to log in")
+@StackTrace(false)
+public class LoginEvent extends Event {
+    @Label("User ID")
+    @Description("The user the email belongs to, or -1 for an unknown email")
+    int userID;
+
+    @Label("Success")
+    boolean success;
+
+    /**
+     * End the event and commit it if recording wants it; fields are only set when it does
+     */
+    public void record(int userID, boolean success) {
+        end();
+        if (shouldCommit()) {
+            this.userID = userID;
+            this.success = success;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package monitoring;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * One batch delivered by the notification dispatcher, including its database write
+ */
+@Name("university.NotificationDispatch")
+@Label("Notification Dispatch")
+@Category({"University", "Notifications"})
+@StackTrace(false)
+public class NotificationDispatchEvent extends Event {
+    @Label("Notifications")
+    int notifications;
+
+    @Label("Queued")
+    @Description("Notifications still waiting after this batch was taken")
+    int queued;
+
+    /**
+     * End the event and commit it if recording wants it; fields are only set when it does
+     */
+    public void record(int notifications, int queued) {
+        end();
+        if (shouldCommit()) {
+            this.notifications = notifications;
+            this.queued = queued;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package monitoring;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A batch of records made durable: a JDBC batch or a journal group commit
+ */
+@Name("university.PersistenceFlush")
+@Label("Persistence Flush")
+@Category({"University", "Persistence"})
+@StackTrace(false)
+public class PersistenceFlushEvent extends Event {
+    @Label("Store")
+    @Description("What was written, e.g. \"registration\" or \"journal\"")
+    String store;
+
+    @Label("Records")
+    int records;
+
+    @Label("Success")
+    boolean success;
+
+    /**
+     * End the event and commit it if recording wants it; fields are only set when it does
+     */
+    public void record(String store, int records, boolean success) {
+        end();
+        if (shouldCommit()) {
+            this.store = store;
+            this.records = records;
+            this.success = success;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package monitoring;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * One call to RegistrationService.registerCourse and how it ended
+ */
+@Name("university.Registration")
+@Label("Registration Attempt")
+@Category({"University", "Registration"})
+@Description("A student tried to register for a course offering")
+@StackTrace(false)
+public class RegistrationEvent extends Event {
+    @Label("Student ID")
+    int studentID;
+
+    @Label("Offering ID")
+    int offeringID;
+
+    @Label("Outcome")
+    String outcome;
+
+    /**
+     * End the event and commit it if recording wants it; fields are only set when it does
+     */
+    public void record(int studentID, int offeringID, String outcome) {
+        end();
+        if (shouldCommit()) {
+            this.studentID = studentID;
+            this.offeringID = offeringID;
+            this.outcome = outcome;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package monitoring;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * One call to RegistrationService.submitSpecialRequest
+ */
+@Name("university.SpecialRequest")
+@Label("Special Request")
+@Category({"University", "Registration"})
+@StackTrace(false)
+public class SpecialRequestEvent extends Event {
+    @Label("Student ID")
+    int studentID;
+
+    @Label("Offering ID")
+    int offeringID;
+
+    @Label("Request ID")
+    int requestID;
+
+    @Label("Success")
+    boolean success;
+
+    /**
+     * End the event and commit it if recording wants it; fields are only set when it does
+     * @param requestID The new request, or -1 if none was created
+     */
+    public void record(int studentID, int offeringID, int requestID, boolean success) {
+        end();
+        if (shouldCommit()) {
+            this.studentID = studentID;
+            this.offeringID = offeringID;
+            this.requestID = requestID;
+            this.success = success;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,188 @@
+package repository;
+
+import monitoring.PersistenceFlushEvent;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Write-behind buffer for JDBC batch inserts.
+ * Callers only enqueue; a background thread writes everything pending every
+ * flush interval, or sooner once a full batch has built up.
+ * A batch that still fails after its retries stays queued and is tried again on
+ * later flushes, waiting longer after each failed flush.
+ */
+public abstract class BatchWriter<T> {
+    private static final int MAX_ATTEMPTS = 3;
+    private static final long RETRY_DELAY_MILLIS = 20;
+    private static final long MAX_BACKOFF_NANOS = TimeUnit.SECONDS.toNanos(5);
+
+    private final String name;
+    private final int batchSize;
+    private final long flushIntervalNanos;
+    private final ConcurrentLinkedQueue<Entry<T>> pending;
+    private final AtomicInteger pendingCount;
+    private final Thread flusher;
+    private volatile boolean running;
+    private volatile long retryAtNanos;
+    private int failedFlushes;
+
+    protected BatchWriter(String name, int batchSize, long flushIntervalMillis) {
+        this.name = name;
+        this.batchSize = batchSize;
+        this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(flushIntervalMillis);
+        this.pending = new ConcurrentLinkedQueue<>();
+        this.pendingCount = new AtomicInteger(0);
+        this.retryAtNanos = System.nanoTime();
+        this.running = true;
+        this.flusher = new Thread(this::run, name + "-writer");
+        this.flusher.setDaemon(true);
+        this.flusher.start();
+    }
+
+    /**
+     * Write one batch of items; called by a single thread at a time
+     */
+    protected abstract void writeBatch(List<T> batch) throws SQLException;
+
+    /**
+     * Queue an item for the next batch
+     * @return Completes with true once the item's batch has committed, or false if that
+     *         write failed; a failed item stays queued and is retried by later flushes
+     */
+    public CompletableFuture<Boolean> submit(T item) {
+        Entry<T> entry = new Entry<>(item);
+        pending.add(entry);
+        if (pendingCount.incrementAndGet() >= batchSize) {
+            LockSupport.unpark(flusher);
+        }
+        return entry.done;
+    }
+
+    /**
+     * Start the next flush now instead of at the end of the interval.
+     * For callers waiting on submit's future: whatever else queues while that
+     * flush runs goes out together in the one after, like a group commit.
+     */
+    public void flushSoon() {
+        LockSupport.unpark(flusher);
+    }
+
+    private void run() {
+        while (running) {
+            LockSupport.parkNanos(this, flushIntervalNanos);
+            // After a failed flush, wait out the backoff even if new items keep arriving
+            long now;
+            while (running && (now = System.nanoTime()) - retryAtNanos < 0) {
+                LockSupport.parkNanos(this, retryAtNanos - now);
+            }
+            flush();
+        }
+    }
+
+    /**
+     * Synchronously write everything queued so far
+     */
+    public synchronized void flush() {
+        List<Entry<T>> batch = new ArrayList<>(batchSize);
+        List<Entry<T>> failed = new ArrayList<>();
+        Entry<T> entry;
+        while ((entry = pending.poll()) != null) {
+            pendingCount.decrementAndGet();
+            batch.add(entry);
+            if (batch.size() == batchSize) {
+                write(batch, failed);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            write(batch, failed);
+        }
+
+        if (failed.isEmpty()) {
+            failedFlushes = 0;
+            retryAtNanos = System.nanoTime();
+            return;
+        }
+        // Requeued only after draining, so this flush does not pick them up again
+        for (Entry<T> retry : failed) {
+            pending.add(new Entry<>(retry.item));
+            pendingCount.incrementAndGet();
+        }
+        failedFlushes = Math.min(failedFlushes + 1, 30);
+        long backoff = Math.min(MAX_BACKOFF_NANOS, flushIntervalNanos << failedFlushes);
+        retryAtNanos = System.nanoTime() + backoff;
+        System.out.println("Error: " + failed.size() + " " + name + " records could not be written; retrying in " +
+                TimeUnit.NANOSECONDS.toMillis(backoff) + " ms");
+    }
+
+    private void write(List<Entry<T>> batch, List<Entry<T>> failed) {
+        PersistenceFlushEvent event = new PersistenceFlushEvent();
+        event.begin();
+        List<T> items = new ArrayList<>(batch.size());
+        for (Entry<T> entry : batch) {
+            items.add(entry.item);
+        }
+        for (int attempt = 1; attempt <= MAX_ATTEMPTS; attempt++) {
+            try {
+                writeBatch(items);
+                event.record(name, batch.size(), true);
+                for (Entry<T> entry : batch) {
+                    entry.done.complete(true);
+                }
+                return;
+            } catch (SQLException e) {
+                System.out.println("Error writing " + name + " batch (attempt " + attempt + "): " + e.getMessage());
+            }
+            if (attempt < MAX_ATTEMPTS) {
+                try {
+                    Thread.sleep(RETRY_DELAY_MILLIS << (attempt - 1));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+        }
+        event.record(name, batch.size(), false);
+        for (Entry<T> entry : batch) {
+            entry.done.complete(false);
+        }
+        failed.addAll(batch);
+    }
+
+    public int getPendingCount() {
+        return pendingCount.get();
+    }
+
+    /**
+     * Stop the background thread and write whatever is still pending
+     */
+    public void close() {
+        running = false;
+        LockSupport.unpark(flusher);
+        try {
+            flusher.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flush();
+        if (pendingCount.get() > 0) {
+            System.out.println("Error: " + pendingCount.get() + " " + name + " records were never written");
+        }
+    }
+
+    private static final class Entry<T> {
+        final T item;
+        final CompletableFuture<Boolean> done;
+
+        Entry(T item) {
+            this.item = item;
+            this.done = new CompletableFuture<>();
+        }
+    }
+}
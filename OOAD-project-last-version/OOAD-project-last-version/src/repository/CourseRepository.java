@@ -0,0 +1,36 @@
+package repository;
+
+import model.Course;
+import model.CourseOffering;
+import model.User;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntFunction;
+
+public interface CourseRepository {
+    void saveCourse(Course course);
+
+    void deleteCourse(String courseCode);
+
+    void savePrerequisite(Course course, Course prerequisite);
+
+    void deletePrerequisite(Course course, Course prerequisite);
+
+    void saveOffering(CourseOffering offering);
+
+    void deleteOffering(int offeringID);
+
+    /**
+     * Load all courses with their prerequisite lists already wired
+     * @return Courses in insertion order
+     */
+    List<Course> findAllCourses();
+
+    /**
+     * Load all offerings
+     * @param coursesByCode Courses returned by findAllCourses(), keyed by course code
+     * @param userLookup Resolves an instructor's userID
+     * @return Offerings ordered by offeringID
+     */
+    List<CourseOffering> findAllOfferings(Map<String, Course> coursesByCode, IntFunction<User> userLookup);
+}
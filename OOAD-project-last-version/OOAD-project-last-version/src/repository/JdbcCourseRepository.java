@@ -0,0 +1,204 @@
+package repository;
+
+import model.*;
+import util.ConnectionPool;
+import util.PooledConnection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntFunction;
+
+public class JdbcCourseRepository implements CourseRepository {
+    private static final String UPSERT_COURSE =
+            "MERGE INTO courses (course_code, title, credits, description, ordinal) KEY (course_code) VALUES (?, ?, ?, ?, ?)";
+    private static final String DELETE_COURSE = "DELETE FROM courses WHERE course_code = ?";
+    private static final String DELETE_COURSE_EDGES =
+            "DELETE FROM course_prerequisites WHERE course_code = ? OR prerequisite_code = ?";
+    private static final String UPSERT_PREREQUISITE =
+            "MERGE INTO course_prerequisites (course_code, prerequisite_code) KEY (course_code, prerequisite_code) VALUES (?, ?)";
+    private static final String DELETE_PREREQUISITE =
+            "DELETE FROM course_prerequisites WHERE course_code = ? AND prerequisite_code = ?";
+    private static final String UPSERT_OFFERING =
+            "MERGE INTO course_offerings (offering_id, course_code, instructor_id, term_name, term_start, term_end, " +
+            "registration_status, days, start_time, end_time, capacity) KEY (offering_id) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String DELETE_OFFERING = "DELETE FROM course_offerings WHERE offering_id = ?";
+    private static final String DELETE_COURSE_OFFERINGS = "DELETE FROM course_offerings WHERE course_code = ?";
+
+    private final ConnectionPool pool;
+
+    public JdbcCourseRepository(ConnectionPool pool) {
+        this.pool = pool;
+    }
+
+    @Override
+    public void saveCourse(Course course) {
+        try (PooledConnection connection = pool.borrow()) {
+            PreparedStatement statement = connection.prepare(UPSERT_COURSE);
+            statement.setString(1, course.getCourseCode());
+            statement.setString(2, course.getTitle());
+            statement.setInt(3, course.getCredits());
+            statement.setString(4, course.getDescription());
+            statement.setInt(5, course.getOrdinal());
+            statement.executeUpdate();
+        } catch (SQLException e) {
+            System.out.println("Error saving course " + course.getCourseCode() + ": " + e.getMessage());
+        }
+    }
+
+    @Override
+    public void deleteCourse(String courseCode) {
+        try (PooledConnection connection = pool.borrow()) {
+            PreparedStatement edges = connection.prepare(DELETE_COURSE_EDGES);
+            edges.setString(1, courseCode);
+            edges.setString(2, courseCode);
+            edges.executeUpdate();
+            PreparedStatement offerings = connection.prepare(DELETE_COURSE_OFFERINGS);
+            offerings.setString(1, courseCode);
+            offerings.executeUpdate();
+            PreparedStatement course = connection.prepare(DELETE_COURSE);
+            course.setString(1, courseCode);
+            course.executeUpdate();
+        } catch (SQLException e) {
+            System.out.println("Error deleting course " + courseCode + ": " + e.getMessage());
+        }
+    }
+
+    @Override
+    public void savePrerequisite(Course course, Course prerequisite) {
+        try (PooledConnection connection = pool.borrow()) {
+            PreparedStatement statement = connection.prepare(UPSERT_PREREQUISITE);
+            statement.setString(1, course.getCourseCode());
+            statement.setString(2, prerequisite.getCourseCode());
+            statement.executeUpdate();
+        } catch (SQLException e) {
+            System.out.println("Error saving prerequisite of " + course.getCourseCode() + ": " + e.getMessage());
+        }
+    }
+
+    @Override
+    public void deletePrerequisite(Course course, Course prerequisite) {
+        try (PooledConnection connection = pool.borrow()) {
+            PreparedStatement statement = connection.prepare(DELETE_PREREQUISITE);
+            statement.setString(1, course.getCourseCode());
+            statement.setString(2, prerequisite.getCourseCode());
+            statement.executeUpdate();
+        } catch (SQLException e) {
+            System.out.println("Error deleting prerequisite of " + course.getCourseCode() + ": " + e.getMessage());
+        }
+    }
+
+    @Override
+    public void saveOffering(CourseOffering offering) {
+        try (PooledConnection connection = pool.borrow()) {
+            PreparedStatement statement = connection.prepare(UPSERT_OFFERING);
+            Semester semester = offering.getSemester();
+            Schedule schedule = offering.getSchedule();
+            statement.setInt(1, offering.getOfferingID());
+            statement.setString(2, offering.getCourse().getCourseCode());
+            statement.setInt(3, offering.getInstructor().getUserID());
+            statement.setString(4, semester.getTermName());
+            statement.setDate(5, semester.getStartDate() == null ? null : Date.valueOf(semester.getStartDate()));
+            statement.setDate(6, semester.getEndDate() == null ? null : Date.valueOf(semester.getEndDate()));
+            statement.setString(7, semester.getRegistrationStatus());
+            statement.setString(8, schedule.getDays());
+            statement.setString(9, schedule.getStartTime());
+            statement.setString(10, schedule.getEndTime());
+            statement.setInt(11, offering.getCapacity());
+            statement.executeUpdate();
+        } catch (SQLException e) {
+            System.out.println("Error saving offering " + offering.getOfferingID() + ": " + e.getMessage());
+        }
+    }
+
+    @Override
+    public void deleteOffering(int offeringID) {
+        try (PooledConnection connection = pool.borrow()) {
+            PreparedStatement statement = connection.prepare(DELETE_OFFERING);
+            statement.setInt(1, offeringID);
+            statement.executeUpdate();
+        } catch (SQLException e) {
+            System.out.println("Error deleting offering " + offeringID + ": " + e.getMessage());
+        }
+    }
+
+    @Override
+    public List<Course> findAllCourses() {
+        Map<String, Course> courses = new LinkedHashMap<>();
+        try (PooledConnection connection = pool.borrow();
+             ResultSet rs = connection.prepare(
+                     "SELECT course_code, title, credits, description FROM courses ORDER BY ordinal, course_code")
+                     .executeQuery()) {
+            while (rs.next()) {
+                Course course = new Course(rs.getString("course_code"), rs.getString("title"),
+                        rs.getInt("credits"), rs.getString("description"));
+                courses.put(course.getCourseCode(), course);
+            }
+        } catch (SQLException e) {
+            System.out.println("Error loading courses: " + e.getMessage());
+            return new ArrayList<>();
+        }
+
+        try (PooledConnection connection = pool.borrow();
+             ResultSet rs = connection.prepare("SELECT course_code, prerequisite_code FROM course_prerequisites")
+                     .executeQuery()) {
+            while (rs.next()) {
+                Course course = courses.get(rs.getString("course_code"));
+                Course prerequisite = courses.get(rs.getString("prerequisite_code"));
+                if (course != null && prerequisite != null) {
+                    course.addPrerequisite(prerequisite);
+                }
+            }
+        } catch (SQLException e) {
+            System.out.println("Error loading prerequisites: " + e.getMessage());
+        }
+        return new ArrayList<>(courses.values());
+    }
+
+    @Override
+    public List<CourseOffering> findAllOfferings(Map<String, Course> coursesByCode, IntFunction<User> userLookup) {
+        List<CourseOffering> offerings = new ArrayList<>();
+        Map<String, Semester> semesters = new HashMap<>();
+        try (PooledConnection connection = pool.borrow();
+             ResultSet rs = connection.prepare(
+                     "SELECT offering_id, course_code, instructor_id, term_name, term_start, term_end, " +
+                     "registration_status, days, start_time, end_time, capacity FROM course_offerings " +
+                     "ORDER BY offering_id").executeQuery()) {
+            while (rs.next()) {
+                Course course = coursesByCode.get(rs.getString("course_code"));
+                User instructor = userLookup.apply(rs.getInt("instructor_id"));
+                if (course == null || !(instructor instanceof Instructor)) {
+                    System.out.println("Skipping offering " + rs.getInt("offering_id") +
+                            ": unknown course or instructor");
+                    continue;
+                }
+                String termName = rs.getString("term_name");
+                Semester semester = semesters.get(termName);
+                if (semester == null) {
+                    Date start = rs.getDate("term_start");
+                    Date end = rs.getDate("term_end");
+                    semester = new Semester(termName,
+                            start == null ? null : start.toLocalDate(),
+                            end == null ? null : end.toLocalDate());
+                    if ("Open".equals(rs.getString("registration_status"))) {
+                        semester.openRegistration();
+                    }
+                    semesters.put(termName, semester);
+                }
+                Schedule schedule = new Schedule(rs.getString("days"), rs.getString("start_time"),
+                        rs.getString("end_time"));
+                offerings.add(new CourseOffering(rs.getInt("offering_id"), course, (Instructor) instructor,
+                        semester, schedule, rs.getInt("capacity")));
+            }
+        } catch (SQLException e) {
+            System.out.println("Error loading course offerings: " + e.getMessage());
+        }
+        return offerings;
+    }
+}
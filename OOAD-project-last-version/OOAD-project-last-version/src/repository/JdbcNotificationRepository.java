@@ -0,0 +1,76 @@
+package repository;
+
+import model.Notification;
+import model.User;
+import util.ConnectionPool;
+import util.PooledConnection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntFunction;
+
+public class JdbcNotificationRepository implements NotificationRepository {
+    private static final String INSERT =
+            "MERGE INTO notifications (notification_id, user_id, message, created_at, is_read) " +
+            "KEY (notification_id) VALUES (?, ?, ?, ?, ?)";
+    private static final String MARK_READ = "UPDATE notifications SET is_read = TRUE WHERE user_id = ? AND is_read = FALSE";
+    private static final String SELECT_ALL =
+            "SELECT notification_id, user_id, message, created_at, is_read FROM notifications ORDER BY notification_id";
+
+    private final ConnectionPool pool;
+
+    public JdbcNotificationRepository(ConnectionPool pool) {
+        this.pool = pool;
+    }
+
+    @Override
+    public void saveAll(List<Notification> notifications) {
+        try (PooledConnection connection = pool.borrow()) {
+            PreparedStatement insertStatement = connection.prepare(INSERT);
+            for (Notification notification : notifications) {
+                insertStatement.setInt(1, notification.getNotificationID());
+                insertStatement.setInt(2, notification.getUser().getUserID());
+                insertStatement.setString(3, notification.getMessage());
+                insertStatement.setTimestamp(4, Timestamp.valueOf(notification.getDate()));
+                insertStatement.setBoolean(5, notification.isRead());
+                insertStatement.addBatch();
+            }
+            connection.getConnection().setAutoCommit(false);
+            insertStatement.executeBatch();
+            connection.getConnection().commit();
+        } catch (SQLException e) {
+            System.out.println("Error saving notifications: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public void markAllRead(int userID) {
+        try (PooledConnection connection = pool.borrow()) {
+            PreparedStatement markReadStatement = connection.prepare(MARK_READ);
+            markReadStatement.setInt(1, userID);
+            markReadStatement.executeUpdate();
+        } catch (SQLException e) {
+            System.out.println("Error updating notifications: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public List<Notification> findAll(IntFunction<User> userLookup) {
+        List<Notification> notifications = new ArrayList<>();
+        try (PooledConnection connection = pool.borrow();
+             ResultSet rs = connection.prepare(SELECT_ALL).executeQuery()) {
+            while (rs.next()) {
+                User user = userLookup.apply(rs.getInt("user_id"));
+                if (user == null) continue;
+                notifications.add(new Notification(rs.getInt("notification_id"), user, rs.getString("message"),
+                        rs.getTimestamp("created_at").toLocalDateTime(), rs.getBoolean("is_read")));
+            }
+        } catch (SQLException e) {
+            System.out.println("Error loading notifications: " + e.getMessage());
+        }
+        return notifications;
+    }
+}
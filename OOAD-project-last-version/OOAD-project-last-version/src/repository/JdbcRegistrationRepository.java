@@ -0,0 +1,145 @@
+package repository;
+
+import model.*;
+import util.ConnectionPool;
+import util.PooledConnection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.IntFunction;
+
+/**
+ * Registrations are written behind the registration path in JDBC batches;
+ * special requests are rare and written directly.
+ */
+public class JdbcRegistrationRepository implements RegistrationRepository {
+    private static final int BATCH_SIZE = 500;
+    private static final long FLUSH_INTERVAL_MILLIS = 50;
+
+    // MERGE writes the status as of flush time, so a later status change simply re-queues the row
+    private static final String UPSERT_REGISTRATION =
+            "MERGE INTO registrations (registration_id, student_id, offering_id, status, created_at) " +
+            "KEY (registration_id) VALUES (?, ?, ?, ?, ?)";
+    private static final String UPSERT_REQUEST =
+            "MERGE INTO special_requests (request_id, student_id, offering_id, reason, status) " +
+            "KEY (request_id) VALUES (?, ?, ?, ?, ?)";
+
+    private final ConnectionPool pool;
+    private final BatchWriter<Registration> registrationWriter;
+
+    public JdbcRegistrationRepository(ConnectionPool pool) {
+        this.pool = pool;
+        this.registrationWriter = new BatchWriter<Registration>("registration", BATCH_SIZE, FLUSH_INTERVAL_MILLIS) {
+            @Override
+            protected void writeBatch(List<Registration> batch) throws SQLException {
+                try (PooledConnection connection = pool.borrow()) {
+                    writeRegistrations(connection, batch);
+                }
+            }
+        };
+    }
+
+    // One transaction per batch, so a flush costs a single commit
+    private static void writeRegistrations(PooledConnection connection, List<Registration> batch) throws SQLException {
+        PreparedStatement upsertStatement = connection.prepare(UPSERT_REGISTRATION);
+        for (Registration registration : batch) {
+            upsertStatement.setInt(1, registration.getRegistrationID());
+            upsertStatement.setInt(2, registration.getStudent().getUserID());
+            upsertStatement.setInt(3, registration.getCourseOffering().getOfferingID());
+            upsertStatement.setString(4, registration.getStatus());
+            upsertStatement.setTimestamp(5, new Timestamp(registration.getCreatedAtMillis()));
+            upsertStatement.addBatch();
+        }
+        connection.getConnection().setAutoCommit(false);
+        upsertStatement.executeBatch();
+        connection.getConnection().commit();
+    }
+
+    @Override
+    public void save(Registration registration) {
+        registrationWriter.submit(registration);
+    }
+
+    @Override
+    public CompletableFuture<Boolean> saveAsync(Registration registration) {
+        CompletableFuture<Boolean> written = registrationWriter.submit(registration);
+        registrationWriter.flushSoon();
+        return written;
+    }
+
+    @Override
+    public void saveSpecialRequest(SpecialRequest request) {
+        try (PooledConnection connection = pool.borrow()) {
+            PreparedStatement upsertRequestStatement = connection.prepare(UPSERT_REQUEST);
+            upsertRequestStatement.setInt(1, request.getRequestID());
+            upsertRequestStatement.setInt(2, request.getStudent().getUserID());
+            upsertRequestStatement.setInt(3, request.getCourseOffering().getOfferingID());
+            upsertRequestStatement.setString(4, request.getReason());
+            upsertRequestStatement.setString(5, request.getStatus());
+            upsertRequestStatement.executeUpdate();
+        } catch (SQLException e) {
+            System.out.println("Error saving special request " + request.getRequestID() + ": " + e.getMessage());
+        }
+    }
+
+    @Override
+    public List<Registration> findAllRegistrations(RegistrationStore store, IntFunction<User> userLookup,
+                                                   IntFunction<CourseOffering> offeringLookup) {
+        List<Registration> registrations = new ArrayList<>();
+        try (PooledConnection connection = pool.borrow();
+             ResultSet rs = connection.prepare(
+                     "SELECT registration_id, student_id, offering_id, status, created_at FROM registrations " +
+                     "ORDER BY registration_id").executeQuery()) {
+            while (rs.next()) {
+                User student = userLookup.apply(rs.getInt("student_id"));
+                CourseOffering offering = offeringLookup.apply(rs.getInt("offering_id"));
+                if (!(student instanceof Student) || offering == null) continue;
+                try {
+                    registrations.add(store.restore(rs.getInt("registration_id"), (Student) student, offering,
+                            rs.getString("status"), rs.getTimestamp("created_at").getTime()));
+                } catch (IllegalArgumentException e) {
+                    System.out.println("Error loading registration " + rs.getInt("registration_id") + ": " +
+                            e.getMessage());
+                }
+            }
+        } catch (SQLException e) {
+            System.out.println("Error loading registrations: " + e.getMessage());
+        }
+        return registrations;
+    }
+
+    @Override
+    public List<SpecialRequest> findAllSpecialRequests(IntFunction<User> userLookup,
+                                                       IntFunction<CourseOffering> offeringLookup) {
+        List<SpecialRequest> requests = new ArrayList<>();
+        try (PooledConnection connection = pool.borrow();
+             ResultSet rs = connection.prepare(
+                     "SELECT request_id, student_id, offering_id, reason, status FROM special_requests " +
+                     "ORDER BY request_id").executeQuery()) {
+            while (rs.next()) {
+                User student = userLookup.apply(rs.getInt("student_id"));
+                CourseOffering offering = offeringLookup.apply(rs.getInt("offering_id"));
+                if (!(student instanceof Student) || offering == null) continue;
+                requests.add(new SpecialRequest(rs.getInt("request_id"), (Student) student, offering,
+                        rs.getString("reason"), rs.getString("status")));
+            }
+        } catch (SQLException e) {
+            System.out.println("Error loading special requests: " + e.getMessage());
+        }
+        return requests;
+    }
+
+    @Override
+    public void flush() {
+        registrationWriter.flush();
+    }
+
+    @Override
+    public void close() {
+        registrationWriter.close();
+    }
+}
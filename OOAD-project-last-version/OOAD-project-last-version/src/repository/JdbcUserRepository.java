@@ -0,0 +1,95 @@
+package repository;
+
+import model.*;
+import service.UserDirectory;
+import util.ConnectionPool;
+import util.PooledConnection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+
+public class JdbcUserRepository implements UserRepository {
+    private static final String UPSERT =
+            "MERGE INTO users (user_id, name, email, email_key, password, role, level, major, department, admin_role) " +
+            "KEY (user_id) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String DELETE = "DELETE FROM users WHERE user_id = ?";
+    private static final String SELECT_ALL =
+            "SELECT user_id, name, email, password, role, level, major, department, admin_role FROM users ORDER BY user_id";
+
+    private final ConnectionPool pool;
+
+    public JdbcUserRepository(ConnectionPool pool) {
+        this.pool = pool;
+    }
+
+    @Override
+    public void save(User user) {
+        try (PooledConnection connection = pool.borrow()) {
+            PreparedStatement upsertStatement = connection.prepare(UPSERT);
+            upsertStatement.setInt(1, user.getUserID());
+            upsertStatement.setString(2, user.getName());
+            upsertStatement.setString(3, user.getEmail());
+            upsertStatement.setString(4, UserDirectory.normalizeEmail(user.getEmail()));
+            upsertStatement.setString(5, user.getPassword());
+            upsertStatement.setString(6, user.getRole());
+            upsertStatement.setNull(7, Types.INTEGER);
+            upsertStatement.setNull(8, Types.VARCHAR);
+            upsertStatement.setNull(9, Types.VARCHAR);
+            upsertStatement.setNull(10, Types.VARCHAR);
+            if (user instanceof Student) {
+                Student student = (Student) user;
+                upsertStatement.setInt(7, student.getLevel());
+                upsertStatement.setString(8, student.getMajor());
+            } else if (user instanceof Instructor) {
+                upsertStatement.setString(9, ((Instructor) user).getDepartment());
+            } else if (user instanceof Administrator) {
+                upsertStatement.setString(10, ((Administrator) user).getAdminRole());
+            }
+            upsertStatement.executeUpdate();
+        } catch (SQLException e) {
+            System.out.println("Error saving user " + user.getEmail() + ": " + e.getMessage());
+        }
+    }
+
+    @Override
+    public void delete(int userID) {
+        try (PooledConnection connection = pool.borrow()) {
+            PreparedStatement deleteStatement = connection.prepare(DELETE);
+            deleteStatement.setInt(1, userID);
+            deleteStatement.executeUpdate();
+        } catch (SQLException e) {
+            System.out.println("Error deleting user " + userID + ": " + e.getMessage());
+        }
+    }
+
+    @Override
+    public List<User> findAll() {
+        List<User> users = new ArrayList<>();
+        try (PooledConnection connection = pool.borrow();
+             ResultSet rs = connection.prepare(SELECT_ALL).executeQuery()) {
+            while (rs.next()) {
+                int id = rs.getInt("user_id");
+                String name = rs.getString("name");
+                String email = rs.getString("email");
+                String password = rs.getString("password");
+                switch (rs.getString("role")) {
+                    case "STUDENT":
+                        users.add(new Student(id, name, email, password, rs.getInt("level"), rs.getString("major")));
+                        break;
+                    case "INSTRUCTOR":
+                        users.add(new Instructor(id, name, email, password, rs.getString("department")));
+                        break;
+                    case "ADMIN":
+                        users.add(new Administrator(id, name, email, password, rs.getString("admin_role")));
+                        break;
+                }
+            }
+        } catch (SQLException e) {
+            System.out.println("Error loading users: " + e.getMessage());
+        }
+        return users;
+    }
+}
@@ -0,0 +1,149 @@
+package repository;
+
+import journal.EntityKind;
+import journal.EventJournal;
+import journal.Payload;
+import model.*;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntFunction;
+
+public class JournalCourseRepository implements CourseRepository {
+    private final EventJournal journal;
+
+    public JournalCourseRepository(EventJournal journal) {
+        this.journal = journal;
+    }
+
+    private static String edgeKey(String courseCode, String prerequisiteCode) {
+        return courseCode + '>' + prerequisiteCode;
+    }
+
+    @Override
+    public void saveCourse(Course course) {
+        journal.save(EntityKind.COURSE, course.getCourseCode(), Payload.encode(out -> {
+            out.writeUTF(course.getCourseCode());
+            out.writeUTF(course.getTitle());
+            out.writeInt(course.getCredits());
+            Payload.writeNullable(out, course.getDescription());
+        }));
+    }
+
+    @Override
+    public void deleteCourse(String courseCode) {
+        // The service drops the course's offerings itself; dangling edges are removed here
+        for (Object key : journal.keys(EntityKind.PREREQUISITE)) {
+            String edge = (String) key;
+            if (edge.startsWith(courseCode + '>') || edge.endsWith('>' + courseCode)) {
+                journal.delete(EntityKind.PREREQUISITE, edge);
+            }
+        }
+        journal.delete(EntityKind.COURSE, courseCode);
+    }
+
+    @Override
+    public void savePrerequisite(Course course, Course prerequisite) {
+        journal.save(EntityKind.PREREQUISITE, edgeKey(course.getCourseCode(), prerequisite.getCourseCode()),
+                Payload.encode(out -> {
+                    out.writeUTF(course.getCourseCode());
+                    out.writeUTF(prerequisite.getCourseCode());
+                }));
+    }
+
+    @Override
+    public void deletePrerequisite(Course course, Course prerequisite) {
+        journal.delete(EntityKind.PREREQUISITE, edgeKey(course.getCourseCode(), prerequisite.getCourseCode()));
+    }
+
+    @Override
+    public void saveOffering(CourseOffering offering) {
+        journal.save(EntityKind.OFFERING, offering.getOfferingID(), Payload.encode(out -> {
+            Semester semester = offering.getSemester();
+            Schedule schedule = offering.getSchedule();
+            out.writeInt(offering.getOfferingID());
+            out.writeUTF(offering.getCourse().getCourseCode());
+            out.writeInt(offering.getInstructor().getUserID());
+            out.writeUTF(semester.getTermName());
+            out.writeLong(semester.getStartDate() == null ? Long.MIN_VALUE : semester.getStartDate().toEpochDay());
+            out.writeLong(semester.getEndDate() == null ? Long.MIN_VALUE : semester.getEndDate().toEpochDay());
+            Payload.writeNullable(out, semester.getRegistrationStatus());
+            out.writeUTF(schedule.getDays());
+            out.writeUTF(schedule.getStartTime());
+            out.writeUTF(schedule.getEndTime());
+            out.writeInt(offering.getCapacity());
+        }));
+    }
+
+    @Override
+    public void deleteOffering(int offeringID) {
+        journal.delete(EntityKind.OFFERING, offeringID);
+    }
+
+    @Override
+    public List<Course> findAllCourses() {
+        Map<String, Course> courses = new LinkedHashMap<>();
+        try {
+            for (byte[] payload : journal.payloads(EntityKind.COURSE)) {
+                DataInputStream in = Payload.decode(payload);
+                Course course = new Course(in.readUTF(), in.readUTF(), in.readInt(), Payload.readNullable(in));
+                courses.put(course.getCourseCode(), course);
+            }
+            for (byte[] payload : journal.payloads(EntityKind.PREREQUISITE)) {
+                DataInputStream in = Payload.decode(payload);
+                Course course = courses.get(in.readUTF());
+                Course prerequisite = courses.get(in.readUTF());
+                if (course != null && prerequisite != null) {
+                    course.addPrerequisite(prerequisite);
+                }
+            }
+        } catch (IOException e) {
+            System.out.println("Error loading courses from journal: " + e.getMessage());
+        }
+        return new ArrayList<>(courses.values());
+    }
+
+    @Override
+    public List<CourseOffering> findAllOfferings(Map<String, Course> coursesByCode, IntFunction<User> userLookup) {
+        List<CourseOffering> offerings = new ArrayList<>();
+        Map<String, Semester> semesters = new HashMap<>();
+        for (byte[] payload : journal.payloads(EntityKind.OFFERING)) {
+            try {
+                DataInputStream in = Payload.decode(payload);
+                int offeringID = in.readInt();
+                Course course = coursesByCode.get(in.readUTF());
+                User instructor = userLookup.apply(in.readInt());
+                String termName = in.readUTF();
+                long start = in.readLong();
+                long end = in.readLong();
+                String registrationStatus = Payload.readNullable(in);
+                Schedule schedule = new Schedule(in.readUTF(), in.readUTF(), in.readUTF());
+                int capacity = in.readInt();
+                if (course == null || !(instructor instanceof Instructor)) {
+                    System.out.println("Skipping offering " + offeringID + ": unknown course or instructor");
+                    continue;
+                }
+                Semester semester = semesters.get(termName);
+                if (semester == null) {
+                    semester = new Semester(termName,
+                            start == Long.MIN_VALUE ? null : LocalDate.ofEpochDay(start),
+                            end == Long.MIN_VALUE ? null : LocalDate.ofEpochDay(end));
+                    if ("Open".equals(registrationStatus)) {
+                        semester.openRegistration();
+                    }
+                    semesters.put(termName, semester);
+                }
+                offerings.add(new CourseOffering(offeringID, course, (Instructor) instructor, semester, schedule,
+                        capacity));
+            } catch (IOException e) {
+                System.out.println("Error loading course offering from journal: " + e.getMessage());
+            }
+        }
+        return offerings;
+    }
+}
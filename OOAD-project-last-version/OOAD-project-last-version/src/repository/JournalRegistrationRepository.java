@@ -0,0 +1,105 @@
+package repository;
+
+import journal.EntityKind;
+import journal.EventJournal;
+import journal.Payload;
+import model.*;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.IntFunction;
+
+/**
+ * Registrations, drops, completions and special requests as journal events.
+ * Each save returns once its group commit has reached the disk;
+ * saveAsync returns at once with a future for that moment.
+ */
+public class JournalRegistrationRepository implements RegistrationRepository {
+    private final EventJournal journal;
+
+    public JournalRegistrationRepository(EventJournal journal) {
+        this.journal = journal;
+    }
+
+    @Override
+    public void save(Registration registration) {
+        saveAsync(registration).join();
+    }
+
+    @Override
+    public CompletableFuture<Boolean> saveAsync(Registration registration) {
+        return journal.saveAsync(EntityKind.REGISTRATION, registration.getRegistrationID(), Payload.encode(out -> {
+            out.writeInt(registration.getRegistrationID());
+            out.writeInt(registration.getStudent().getUserID());
+            out.writeInt(registration.getCourseOffering().getOfferingID());
+            out.writeUTF(registration.getStatus());
+            out.writeLong(registration.getCreatedAtMillis());
+        }));
+    }
+
+    @Override
+    public void saveSpecialRequest(SpecialRequest request) {
+        journal.save(EntityKind.SPECIAL_REQUEST, request.getRequestID(), Payload.encode(out -> {
+            out.writeInt(request.getRequestID());
+            out.writeInt(request.getStudent().getUserID());
+            out.writeInt(request.getCourseOffering().getOfferingID());
+            Payload.writeNullable(out, request.getReason());
+            out.writeUTF(request.getStatus());
+        }));
+    }
+
+    @Override
+    public List<Registration> findAllRegistrations(RegistrationStore store, IntFunction<User> userLookup,
+                                                   IntFunction<CourseOffering> offeringLookup) {
+        List<Registration> registrations = new ArrayList<>();
+        for (byte[] payload : journal.payloads(EntityKind.REGISTRATION)) {
+            try {
+                DataInputStream in = Payload.decode(payload);
+                int registrationID = in.readInt();
+                User student = userLookup.apply(in.readInt());
+                CourseOffering offering = offeringLookup.apply(in.readInt());
+                String status = in.readUTF();
+                long createdAtMillis = in.readLong();
+                if (!(student instanceof Student) || offering == null) continue;
+                registrations.add(store.restore(registrationID, (Student) student, offering, status,
+                        createdAtMillis));
+            } catch (IOException | IllegalArgumentException e) {
+                System.out.println("Error loading registration from journal: " + e.getMessage());
+            }
+        }
+        return registrations;
+    }
+
+    @Override
+    public List<SpecialRequest> findAllSpecialRequests(IntFunction<User> userLookup,
+                                                       IntFunction<CourseOffering> offeringLookup) {
+        List<SpecialRequest> requests = new ArrayList<>();
+        for (byte[] payload : journal.payloads(EntityKind.SPECIAL_REQUEST)) {
+            try {
+                DataInputStream in = Payload.decode(payload);
+                int requestID = in.readInt();
+                User student = userLookup.apply(in.readInt());
+                CourseOffering offering = offeringLookup.apply(in.readInt());
+                String reason = Payload.readNullable(in);
+                String status = in.readUTF();
+                if (!(student instanceof Student) || offering == null) continue;
+                requests.add(new SpecialRequest(requestID, (Student) student, offering, reason, status));
+            } catch (IOException e) {
+                System.out.println("Error loading special request from journal: " + e.getMessage());
+            }
+        }
+        return requests;
+    }
+
+    @Override
+    public void flush() {
+        // Every save is already durable when it returns
+    }
+
+    @Override
+    public void close() {
+        // The journal is shared by all repositories and closed by its owner
+    }
+}
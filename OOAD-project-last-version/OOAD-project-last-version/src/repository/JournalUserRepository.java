@@ -0,0 +1,72 @@
+package repository;
+
+import journal.EntityKind;
+import journal.EventJournal;
+import journal.Payload;
+import model.*;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+public class JournalUserRepository implements UserRepository {
+    private final EventJournal journal;
+
+    public JournalUserRepository(EventJournal journal) {
+        this.journal = journal;
+    }
+
+    @Override
+    public void save(User user) {
+        journal.save(EntityKind.USER, user.getUserID(), Payload.encode(out -> {
+            out.writeInt(user.getUserID());
+            out.writeUTF(user.getRole());
+            out.writeUTF(user.getName());
+            out.writeUTF(user.getEmail());
+            out.writeUTF(user.getPassword());
+            if (user instanceof Student) {
+                Student student = (Student) user;
+                out.writeInt(student.getLevel());
+                Payload.writeNullable(out, student.getMajor());
+            } else if (user instanceof Instructor) {
+                Payload.writeNullable(out, ((Instructor) user).getDepartment());
+            } else if (user instanceof Administrator) {
+                Payload.writeNullable(out, ((Administrator) user).getAdminRole());
+            }
+        }));
+    }
+
+    @Override
+    public void delete(int userID) {
+        journal.delete(EntityKind.USER, userID);
+    }
+
+    @Override
+    public List<User> findAll() {
+        List<User> users = new ArrayList<>();
+        for (byte[] payload : journal.payloads(EntityKind.USER)) {
+            try {
+                DataInputStream in = Payload.decode(payload);
+                int id = in.readInt();
+                String role = in.readUTF();
+                String name = in.readUTF();
+                String email = in.readUTF();
+                String password = in.readUTF();
+                switch (role) {
+                    case "STUDENT":
+                        users.add(new Student(id, name, email, password, in.readInt(), Payload.readNullable(in)));
+                        break;
+                    case "INSTRUCTOR":
+                        users.add(new Instructor(id, name, email, password, Payload.readNullable(in)));
+                        break;
+                    case "ADMIN":
+                        users.add(new Administrator(id, name, email, password, Payload.readNullable(in)));
+                        break;
+                }
+            } catch (IOException e) {
+                System.out.println("Error loading user from journal: " + e.getMessage());
+            }
+        }
+        return users;
+    }
+}
@@ -0,0 +1,17 @@
+package repository;
+
+import model.Notification;
+import model.User;
+import java.util.List;
+import java.util.function.IntFunction;
+
+public interface NotificationRepository {
+    /**
+     * Write a batch of delivered notifications in one round trip
+     */
+    void saveAll(List<Notification> notifications);
+
+    void markAllRead(int userID);
+
+    List<Notification> findAll(IntFunction<User> userLookup);
+}
@@ -0,0 +1,40 @@
+package repository;
+
+import model.CourseOffering;
+import model.Registration;
+import model.RegistrationStore;
+import model.SpecialRequest;
+import model.User;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.IntFunction;
+
+public interface RegistrationRepository {
+    /**
+     * Queue a registration to be written with its current status.
+     * Writes are batched; call flush() to force them out.
+     */
+    void save(Registration registration);
+
+    /**
+     * Queue a registration like save() but never wait for it to become durable,
+     * so the caller can release its locks first and then wait on the result
+     * @return Completes with true once the write is durable, false if it failed
+     */
+    CompletableFuture<Boolean> saveAsync(Registration registration);
+
+    void saveSpecialRequest(SpecialRequest request);
+
+    /**
+     * Load every stored registration back into the store under its original ID
+     * @return Views of the restored registrations, ordered by registration ID
+     */
+    List<Registration> findAllRegistrations(RegistrationStore store, IntFunction<User> userLookup,
+                                            IntFunction<CourseOffering> offeringLookup);
+
+    List<SpecialRequest> findAllSpecialRequests(IntFunction<User> userLookup, IntFunction<CourseOffering> offeringLookup);
+
+    void flush();
+
+    void close();
+}
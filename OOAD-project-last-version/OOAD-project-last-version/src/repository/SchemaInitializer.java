@@ -0,0 +1,64 @@
+package repository;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Creates the H2 tables and indexes used by the JDBC repositories.
+ * Every statement is idempotent, so this can run on every startup.
+ */
+public class SchemaInitializer {
+    private static final String[] STATEMENTS = {
+            "CREATE TABLE IF NOT EXISTS users (" +
+                    "user_id INT PRIMARY KEY, name VARCHAR(255) NOT NULL, email VARCHAR(255) NOT NULL, " +
+                    "email_key VARCHAR(255) NOT NULL, password VARCHAR(255) NOT NULL, role VARCHAR(20) NOT NULL, " +
+                    "level INT, major VARCHAR(255), department VARCHAR(255), admin_role VARCHAR(255))",
+            "CREATE UNIQUE INDEX IF NOT EXISTS idx_users_email ON users(email_key)",
+
+            "CREATE TABLE IF NOT EXISTS courses (" +
+                    "course_code VARCHAR(20) PRIMARY KEY, title VARCHAR(255) NOT NULL, credits INT NOT NULL, " +
+                    "description VARCHAR(2000), ordinal INT)",
+            "CREATE TABLE IF NOT EXISTS course_prerequisites (" +
+                    "course_code VARCHAR(20) NOT NULL, prerequisite_code VARCHAR(20) NOT NULL, " +
+                    "PRIMARY KEY (course_code, prerequisite_code))",
+
+            "CREATE TABLE IF NOT EXISTS course_offerings (" +
+                    "offering_id INT PRIMARY KEY, course_code VARCHAR(20) NOT NULL, instructor_id INT NOT NULL, " +
+                    "term_name VARCHAR(50) NOT NULL, term_start DATE, term_end DATE, registration_status VARCHAR(20), " +
+                    "days VARCHAR(50), start_time VARCHAR(10), end_time VARCHAR(10), capacity INT NOT NULL)",
+            "CREATE INDEX IF NOT EXISTS idx_offerings_course ON course_offerings(course_code)",
+
+            "CREATE TABLE IF NOT EXISTS registrations (" +
+                    "registration_id INT PRIMARY KEY, student_id INT NOT NULL, offering_id INT NOT NULL, " +
+                    "status VARCHAR(20) NOT NULL, created_at TIMESTAMP NOT NULL)",
+            "CREATE INDEX IF NOT EXISTS idx_registrations_student_offering ON registrations(student_id, offering_id)",
+            "CREATE INDEX IF NOT EXISTS idx_registrations_offering ON registrations(offering_id)",
+
+            "CREATE TABLE IF NOT EXISTS special_requests (" +
+                    "request_id INT PRIMARY KEY, student_id INT NOT NULL, offering_id INT NOT NULL, " +
+                    "reason VARCHAR(2000), status VARCHAR(20) NOT NULL)",
+            "CREATE INDEX IF NOT EXISTS idx_special_requests_offering ON special_requests(offering_id)",
+
+            "CREATE TABLE IF NOT EXISTS notifications (" +
+                    "notification_id INT PRIMARY KEY, user_id INT NOT NULL, message VARCHAR(2000) NOT NULL, " +
+                    "created_at TIMESTAMP NOT NULL, is_read BOOLEAN NOT NULL)",
+            "CREATE INDEX IF NOT EXISTS idx_notifications_user ON notifications(user_id)"
+    };
+
+    private SchemaInitializer() {
+        // Utility class
+    }
+
+    public static boolean createSchema(Connection connection) {
+        try (Statement statement = connection.createStatement()) {
+            for (String sql : STATEMENTS) {
+                statement.execute(sql);
+            }
+            return true;
+        } catch (SQLException e) {
+            System.out.println("Error creating database schema: " + e.getMessage());
+            return false;
+        }
+    }
+}
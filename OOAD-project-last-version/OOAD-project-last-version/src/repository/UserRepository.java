@@ -0,0 +1,12 @@
+package repository;
+
+import model.User;
+import java.util.List;
+
+public interface UserRepository {
+    void save(User user);
+
+    void delete(int userID);
+
+    List<User> findAll();
+}
@@ -0,0 +1,435 @@
+package server;
+
+import model.*;
+import service.AuthService;
+import service.CourseFilter;
+import service.CourseService;
+import service.OfferingQuery;
+import service.RegistrationOutcome;
+import service.RegistrationService;
+import service.RegistrationService.CheckoutResult;
+import service.RegistrationService.RegistrationResult;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * State and command handling for one client connection.
+ *
+ * Requests are single lines: a command word followed by space separated
+ * arguments. Every reply starts with "OK" or "ERR" and a message, may be
+ * followed by data lines with tab separated fields, and ends with a line
+ * holding a single "." (data lines starting with "." get an extra ".").
+ *
+ * Each connection holds its own session token, so every connection acts
+ * as its own user. The token is sent back on LOGIN and can be presented
+ * with RESUME on a new connection until it expires.
+ */
+class ClientSession {
+    private static final String[] HELP = {
+            "LOGIN email password         (replies with a session token)",
+            "RESUME token",
+            "LOGOUT",
+            "WHOAMI",
+            "COURSES",
+            "SEARCH words",
+            "SUGGEST prefix",
+            "OFFERINGS query              (e.g. credits=3; days=Tue/Thu; after=13:00; open)",
+            "SCHEDULE                     (student)",
+            "REGISTER offeringID          (student)",
+            "CHECKOUT offeringID...       (student, all or nothing)",
+            "DROP registrationID          (student)",
+            "WAITLIST offeringID          (student)",
+            "LEAVE offeringID             (student)",
+            "REQUEST offeringID reason    (student)",
+            "NOTIFICATIONS",
+            "ROSTER offeringID            (instructor)",
+            "REQUESTS                     (instructor)",
+            "APPROVE requestID            (instructor)",
+            "REJECT requestID             (instructor)",
+            "STATUS                       (administrator)",
+            "QUIT"
+    };
+
+    private static final int RESULT_LIMIT = 20;
+
+    private final RegistrationServer server;
+    private final AuthService authService;
+    private final RegistrationService registrationService;
+    private String token;
+    private PrintWriter out;
+
+    ClientSession(RegistrationServer server) {
+        this.server = server;
+        this.authService = server.getAuthService();
+        this.registrationService = server.getRegistrationService();
+    }
+
+    void greet(PrintWriter out) {
+        this.out = out;
+        reply("OK", "University course registration server. Send HELP for commands.");
+        end();
+    }
+
+    boolean isLoggedIn() {
+        return token != null;
+    }
+
+    /**
+     * Run one request line and write the reply
+     * @return false once the client asked to disconnect
+     */
+    boolean handle(String line, PrintWriter out) {
+        this.out = out;
+        String[] words = line.trim().split("\\s+", 3);
+        String command = words[0].toUpperCase(Locale.ROOT);
+        try {
+            switch (command) {
+                case "": error("Empty command"); break;
+                case "HELP": help(); break;
+                case "LOGIN": login(words); break;
+                case "RESUME": resume(words); break;
+                case "LOGOUT": logout(); break;
+                case "WHOAMI": whoAmI(); break;
+                case "COURSES": courses(); break;
+                case "SEARCH": search(line, false); break;
+                case "SUGGEST": search(line, true); break;
+                case "OFFERINGS": offerings(line); break;
+                case "SCHEDULE": schedule(); break;
+                case "REGISTER": register(words); break;
+                case "CHECKOUT": checkout(line); break;
+                case "DROP": drop(words); break;
+                case "WAITLIST": waitlist(words); break;
+                case "LEAVE": leaveWaitlist(words); break;
+                case "REQUEST": specialRequest(words); break;
+                case "NOTIFICATIONS": notifications(); break;
+                case "ROSTER": roster(words); break;
+                case "REQUESTS": pendingRequests(); break;
+                case "APPROVE": processRequest(words, true); break;
+                case "REJECT": processRequest(words, false); break;
+                case "STATUS": status(); break;
+                case "QUIT":
+                    authService.closeSession(token);
+                    token = null;
+                    ok("Bye");
+                    return false;
+                default: error("Unknown command " + words[0] + ". Send HELP for commands.");
+            }
+        } catch (NumberFormatException e) {
+            error("Expected a numeric ID");
+        }
+        return true;
+    }
+
+    private void help() {
+        reply("OK", HELP.length + " commands");
+        for (String line : HELP) {
+            data(line);
+        }
+        end();
+    }
+
+    private void login(String[] words) {
+        if (words.length < 3) {
+            error("Usage: LOGIN email password");
+            return;
+        }
+        String opened = authService.openSession(words[1], words[2]);
+        if (opened == null) {
+            error("Invalid email or password.");
+            return;
+        }
+        authService.closeSession(token);
+        token = opened;
+        reply("OK", "Welcome, " + authService.resolveSession(token).getName() + "!");
+        data(token);
+        end();
+    }
+
+    private void resume(String[] words) {
+        if (!requireArgument(words, "RESUME token")) return;
+        User user = authService.resolveSession(words[1]);
+        if (user == null) {
+            error("Unknown or expired session");
+            return;
+        }
+        token = words[1];
+        ok("Welcome back, " + user.getName() + "!");
+    }
+
+    private void logout() {
+        authService.closeSession(token);
+        token = null;
+        ok("Logged out");
+    }
+
+    private void whoAmI() {
+        User user = requireUser(User.class);
+        if (user == null) return;
+        ok(user.getUserID() + "\t" + user.getName() + "\t" + user.getRole());
+    }
+
+    private void courses() {
+        List<CourseOffering> offerings = server.getCourseService().getCourseOfferingsSnapshot();
+        reply("OK", offerings.size() + " offerings");
+        for (CourseOffering offering : offerings) {
+            data(offering.getOfferingID() + "\t" + offering.getCourse().getCourseCode() + "\t"
+                    + offering.getCourse().getTitle() + "\t" + offering.getSchedule().getSchedule() + "\t"
+                    + offering.getCurrentEnrollment() + "/" + offering.getCapacity());
+        }
+        end();
+    }
+
+    private void search(String line, boolean suggest) {
+        String text = line.trim().substring(suggest ? "SUGGEST".length() : "SEARCH".length()).trim();
+        CourseService courseService = server.getCourseService();
+        List<Course> courses = suggest ? courseService.suggestCourses(text, RESULT_LIMIT)
+                : courseService.searchCourses(text, CourseFilter.ANY, RESULT_LIMIT);
+        reply("OK", courses.size() + " courses");
+        for (Course course : courses) {
+            data(course.getCourseCode() + "\t" + course.getTitle() + "\t" + course.getCredits());
+        }
+        end();
+    }
+
+    private void offerings(String line) {
+        OfferingQuery query;
+        try {
+            query = OfferingQuery.parse(line.trim().substring("OFFERINGS".length()));
+        } catch (IllegalArgumentException e) {
+            error(e.getMessage());
+            return;
+        }
+        List<CourseOffering> offerings = server.getCourseService().queryOfferings(query)
+                .limit(RESULT_LIMIT)
+                .collect(Collectors.toList());
+        reply("OK", offerings.size() + " offerings");
+        for (CourseOffering offering : offerings) {
+            data(offering.getOfferingID() + "\t" + offering.getCourse().getCourseCode() + "\t"
+                    + offering.getInstructor().getName() + "\t" + offering.getSemester().getTermName() + "\t"
+                    + offering.getSchedule().getSchedule() + "\t"
+                    + offering.getCurrentEnrollment() + "/" + offering.getCapacity());
+        }
+        end();
+    }
+
+    private void schedule() {
+        Student student = requireUser(Student.class);
+        if (student == null) return;
+        List<Registration> registrations;
+        synchronized (student) {
+            registrations = new ArrayList<>(student.getRegistrations());
+        }
+        reply("OK", registrations.size() + " registrations");
+        for (Registration registration : registrations) {
+            CourseOffering offering = registration.getCourseOffering();
+            data(registration.getRegistrationID() + "\t" + offering.getOfferingID() + "\t"
+                    + offering.getCourse().getCourseCode() + "\t" + offering.getSchedule().getSchedule() + "\t"
+                    + registration.getStatus());
+        }
+        end();
+    }
+
+    private void register(String[] words) {
+        Student student = requireUser(Student.class);
+        if (student == null || !requireArgument(words, "REGISTER offeringID")) return;
+        result(registrationService.registerCourse(student, Integer.parseInt(words[1])));
+    }
+
+    private void checkout(String line) {
+        Student student = requireUser(Student.class);
+        String[] words = line.trim().split("\\s+");
+        if (student == null || !requireArgument(words, "CHECKOUT offeringID...")) return;
+        List<Integer> cart = new ArrayList<>();
+        for (int i = 1; i < words.length; i++) {
+            cart.add(Integer.parseInt(words[i]));
+        }
+        CheckoutResult checkout = registrationService.checkout(student, cart);
+        reply(checkout.isSuccess() ? "OK" : "ERR", checkout.isSuccess()
+                ? "Registered for " + checkout.getResults().size() + " offerings"
+                : "Checkout failed; nothing was registered");
+        for (Map.Entry<Integer, RegistrationResult> item : checkout.getResults().entrySet()) {
+            data(item.getKey() + "\t" + item.getValue().getOutcome().getCode() + "\t" + item.getValue().getMessage());
+        }
+        end();
+    }
+
+    private void drop(String[] words) {
+        Student student = requireUser(Student.class);
+        if (student == null || !requireArgument(words, "DROP registrationID")) return;
+        if (registrationService.dropCourse(student, Integer.parseInt(words[1]))) {
+            ok("Course dropped");
+        } else {
+            error("Registration not found or already dropped");
+        }
+    }
+
+    private void waitlist(String[] words) {
+        Student student = requireUser(Student.class);
+        if (student == null || !requireArgument(words, "WAITLIST offeringID")) return;
+        result(registrationService.joinWaitlist(student, Integer.parseInt(words[1])));
+    }
+
+    private void leaveWaitlist(String[] words) {
+        Student student = requireUser(Student.class);
+        if (student == null || !requireArgument(words, "LEAVE offeringID")) return;
+        if (registrationService.leaveWaitlist(student, Integer.parseInt(words[1]))) {
+            ok("Left the waitlist");
+        } else {
+            error("Not on that waitlist");
+        }
+    }
+
+    private void specialRequest(String[] words) {
+        Student student = requireUser(Student.class);
+        if (student == null) return;
+        if (words.length < 3) {
+            error("Usage: REQUEST offeringID reason");
+            return;
+        }
+        if (registrationService.submitSpecialRequest(student, Integer.parseInt(words[1]), words[2])) {
+            ok("Special request submitted");
+        } else {
+            error("Special request could not be submitted");
+        }
+    }
+
+    private void notifications() {
+        User user = requireUser(User.class);
+        if (user == null) return;
+        List<Notification> notifications = registrationService.getUserNotifications(user);
+        reply("OK", notifications.size() + " notifications");
+        for (Notification notification : notifications) {
+            data(notification.getDate() + "\t" + (notification.isRead() ? "read" : "new") + "\t"
+                    + notification.getMessage());
+        }
+        end();
+        registrationService.markNotificationsRead(user);
+    }
+
+    private void roster(String[] words) {
+        Instructor instructor = requireUser(Instructor.class);
+        if (instructor == null || !requireArgument(words, "ROSTER offeringID")) return;
+        CourseOffering offering = server.getCourseService().findOfferingById(Integer.parseInt(words[1]));
+        if (offering == null || offering.getInstructor() != instructor) {
+            error("You do not teach that offering");
+            return;
+        }
+        List<Student> students = instructor.viewStudents(offering);
+        reply("OK", students.size() + " students");
+        for (Student student : students) {
+            data(student.getUserID() + "\t" + student.getName() + "\t" + student.getEmail());
+        }
+        end();
+    }
+
+    private void pendingRequests() {
+        Instructor instructor = requireUser(Instructor.class);
+        if (instructor == null) return;
+        List<SpecialRequest> pending = new ArrayList<>();
+        synchronized (instructor) {
+            for (SpecialRequest request : instructor.getPendingRequests()) {
+                if (request.getStatus().equals("pending")) {
+                    pending.add(request);
+                }
+            }
+        }
+        reply("OK", pending.size() + " pending requests");
+        for (SpecialRequest request : pending) {
+            data(request.getRequestID() + "\t" + request.getStudent().getName() + "\t"
+                    + request.getCourseOffering().getCourse().getCourseCode() + "\t" + request.getReason());
+        }
+        end();
+    }
+
+    private void processRequest(String[] words, boolean approve) {
+        Instructor instructor = requireUser(Instructor.class);
+        if (instructor == null || !requireArgument(words, (approve ? "APPROVE" : "REJECT") + " requestID")) return;
+        if (registrationService.processSpecialRequest(instructor, Integer.parseInt(words[1]), approve)) {
+            ok(approve ? "Request approved" : "Request rejected");
+        } else {
+            error("Request not found");
+        }
+    }
+
+    private void status() {
+        if (requireUser(Administrator.class) == null) return;
+        reply("OK", "System status");
+        data("Total Courses: " + server.getCourseService().getAllCourses().size());
+        data("Total Course Offerings: " + server.getCourseService().getCourseOfferings().size());
+        data("Total Users: " + authService.getUserCount());
+        data("Total Registrations: " + registrationService.getRegistrationStore().size());
+        data("Connected Clients: " + server.getConnectionCount() + " (" + server.getLoggedInCount()
+                + " logged in)");
+        for (String line : registrationService.getMetrics().snapshot().format().split("\n")) {
+            data(line);
+        }
+        end();
+    }
+
+    private <T extends User> T requireUser(Class<T> role) {
+        if (token == null) {
+            error("Not logged in");
+            return null;
+        }
+        User user = authService.resolveSession(token);
+        if (user == null) {
+            token = null;
+            error("Session expired; LOGIN again");
+            return null;
+        }
+        if (!role.isInstance(user)) {
+            error("Only available to " + role.getSimpleName().toLowerCase(Locale.ROOT) + "s");
+            return null;
+        }
+        return role.cast(user);
+    }
+
+    private boolean requireArgument(String[] words, String usage) {
+        if (words.length < 2) {
+            error("Usage: " + usage);
+            return false;
+        }
+        return true;
+    }
+
+    private void result(RegistrationResult result) {
+        boolean accepted = result.isSuccess() || result.getOutcome() == RegistrationOutcome.WAITLISTED;
+        reply(accepted ? "OK" : "ERR",
+                result.getOutcome().name().toLowerCase(Locale.ROOT) + " " + result.getMessage());
+        end();
+    }
+
+    private void ok(String message) {
+        reply("OK", message);
+        end();
+    }
+
+    private void error(String message) {
+        reply("ERR", message);
+        end();
+    }
+
+    private void reply(String status, String message) {
+        out.print(status);
+        out.print(' ');
+        out.print(message);
+        out.print("\r\n");
+    }
+
+    private void data(String line) {
+        if (line.startsWith(".")) {
+            out.print('.');
+        }
+        out.print(line);
+        out.print("\r\n");
+    }
+
+    private void end() {
+        out.print(".\r\n");
+        out.flush();
+    }
+}
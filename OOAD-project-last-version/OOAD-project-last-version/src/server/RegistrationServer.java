@@ -0,0 +1,213 @@
+package server;
+
+import service.AuthService;
+import service.CourseService;
+import service.RegistrationService;
+import util.VirtualThreads;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Serves the student, instructor and administrator operations over TCP.
+ * Every connection gets its own thread and its own ClientSession, so many
+ * clients can be logged in at once as different users. The protocol is
+ * described in ClientSession.
+ *
+ * Connection threads are virtual threads when the JVM has them (Java 21+)
+ * and pooled platform threads otherwise.
+ */
+public class RegistrationServer implements AutoCloseable {
+    private static final int ACCEPT_BACKLOG = 1024;
+    private static final int IDLE_TIMEOUT_MILLIS = 15 * 60 * 1000;
+    private static final long ACCEPT_RETRY_MIN_MILLIS = 10;
+    private static final long ACCEPT_RETRY_MAX_MILLIS = 1000;
+
+    private final AuthService authService;
+    private final CourseService courseService;
+    private final RegistrationService registrationService;
+    private final Set<Socket> openSockets = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger loggedInSessions = new AtomicInteger();
+    private ServerSocket serverSocket;
+    private ExecutorService connections;
+    private boolean virtualThreads;
+    private Thread acceptor;
+
+    public RegistrationServer(AuthService authService, CourseService courseService,
+                              RegistrationService registrationService) {
+        this.authService = authService;
+        this.courseService = courseService;
+        this.registrationService = registrationService;
+    }
+
+    /**
+     * Start accepting connections in the background
+     * @param port TCP port to listen on, or 0 for any free port
+     * @throws IOException If the port cannot be bound
+     */
+    public synchronized void start(int port) throws IOException {
+        if (serverSocket != null) {
+            throw new IllegalStateException("Server already started");
+        }
+        serverSocket = new ServerSocket(port, ACCEPT_BACKLOG);
+        connections = newConnectionExecutor();
+        acceptor = new Thread(this::acceptConnections, "registration-server-acceptor");
+        acceptor.start();
+    }
+
+    private ExecutorService newConnectionExecutor() {
+        ExecutorService executor = VirtualThreads.newPerTaskExecutor();
+        if (executor != null) {
+            virtualThreads = true;
+            return executor;
+        }
+        AtomicInteger threadNumber = new AtomicInteger();
+        return Executors.newCachedThreadPool(task -> {
+            Thread thread = new Thread(task, "registration-client-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    private void acceptConnections() {
+        long retryMillis = 0;
+        while (!serverSocket.isClosed()) {
+            Socket socket;
+            try {
+                socket = serverSocket.accept();
+                retryMillis = 0;
+            } catch (IOException e) {
+                if (serverSocket.isClosed()) {
+                    break;
+                }
+                // A persistent failure such as too many open files would otherwise spin; back off up to a second
+                retryMillis = Math.min(ACCEPT_RETRY_MAX_MILLIS, Math.max(ACCEPT_RETRY_MIN_MILLIS, retryMillis * 2));
+                System.out.println("Error: Could not accept connection: " + e.getMessage()
+                        + "; retrying in " + retryMillis + " ms");
+                try {
+                    Thread.sleep(retryMillis);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                continue;
+            }
+            openSockets.add(socket);
+            try {
+                connections.execute(() -> serve(socket));
+            } catch (RejectedExecutionException e) {
+                closeQuietly(socket);
+            }
+        }
+    }
+
+    private void serve(Socket socket) {
+        boolean loggedIn = false;
+        ClientSession session = new ClientSession(this);
+        try {
+            socket.setSoTimeout(IDLE_TIMEOUT_MILLIS);
+            socket.setTcpNoDelay(true);
+            BufferedReader in = new BufferedReader(
+                    new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+            PrintWriter out = new PrintWriter(
+                    new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8), false);
+            session.greet(out);
+            String line;
+            while ((line = in.readLine()) != null) {
+                boolean open = session.handle(line, out);
+                if (session.isLoggedIn() != loggedIn) {
+                    loggedIn = session.isLoggedIn();
+                    loggedInSessions.addAndGet(loggedIn ? 1 : -1);
+                }
+                if (!open) {
+                    break;
+                }
+            }
+        } catch (SocketTimeoutException e) {
+            // Idle client; dropping the connection ends its session
+        } catch (IOException e) {
+            // Client went away mid-request
+        } finally {
+            if (loggedIn) {
+                loggedInSessions.decrementAndGet();
+            }
+            openSockets.remove(socket);
+            closeQuietly(socket);
+        }
+    }
+
+    /**
+     * Stop accepting connections and disconnect every client
+     */
+    @Override
+    public synchronized void close() {
+        if (serverSocket == null || serverSocket.isClosed()) {
+            return;
+        }
+        closeQuietly(serverSocket);
+        for (Socket socket : openSockets) {
+            closeQuietly(socket);
+        }
+        connections.shutdown();
+        try {
+            connections.awaitTermination(5, TimeUnit.SECONDS);
+            acceptor.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Block until the server has been closed
+     */
+    public void awaitClose() throws InterruptedException {
+        Thread thread;
+        synchronized (this) {
+            thread = acceptor;
+        }
+        if (thread != null) {
+            thread.join();
+        }
+    }
+
+    private static void closeQuietly(AutoCloseable closeable) {
+        try {
+            closeable.close();
+        } catch (Exception e) {
+            // Already closed or broken; nothing left to release
+        }
+    }
+
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    public boolean usesVirtualThreads() {
+        return virtualThreads;
+    }
+
+    public int getConnectionCount() {
+        return openSockets.size();
+    }
+
+    public int getLoggedInCount() {
+        return loggedInSessions.get();
+    }
+
+    AuthService getAuthService() { return authService; }
+    CourseService getCourseService() { return courseService; }
+    RegistrationService getRegistrationService() { return registrationService; }
+}
@@ -1,56 +1,208 @@
 package service;
 
 import model.*;
-import java.util.ArrayList;
-import java.util.List;
+import monitoring.LoginEvent;
+import repository.UserRepository;
+import util.Page;
+import util.PasswordHasher;
+import java.util.Collection;
 
 public class AuthService {
-    private List<User> users;
-    private User currentUser;
+    private UserDirectory users;
+    private final SessionStore sessions;
+    private final PasswordHasher passwordHasher;
+    // The console is just another session holder
+    private volatile String consoleSession;
+    private UserRepository userRepository;
 
     public AuthService() {
-        this.users = new ArrayList<>();
-        this.currentUser = null;
+        this(null);
+    }
+
+    /**
+     * Create the service on top of a repository, loading every stored user
+     * @param userRepository Where users are persisted, or null to keep them in memory only
+     */
+    public AuthService(UserRepository userRepository) {
+        this(userRepository, new PasswordHasher());
+    }
+
+    /**
+     * @param passwordHasher Hashes new and legacy passwords; its iteration count sets the cost of a login
+     */
+    public AuthService(UserRepository userRepository, PasswordHasher passwordHasher) {
+        this.users = new UserDirectory();
+        this.sessions = new SessionStore();
+        this.passwordHasher = passwordHasher;
+        this.userRepository = userRepository;
+        if (userRepository != null) {
+            for (User user : userRepository.findAll()) {
+                if (!users.add(user)) {
+                    System.out.println("Error: Skipping stored user " + user.getUserID() +
+                            " whose email or ID is already in use");
+                }
+            }
+        }
     }
 
     public boolean login(String email, String password) {
-        for (User user : users) {
-            if (user.login(email, password)) {
-                currentUser = user;
-                System.out.println("Login successful. Welcome, " + user.getName() + "!");
-                return true;
+        User user = authenticate(email, password);
+        if (user == null) {
+            System.out.println("Invalid email or password.");
+            return false;
+        }
+        String previous = consoleSession;
+        consoleSession = sessions.open(user);
+        sessions.invalidate(previous);
+        System.out.println("Login successful. Welcome, " + user.getName() + "!");
+        return true;
+    }
+
+    /**
+     * Check credentials without changing the console's current user
+     * Plain text or outdated hashes are upgraded on a successful check
+     * @return The matching user, or null if the email or password is wrong
+     */
+    public User authenticate(String email, String password) {
+        LoginEvent event = new LoginEvent();
+        event.begin();
+        User user = users.findByEmail(email);
+        if (user != null && password != null && user.checkPassword(password)) {
+            upgradePassword(user, password);
+            event.record(user.getUserID(), true);
+            return user;
+        }
+        event.record(user == null ? -1 : user.getUserID(), false);
+        return null;
+    }
+
+    private void upgradePassword(User user, String password) {
+        String stored = user.getPassword();
+        if (!passwordHasher.needsRehash(stored)) {
+            return;
+        }
+        // Hash outside the lock: for a student it is also the registration lock
+        String upgraded = passwordHasher.hash(password);
+        synchronized (user) {
+            // Another login upgraded it, or the password changed, while we were hashing
+            if (!stored.equals(user.getPassword())) {
+                return;
             }
+            user.setPassword(upgraded);
+        }
+        if (userRepository != null) {
+            userRepository.save(user);
         }
-        System.out.println("Invalid email or password.");
-        return false;
+    }
+
+    /**
+     * Log in for a front end that serves many users at once
+     * @return A session token for resolveSession, or null if the credentials are wrong
+     */
+    public String openSession(String email, String password) {
+        User user = authenticate(email, password);
+        return user == null ? null : sessions.open(user);
+    }
+
+    /**
+     * Per-request lookup; never rechecks the password
+     * @return The session's user, or null if the token is unknown or expired
+     */
+    public User resolveSession(String token) {
+        return sessions.resolve(token);
+    }
+
+    public boolean closeSession(String token) {
+        return sessions.invalidate(token);
     }
 
     public void logout() {
-        if (currentUser != null) {
-            currentUser.logout();
-            currentUser = null;
+        User user = getCurrentUser();
+        sessions.invalidate(consoleSession);
+        consoleSession = null;
+        if (user != null) {
+            user.logout();
         }
     }
 
-    public void registerUser(User user) {
-        users.add(user);
+    /**
+     * Add a user; a plain text password is replaced by its hash first
+     */
+    public boolean registerUser(User user) {
+        if (!PasswordHasher.isHash(user.getPassword())) {
+            user.setPassword(passwordHasher.hash(user.getPassword()));
+        }
+        if (!users.add(user)) {
+            if (users.findByEmail(user.getEmail()) != null) {
+                System.out.println("Error: Email " + user.getEmail() + " is already registered");
+            } else {
+                System.out.println("Error: User ID " + user.getUserID() + " is already taken");
+            }
+            return false;
+        }
+        if (userRepository != null) {
+            userRepository.save(user);
+        }
+        return true;
     }
 
+    /**
+     * @return The user logged in at the console, or null if nobody is or the session expired
+     */
     public User getCurrentUser() {
-        return currentUser;
+        String token = consoleSession;
+        return token == null ? null : sessions.resolve(token);
     }
 
     public boolean isLoggedIn() {
-        return currentUser != null;
+        return getCurrentUser() != null;
+    }
+
+    public PasswordHasher getPasswordHasher() {
+        return passwordHasher;
+    }
+
+    /**
+     * Stop the session expiry thread
+     */
+    public void shutdown() {
+        sessions.close();
     }
 
     /**
      * Get all users in the system
      * Used by administrator to view all registered users
-     * @return List of all User objects in the system
+     * @return Read-only live view of all User objects, ordered by userID
+     */
+    public Collection<User> getAllUsers() {
+        return users.getAll();
+    }
+
+    /**
+     * Number of user accounts, without walking the directory
+     */
+    public int getUserCount() {
+        return users.size();
+    }
+
+    /**
+     * Get one page of users, ordered by userID
+     * @param cursor Page.FIRST for the first page, then the previous page's next cursor
+     * @param pageSize Maximum number of users on the page
+     */
+    public Page<User> getUsers(int cursor, int pageSize) {
+        if (pageSize <= 0) {
+            throw new IllegalArgumentException("Page size must be positive");
+        }
+        return users.getPage(cursor, pageSize);
+    }
+
+    /**
+     * Generate an ID for a new user account
+     * @return A userID not used by any existing user
      */
-    public List<User> getAllUsers() {
-        return new ArrayList<>(users); // Return a copy to prevent modification
+    public int generateUserID() {
+        return users.nextUserID();
     }
 
     /**
@@ -60,15 +212,7 @@ public class AuthService {
      * @return true if user was removed, false if not found
      */
     public boolean removeUser(String email) {
-        User userToRemove = null;
-
-        // Find user by email
-        for (User user : users) {
-            if (user.getEmail().equalsIgnoreCase(email)) {
-                userToRemove = user;
-                break;
-            }
-        }
+        User userToRemove = users.findByEmail(email);
 
         if (userToRemove == null) {
             System.out.println("Error: User with email " + email + " not found");
@@ -76,12 +220,18 @@ public class AuthService {
         }
 
         // Prevent removal of current logged in user
-        if (currentUser != null && currentUser.getEmail().equalsIgnoreCase(email)) {
+        if (getCurrentUser() == userToRemove) {
             System.out.println("Error: Cannot remove currently logged in user");
             return false;
         }
 
-        boolean removed = users.remove(userToRemove);
+        boolean removed = users.remove(email) != null;
+        if (removed) {
+            sessions.invalidateUser(userToRemove);
+        }
+        if (removed && userRepository != null) {
+            userRepository.delete(userToRemove.getUserID());
+        }
         if (removed) {
             System.out.println("User " + userToRemove.getName() + " removed successfully.");
         }
@@ -94,12 +244,16 @@ public class AuthService {
      * @return User object if found, null otherwise
      */
     public User findUserByEmail(String email) {
-        for (User user : users) {
-            if (user.getEmail().equalsIgnoreCase(email)) {
-                return user;
-            }
-        }
-        return null;
+        return users.findByEmail(email);
+    }
+
+    /**
+     * Find a user by ID
+     * @param userID The ID to search for
+     * @return User object if found, null otherwise
+     */
+    public User findUserById(int userID) {
+        return users.findById(userID);
     }
 
     /**
@@ -128,11 +282,13 @@ public class AuthService {
         }
 
         // Generate new user ID
-        int newId = users.size() + 1;
+        int newId = users.nextUserID();
 
-        // Create and register new student
+        // Create and register new student (add() re-checks the email atomically)
         Student newStudent = new Student(newId, name, email, password, level, major);
-        users.add(newStudent);
+        if (!registerUser(newStudent)) {
+            return false;
+        }
         System.out.println("Student " + name + " registered successfully.");
         return true;
     }
@@ -151,9 +307,11 @@ public class AuthService {
             return false;
         }
 
-        int newId = users.size() + 1;
+        int newId = users.nextUserID();
         Instructor newInstructor = new Instructor(newId, name, email, password, department);
-        users.add(newInstructor);
+        if (!registerUser(newInstructor)) {
+            return false;
+        }
         System.out.println("Instructor " + name + " registered successfully.");
         return true;
     }
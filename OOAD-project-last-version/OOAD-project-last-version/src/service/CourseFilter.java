@@ -0,0 +1,79 @@
+package service;
+
+import model.Course;
+import model.CourseOffering;
+
+/**
+ * Restrictions applied to course search results.
+ * Filters are immutable; each with/in/at method returns a narrowed copy,
+ * e.g. CourseFilter.ANY.inDepartment("CS").atLevel(2).withOpenSeats().
+ */
+public final class CourseFilter {
+    public static final CourseFilter ANY = new CourseFilter(0, Integer.MAX_VALUE, null, 0, false);
+
+    private final int minCredits;
+    private final int maxCredits;
+    private final String department;
+    private final int level;
+    private final boolean openSeatsOnly;
+
+    private CourseFilter(int minCredits, int maxCredits, String department, int level, boolean openSeatsOnly) {
+        this.minCredits = minCredits;
+        this.maxCredits = maxCredits;
+        this.department = department;
+        this.level = level;
+        this.openSeatsOnly = openSeatsOnly;
+    }
+
+    public CourseFilter withCredits(int min, int max) {
+        return new CourseFilter(min, max, department, level, openSeatsOnly);
+    }
+
+    /**
+     * @param department The letters a course code starts with, e.g. "CS"
+     */
+    public CourseFilter inDepartment(String department) {
+        return new CourseFilter(minCredits, maxCredits, department, level, openSeatsOnly);
+    }
+
+    /**
+     * @param level First digit of the course number, e.g. 3 for CS301
+     */
+    public CourseFilter atLevel(int level) {
+        return new CourseFilter(minCredits, maxCredits, department, level, openSeatsOnly);
+    }
+
+    /**
+     * Only courses with at least one offering that still has a free seat
+     */
+    public CourseFilter withOpenSeats() {
+        return new CourseFilter(minCredits, maxCredits, department, level, true);
+    }
+
+    public boolean matches(Course course) {
+        if (course.getCredits() < minCredits || course.getCredits() > maxCredits) {
+            return false;
+        }
+        String code = course.getCourseCode();
+        int digits = 0;
+        while (digits < code.length() && !Character.isDigit(code.charAt(digits))) {
+            digits++;
+        }
+        if (department != null && !code.substring(0, digits).equalsIgnoreCase(department)) {
+            return false;
+        }
+        if (level > 0 && (digits == code.length() || code.charAt(digits) - '0' != level)) {
+            return false;
+        }
+        return !openSeatsOnly || hasOpenSeat(course);
+    }
+
+    private static boolean hasOpenSeat(Course course) {
+        for (CourseOffering offering : course.getOfferings()) {
+            if (offering.checkAvailability()) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,481 @@
+package service;
+
+import model.Course;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Full text index over the course catalog.
+ *
+ * Course code, title and description are split into lowercase words; codes
+ * are also split where letters and digits meet, so "CS101" is found by "cs",
+ * "101" and "cs101". Every word maps to a posting list of course ordinals
+ * (see Course.getOrdinal()) sorted ascending, with a mask of the fields it
+ * appeared in. A search intersects the posting lists of its words, rarest
+ * first, and ranks hits by where the words matched: code over title over
+ * description, then by catalog order.
+ *
+ * Two tries serve autocomplete: one over full course codes and one over
+ * title words. Both point at posting lists, so a completion never has to
+ * scan the catalog.
+ *
+ * Updates are incremental; CourseService adds and removes one course at a time.
+ */
+public class CourseSearchIndex {
+    // Field masks double as ranking weights
+    private static final int DESCRIPTION = 1;
+    private static final int TITLE = 2;
+    private static final int CODE = 4;
+
+    private final Map<String, Postings> terms;
+    private final TrieNode codes;
+    private final TrieNode titleWords;
+    private final List<Course> coursesByOrdinal;
+    private int size;
+    private final ReadWriteLock lock;
+
+    public CourseSearchIndex() {
+        this.terms = new HashMap<>();
+        this.codes = new TrieNode();
+        this.titleWords = new TrieNode();
+        this.coursesByOrdinal = new ArrayList<>();
+        this.lock = new ReentrantReadWriteLock();
+    }
+
+    /**
+     * Index a course that already has its ordinal from the prerequisite graph
+     */
+    public void add(Course course) {
+        int ordinal = course.getOrdinal();
+        if (ordinal < 0) {
+            throw new IllegalArgumentException(course.getCourseCode() + " has no ordinal");
+        }
+        lock.writeLock().lock();
+        try {
+            while (coursesByOrdinal.size() <= ordinal) {
+                coursesByOrdinal.add(null);
+            }
+            if (coursesByOrdinal.get(ordinal) != null) {
+                return;
+            }
+            coursesByOrdinal.set(ordinal, course);
+            size++;
+            for (Map.Entry<String, Integer> term : fieldsByTerm(course).entrySet()) {
+                terms.computeIfAbsent(term.getKey(), key -> new Postings()).add(ordinal, term.getValue());
+            }
+            codes.insert(normalize(course.getCourseCode())).add(ordinal, CODE);
+            for (String word : words(course.getTitle())) {
+                titleWords.insert(word).add(ordinal, TITLE);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Remove a course; call before the prerequisite graph releases its ordinal
+     */
+    public void remove(Course course) {
+        int ordinal = course.getOrdinal();
+        lock.writeLock().lock();
+        try {
+            if (ordinal < 0 || ordinal >= coursesByOrdinal.size() || coursesByOrdinal.get(ordinal) != course) {
+                return;
+            }
+            coursesByOrdinal.set(ordinal, null);
+            size--;
+            for (String term : fieldsByTerm(course).keySet()) {
+                Postings postings = terms.get(term);
+                if (postings != null && postings.remove(ordinal) && postings.size == 0) {
+                    terms.remove(term);
+                }
+            }
+            // Emptied trie nodes stay; completions skip them and the catalog rarely shrinks
+            Postings code = codes.find(normalize(course.getCourseCode()));
+            if (code != null) {
+                code.remove(ordinal);
+            }
+            for (String word : words(course.getTitle())) {
+                Postings postings = titleWords.find(word);
+                if (postings != null) {
+                    postings.remove(ordinal);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Find courses containing every word of the text
+     * @param text Words to look for in code, title and description; blank matches every course
+     * @param filter Further restrictions, or CourseFilter.ANY
+     * @param limit Maximum number of results
+     * @return Matching courses, best match first
+     */
+    public List<Course> search(String text, CourseFilter filter, int limit) {
+        List<String> queryWords = new ArrayList<>(new LinkedHashSet<>(words(text)));
+        lock.readLock().lock();
+        try {
+            if (queryWords.isEmpty()) {
+                return filterAll(filter, limit);
+            }
+            Postings[] lists = new Postings[queryWords.size()];
+            for (int i = 0; i < lists.length; i++) {
+                lists[i] = terms.get(queryWords.get(i));
+                if (lists[i] == null) {
+                    return new ArrayList<>();
+                }
+            }
+            Arrays.sort(lists, (a, b) -> Integer.compare(a.size, b.size));
+            if (limit <= 0) {
+                return new ArrayList<>();
+            }
+
+            // Walk the rarest list and probe the others, keeping only the best `limit` hits
+            Postings rarest = lists[0];
+            PriorityQueue<Hit> best = new PriorityQueue<>(Math.max(1, Math.min(limit, rarest.size)));
+            int[] cursors = new int[lists.length];
+            candidates:
+            for (int i = 0; i < rarest.size; i++) {
+                int ordinal = rarest.courses[i];
+                int score = rarest.fields[i];
+                for (int l = 1; l < lists.length; l++) {
+                    int found = lists[l].seek(ordinal, cursors[l]);
+                    if (found < 0) {
+                        cursors[l] = -found - 1;
+                        continue candidates;
+                    }
+                    cursors[l] = found;
+                    score += lists[l].fields[found];
+                }
+                if (best.size() == limit && score <= best.peek().score) {
+                    continue;
+                }
+                Course course = coursesByOrdinal.get(ordinal);
+                if (filter.matches(course)) {
+                    best.add(new Hit(course, ordinal, score));
+                    if (best.size() > limit) {
+                        best.poll();
+                    }
+                }
+            }
+            Course[] results = new Course[best.size()];
+            for (int i = results.length - 1; i >= 0; i--) {
+                results[i] = best.poll().course;
+            }
+            return new ArrayList<>(Arrays.asList(results));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private List<Course> filterAll(CourseFilter filter, int limit) {
+        List<Course> results = new ArrayList<>();
+        for (Course course : coursesByOrdinal) {
+            if (results.size() >= limit) {
+                break;
+            }
+            if (course != null && filter.matches(course)) {
+                results.add(course);
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Complete what a user has typed so far.
+     * Earlier words must appear in the course; the last one is a prefix of
+     * the course code or of a title word. Code matches come first.
+     * @param prefix Text typed so far, e.g. "cs1" or "data stru"
+     * @param limit Maximum number of suggestions
+     */
+    public List<Course> suggest(String prefix, int limit) {
+        List<String> typed = words(prefix, false);
+        if (typed.isEmpty() || limit <= 0) {
+            return new ArrayList<>();
+        }
+        String last = typed.get(typed.size() - 1);
+        List<String> earlier = typed.subList(0, typed.size() - 1);
+        // A code like "CS 1" or "cs-1" is typed with separators but indexed without
+        String code = String.join("", typed);
+        lock.readLock().lock();
+        try {
+            Set<Course> results = new LinkedHashSet<>();
+            collect(codes.descend(code), null, limit, results);
+            if (terms.keySet().containsAll(earlier)) {
+                collect(titleWords.descend(last), earlier, limit, results);
+            }
+            return new ArrayList<>(results);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Depth-first in character order, so completions come out alphabetically
+    private void collect(TrieNode node, List<String> requiredWords, int limit, Set<Course> results) {
+        if (node == null || results.size() >= limit) {
+            return;
+        }
+        if (node.postings != null) {
+            for (int i = 0; i < node.postings.size && results.size() < limit; i++) {
+                int ordinal = node.postings.courses[i];
+                if (containsAll(requiredWords, ordinal)) {
+                    results.add(coursesByOrdinal.get(ordinal));
+                }
+            }
+        }
+        for (int i = 0; i < node.childCount && results.size() < limit; i++) {
+            collect(node.children[i], requiredWords, limit, results);
+        }
+    }
+
+    private boolean containsAll(List<String> requiredWords, int ordinal) {
+        if (requiredWords == null) {
+            return true;
+        }
+        for (String word : requiredWords) {
+            Postings postings = terms.get(word);
+            if (postings == null || postings.seek(ordinal, 0) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Exact lookup by course code
+     * @return The course, or null if no course has exactly this code
+     */
+    public Course findByCode(String courseCode) {
+        if (courseCode == null) {
+            return null;
+        }
+        lock.readLock().lock();
+        try {
+            Postings postings = codes.find(normalize(courseCode));
+            if (postings == null) {
+                return null;
+            }
+            for (int i = 0; i < postings.size; i++) {
+                Course course = coursesByOrdinal.get(postings.courses[i]);
+                if (course.getCourseCode().equals(courseCode)) {
+                    return course;
+                }
+            }
+            return null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static Map<String, Integer> fieldsByTerm(Course course) {
+        Map<String, Integer> fields = new HashMap<>();
+        for (String word : words(course.getCourseCode())) {
+            fields.merge(word, CODE, (a, b) -> a | b);
+        }
+        for (String word : words(course.getTitle())) {
+            fields.merge(word, TITLE, (a, b) -> a | b);
+        }
+        for (String word : words(course.getDescription())) {
+            fields.merge(word, DESCRIPTION, (a, b) -> a | b);
+        }
+        return fields;
+    }
+
+    private static String normalize(String text) {
+        return text.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Lowercase words of a text. A word mixing letters and digits is also
+     * returned split at each letter/digit boundary.
+     */
+    static List<String> words(String text) {
+        return words(text, true);
+    }
+
+    private static List<String> words(String text, boolean withParts) {
+        List<String> words = new ArrayList<>();
+        if (text == null) {
+            return words;
+        }
+        String lower = normalize(text);
+        int start = -1;
+        for (int i = 0; i <= lower.length(); i++) {
+            boolean wordChar = i < lower.length() && Character.isLetterOrDigit(lower.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                if (withParts) {
+                    addWithParts(lower, start, i, words);
+                } else {
+                    words.add(lower.substring(start, i));
+                }
+                start = -1;
+            }
+        }
+        return words;
+    }
+
+    private static void addWithParts(String text, int start, int end, List<String> words) {
+        words.add(text.substring(start, end));
+        int partStart = start;
+        for (int i = start + 1; i < end; i++) {
+            if (Character.isDigit(text.charAt(i)) != Character.isDigit(text.charAt(i - 1))) {
+                words.add(text.substring(partStart, i));
+                partStart = i;
+            }
+        }
+        if (partStart > start) {
+            words.add(text.substring(partStart, end));
+        }
+    }
+
+    /**
+     * Sorted course ordinals with the fields each one matched in
+     */
+    private static final class Postings {
+        int[] courses = new int[2];
+        byte[] fields = new byte[2];
+        int size;
+
+        void add(int ordinal, int field) {
+            // Ordinals are handed out in increasing order, so this is almost always an append
+            if (size > 0 && courses[size - 1] == ordinal) {
+                fields[size - 1] |= field;
+                return;
+            }
+            int at = size > 0 && courses[size - 1] > ordinal ? -seek(ordinal, 0) - 1 : size;
+            if (at < 0) {
+                fields[-at - 1] |= field;
+                return;
+            }
+            if (size == courses.length) {
+                courses = Arrays.copyOf(courses, size * 2);
+                fields = Arrays.copyOf(fields, size * 2);
+            }
+            System.arraycopy(courses, at, courses, at + 1, size - at);
+            System.arraycopy(fields, at, fields, at + 1, size - at);
+            courses[at] = ordinal;
+            fields[at] = (byte) field;
+            size++;
+        }
+
+        boolean remove(int ordinal) {
+            int at = seek(ordinal, 0);
+            if (at < 0) {
+                return false;
+            }
+            System.arraycopy(courses, at + 1, courses, at, size - at - 1);
+            System.arraycopy(fields, at + 1, fields, at, size - at - 1);
+            size--;
+            return true;
+        }
+
+        /**
+         * Binary search from a cursor; callers probe in increasing order
+         * @return Index of the ordinal, or -(insertion point) - 1
+         */
+        int seek(int ordinal, int from) {
+            return Arrays.binarySearch(courses, Math.min(from, size), size, ordinal);
+        }
+    }
+
+    /**
+     * Trie node with children kept sorted by character
+     */
+    private static final class TrieNode {
+        char[] labels = new char[0];
+        TrieNode[] children = new TrieNode[0];
+        int childCount;
+        Postings postings;
+
+        Postings insert(String key) {
+            TrieNode node = this;
+            for (int i = 0; i < key.length(); i++) {
+                node = node.child(key.charAt(i), true);
+            }
+            if (node.postings == null) {
+                node.postings = new Postings();
+            }
+            return node.postings;
+        }
+
+        Postings find(String key) {
+            TrieNode node = descend(key);
+            return node == null ? null : node.postings;
+        }
+
+        /**
+         * @return The node for a prefix, or null if no key starts with it
+         */
+        TrieNode descend(String prefix) {
+            TrieNode node = this;
+            for (int i = 0; i < prefix.length() && node != null; i++) {
+                node = node.child(prefix.charAt(i), false);
+            }
+            return node;
+        }
+
+        private TrieNode child(char label, boolean create) {
+            int at = Arrays.binarySearch(labels, 0, childCount, label);
+            if (at >= 0) {
+                return children[at];
+            }
+            if (!create) {
+                return null;
+            }
+            at = -at - 1;
+            if (childCount == labels.length) {
+                labels = Arrays.copyOf(labels, Math.max(2, childCount * 2));
+                children = Arrays.copyOf(children, labels.length);
+            }
+            System.arraycopy(labels, at, labels, at + 1, childCount - at);
+            System.arraycopy(children, at, children, at + 1, childCount - at);
+            labels[at] = label;
+            children[at] = new TrieNode();
+            childCount++;
+            return children[at];
+        }
+    }
+
+    /**
+     * Ordered worst first: lower score, then later in the catalog
+     */
+    private static final class Hit implements Comparable<Hit> {
+        final Course course;
+        final int ordinal;
+        final int score;
+
+        Hit(Course course, int ordinal, int score) {
+            this.course = course;
+            this.ordinal = ordinal;
+            this.score = score;
+        }
+
+        @Override
+        public int compareTo(Hit other) {
+            return score != other.score ? Integer.compare(score, other.score)
+                    : Integer.compare(other.ordinal, ordinal);
+        }
+    }
+}
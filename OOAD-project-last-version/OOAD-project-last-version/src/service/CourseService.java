@@ -1,17 +1,73 @@
 package service;
 
 import model.*;
+import monitoring.EligibilityCheckEvent;
+import repository.CourseRepository;
+import util.IntHashMap;
+import util.Page;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.IntFunction;
+import java.util.concurrent.locks.StampedLock;
+import java.util.stream.Stream;
 
 public class CourseService {
     private List<Course> courses;
     private List<CourseOffering> courseOfferings;
+    private IntHashMap<CourseOffering> offeringsById;
+    private final StampedLock offeringLock;
+    private PrerequisiteGraph prerequisiteGraph;
+    private CourseSearchIndex searchIndex;
+    private OfferingIndex offeringIndex;
+    private CourseRepository courseRepository;
 
     public CourseService() {
+        this(null);
+    }
+
+    /**
+     * Create the service on top of a repository, loading every stored course.
+     * Sample data is only created when the repository holds no courses yet.
+     * @param courseRepository Where courses are persisted, or null to keep them in memory only
+     */
+    public CourseService(CourseRepository courseRepository) {
         this.courses = new ArrayList<>();
         this.courseOfferings = new ArrayList<>();
-        initializeSampleData();
+        this.offeringsById = new IntHashMap<>();
+        this.offeringLock = new StampedLock();
+        this.prerequisiteGraph = new PrerequisiteGraph();
+        this.searchIndex = new CourseSearchIndex();
+        this.offeringIndex = new OfferingIndex();
+        this.courseRepository = courseRepository;
+        if (courseRepository != null) {
+            for (Course course : courseRepository.findAllCourses()) {
+                courses.add(course);
+                prerequisiteGraph.addCourse(course);
+                searchIndex.add(course);
+            }
+        }
+        if (courses.isEmpty()) {
+            initializeSampleData();
+        }
+    }
+
+    /**
+     * Load stored course offerings (only meaningful with a repository)
+     * @param userLookup Resolves instructor IDs, e.g. AuthService::findUserById
+     */
+    public void loadOfferings(IntFunction<User> userLookup) {
+        if (courseRepository == null) {
+            return;
+        }
+        Map<String, Course> coursesByCode = new HashMap<>();
+        for (Course course : courses) {
+            coursesByCode.put(course.getCourseCode(), course);
+        }
+        for (CourseOffering offering : courseRepository.findAllOfferings(coursesByCode, userLookup)) {
+            indexOffering(offering);
+        }
     }
 
     private void initializeSampleData() {
@@ -23,12 +79,12 @@ public class CourseService {
         Course cs301 = new Course("CS301", "Software Engineering", 3,
                 "Software development methodologies");
 
-        cs201.addPrerequisite(cs101);
-        cs301.addPrerequisite(cs201);
+        addCourse(cs101);
+        addCourse(cs201);
+        addCourse(cs301);
 
-        courses.add(cs101);
-        courses.add(cs201);
-        courses.add(cs301);
+        addPrerequisite(cs201, cs101);
+        addPrerequisite(cs301, cs201);
     }
 
     public List<Course> getAllCourses() {
@@ -39,52 +95,227 @@ public class CourseService {
         return courseOfferings;
     }
 
+    /**
+     * Copy of every offering taken under the offering lock,
+     * safe to iterate while an administrator adds or removes offerings
+     */
+    public List<CourseOffering> getCourseOfferingsSnapshot() {
+        long stamp = offeringLock.readLock();
+        try {
+            return new ArrayList<>(courseOfferings);
+        } finally {
+            offeringLock.unlockRead(stamp);
+        }
+    }
+
     public void addCourse(Course course) {
+        if (findCourseByCode(course.getCourseCode()) != null) {
+            System.out.println("Error: Course " + course.getCourseCode() + " already exists");
+            return;
+        }
         courses.add(course);
+        prerequisiteGraph.addCourse(course);
+        searchIndex.add(course);
+        if (courseRepository != null) {
+            courseRepository.saveCourse(course);
+            for (Course prerequisite : course.getPrerequisites()) {
+                courseRepository.savePrerequisite(course, prerequisite);
+            }
+        }
+    }
+
+    /**
+     * Add a prerequisite to a course through the dependency graph
+     * @param course The course that gets the new requirement
+     * @param prerequisite The course that must be taken first
+     * @return true if added, false if it would create a prerequisite cycle
+     */
+    public boolean addPrerequisite(Course course, Course prerequisite) {
+        if (!prerequisiteGraph.addPrerequisite(course, prerequisite)) {
+            System.out.println("Error: " + prerequisite.getCourseCode() + " already requires " +
+                    course.getCourseCode() + "; adding it as a prerequisite would create a cycle");
+            return false;
+        }
+        if (courseRepository != null) {
+            courseRepository.savePrerequisite(course, prerequisite);
+        }
+        return true;
+    }
+
+    /**
+     * Remove a direct prerequisite from a course
+     * @return true if the prerequisite existed and was removed
+     */
+    public boolean removePrerequisite(Course course, Course prerequisite) {
+        boolean removed = prerequisiteGraph.removePrerequisite(course, prerequisite);
+        if (removed && courseRepository != null) {
+            courseRepository.deletePrerequisite(course, prerequisite);
+        }
+        return removed;
+    }
+
+    public PrerequisiteGraph getPrerequisiteGraph() {
+        return prerequisiteGraph;
+    }
+
+    /**
+     * Search the catalog by code, title and description words
+     * @param text Words that must all appear; blank lists every course that passes the filter
+     * @param filter Credit, department, level or seat restrictions, or CourseFilter.ANY
+     * @param limit Maximum number of results
+     * @return Matching courses, best match first
+     */
+    public List<Course> searchCourses(String text, CourseFilter filter, int limit) {
+        return searchIndex.search(text, filter, limit);
+    }
+
+    /**
+     * Autocomplete a partly typed course code or title
+     * @param prefix Text typed so far, e.g. "CS2" or "data str"
+     * @param limit Maximum number of suggestions
+     */
+    public List<Course> suggestCourses(String prefix, int limit) {
+        return searchIndex.suggest(prefix, limit);
+    }
+
+    /**
+     * Find offerings matching every condition of a query, using the offering indexes
+     * @param query e.g. OfferingQuery.all().department("Computer Science").withOpenSeats()
+     * @return Matching offerings, looked up lazily as the stream is consumed
+     */
+    public Stream<CourseOffering> queryOfferings(OfferingQuery query) {
+        return offeringIndex.stream(query);
+    }
+
+    /**
+     * One page of offerings matching a query
+     * @param cursor Page.FIRST for the first page, then the previous page's next cursor
+     * @param pageSize Maximum number of offerings on the page
+     */
+    public Page<CourseOffering> queryOfferings(OfferingQuery query, int cursor, int pageSize) {
+        if (pageSize <= 0) {
+            throw new IllegalArgumentException("Page size must be positive");
+        }
+        return offeringIndex.page(query, cursor, pageSize);
+    }
+
+    /**
+     * Describe which indexes a query would start from and narrow with
+     */
+    public String explainQuery(OfferingQuery query) {
+        return offeringIndex.explain(query);
     }
 
     public void addCourseOffering(CourseOffering offering) {
-        courseOfferings.add(offering);
+        indexOffering(offering);
+        if (courseRepository != null) {
+            courseRepository.saveOffering(offering);
+        }
+    }
+
+    private void indexOffering(CourseOffering offering) {
+        long stamp = offeringLock.writeLock();
+        try {
+            CourseOffering replaced = offeringsById.put(offering.getOfferingID(), offering);
+            if (replaced != null) {
+                courseOfferings.remove(replaced);
+                replaced.getCourse().getOfferings().remove(replaced);
+            }
+            courseOfferings.add(offering);
+        } finally {
+            offeringLock.unlockWrite(stamp);
+        }
+        offeringIndex.add(offering);
         offering.getCourse().addOffering(offering);
     }
 
+    /**
+     * Remove a course offering from the system
+     * @param offeringID The ID of the offering to remove
+     * @return The removed offering, or null if not found
+     */
+    public CourseOffering removeCourseOffering(int offeringID) {
+        CourseOffering removed;
+        long stamp = offeringLock.writeLock();
+        try {
+            removed = offeringsById.remove(offeringID);
+            if (removed != null) {
+                courseOfferings.remove(removed);
+            }
+        } finally {
+            offeringLock.unlockWrite(stamp);
+        }
+        if (removed != null) {
+            offeringIndex.remove(offeringID);
+            removed.getCourse().getOfferings().remove(removed);
+            if (courseRepository != null) {
+                courseRepository.deleteOffering(offeringID);
+            }
+        }
+        return removed;
+    }
+
+    /**
+     * Find a course offering by ID using the offering index
+     * Lookups are lock-free unless an offering is being added or removed concurrently
+     * @param offeringID The ID to search for
+     * @return CourseOffering object or null if not found
+     */
     public CourseOffering findOfferingById(int offeringID) {
-        for (CourseOffering offering : courseOfferings) {
-            if (offering.getOfferingID() == offeringID) {
-                return offering;
+        long stamp = offeringLock.tryOptimisticRead();
+        CourseOffering offering = offeringsById.get(offeringID);
+        if (!offeringLock.validate(stamp)) {
+            stamp = offeringLock.readLock();
+            try {
+                offering = offeringsById.get(offeringID);
+            } finally {
+                offeringLock.unlockRead(stamp);
             }
         }
-        return null;
+        return offering;
     }
 
+    /**
+     * Check the course's direct prerequisites against the student's transcript
+     * A prerequisite counts once the student has completed it or holds a registration for it
+     * @param student The student registering
+     * @param course The course to check
+     * @return true if every prerequisite is satisfied
+     */
     public boolean checkPrerequisites(Student student, Course course) {
+        EligibilityCheckEvent event = new EligibilityCheckEvent();
+        event.begin();
+        boolean met = prerequisitesMet(student, course);
+        event.record(EligibilityCheckEvent.PREREQUISITES, student.getUserID(), course.getCourseCode(), met);
+        return met;
+    }
+
+    private boolean prerequisitesMet(Student student, Course course) {
+        if (course.getOrdinal() >= 0) {
+            return student.getTranscript().containsAll(course.getPrerequisiteMask());
+        }
+        // Course was never added to the catalog, so it has no prerequisite mask
         for (Course prereq : course.getPrerequisites()) {
-            boolean hasPrereq = false;
-            for (Registration reg : student.getRegistrations()) {
-                if (reg.getCourseOffering().getCourse().getCourseCode().equals(prereq.getCourseCode())
-                        && reg.getStatus().equals("registered")) {
-                    hasPrereq = true;
-                    break;
-                }
-            }
-            if (!hasPrereq) {
+            if (!student.getTranscript().hasCompleted(prereq) && !student.getTranscript().isInProgress(prereq)) {
                 return false;
             }
         }
         return true;
     }
 
+    /**
+     * Check a new offering against the student's weekly occupancy bitmap
+     * @param student The student registering
+     * @param newOffering The offering to check
+     * @return true if the offering overlaps a course the student is registered in
+     */
     public boolean checkScheduleConflict(Student student, CourseOffering newOffering) {
-        for (Registration reg : student.getRegistrations()) {
-            if (reg.getStatus().equals("registered")) {
-                Schedule existingSchedule = reg.getCourseOffering().getSchedule();
-                Schedule newSchedule = newOffering.getSchedule();
-                if (existingSchedule.conflictsWith(newSchedule)) {
-                    return true;
-                }
-            }
-        }
-        return false;
+        EligibilityCheckEvent event = new EligibilityCheckEvent();
+        event.begin();
+        boolean conflict = student.getOccupancy().conflictsWith(newOffering.getSchedule());
+        event.record(EligibilityCheckEvent.SCHEDULE_CONFLICT, student.getUserID(),
+                newOffering.getCourse().getCourseCode(), !conflict);
+        return conflict;
     }
 
     /**
@@ -93,11 +324,15 @@ public class CourseService {
      * @param title Course title
      * @param credits Number of credits
      * @param description Course description
-     * @return The created Course object
+     * @return The created Course object, or null if the code is already taken
      */
     public Course addCourse(String courseCode, String title, int credits, String description) {
+        if (findCourseByCode(courseCode) != null) {
+            System.out.println("Error: Course " + courseCode + " already exists");
+            return null;
+        }
         Course newCourse = new Course(courseCode, title, credits, description);
-        courses.add(newCourse);
+        addCourse(newCourse);
         return newCourse;
     }
 
@@ -107,7 +342,20 @@ public class CourseService {
      * @return true if removed successfully, false if not found
      */
     public boolean removeCourse(String courseCode) {
-        return courses.removeIf(course -> course.getCourseCode().equals(courseCode));
+        Course course = findCourseByCode(courseCode);
+        if (course == null) {
+            return false;
+        }
+        for (CourseOffering offering : new ArrayList<>(course.getOfferings())) {
+            removeCourseOffering(offering.getOfferingID());
+        }
+        // The index is keyed by ordinal, which the graph releases
+        searchIndex.remove(course);
+        prerequisiteGraph.removeCourse(course);
+        if (courseRepository != null) {
+            courseRepository.deleteCourse(courseCode);
+        }
+        return courses.remove(course);
     }
 
     /**
@@ -116,12 +364,7 @@ public class CourseService {
      * @return Course object or null if not found
      */
     public Course findCourseByCode(String courseCode) {
-        for (Course course : courses) {
-            if (course.getCourseCode().equals(courseCode)) {
-                return course;
-            }
-        }
-        return null;
+        return searchIndex.findByCode(courseCode);
     }
 
 
@@ -0,0 +1,90 @@
+package service;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Periodically writes the registration metrics to a file in the Prometheus
+ * text format, e.g. for the node exporter's textfile collector.
+ * The file is replaced atomically, so readers never see half a snapshot.
+ */
+public class MetricsExporter implements AutoCloseable {
+    private final RegistrationMetrics metrics;
+    private final Path file;
+    private final ScheduledExecutorService scheduler;
+
+    public MetricsExporter(RegistrationMetrics metrics, Path file, long intervalSeconds) {
+        this.metrics = metrics;
+        this.file = file;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "metrics-exporter");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleAtFixedRate(this::export, 0, intervalSeconds, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Write the current snapshot now
+     * @return true if the file was written
+     */
+    public boolean export() {
+        try {
+            Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+            Files.write(temporary, toPrometheus(metrics.snapshot()).getBytes(StandardCharsets.UTF_8));
+            Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            return true;
+        } catch (IOException e) {
+            System.out.println("Error exporting metrics to " + file + ": " + e.getMessage());
+            return false;
+        }
+    }
+
+    public static String toPrometheus(MetricsSnapshot snapshot) {
+        StringBuilder text = new StringBuilder();
+        text.append("# HELP registration_outcomes_total Registration attempts by outcome\n");
+        text.append("# TYPE registration_outcomes_total counter\n");
+        for (Map.Entry<RegistrationOutcome, Long> entry : snapshot.getOutcomes().entrySet()) {
+            text.append("registration_outcomes_total{outcome=\"").append(entry.getKey().getCode()).append("\"} ")
+                    .append(entry.getValue()).append('\n');
+        }
+        text.append("# HELP registration_request_seconds End-to-end latency of registerCourse\n");
+        text.append("# TYPE registration_request_seconds summary\n");
+        appendSummary(text, "registration_request_seconds", "", snapshot.getRequests());
+        text.append("# HELP registration_stage_seconds Latency of each registration stage\n");
+        text.append("# TYPE registration_stage_seconds summary\n");
+        for (Map.Entry<RegistrationMetrics.Stage, MetricsSnapshot.Latency> entry : snapshot.getStages().entrySet()) {
+            String label = "stage=\"" + entry.getKey().name().toLowerCase(Locale.ROOT) + "\"";
+            appendSummary(text, "registration_stage_seconds", label, entry.getValue());
+        }
+        return text.toString();
+    }
+
+    private static void appendSummary(StringBuilder text, String name, String labels, MetricsSnapshot.Latency latency) {
+        String prefix = labels.isEmpty() ? "" : labels + ",";
+        appendLine(text, name + "{" + prefix + "quantile=\"0.5\"}", latency.getP50() / 1e9);
+        appendLine(text, name + "{" + prefix + "quantile=\"0.99\"}", latency.getP99() / 1e9);
+        appendLine(text, name + "{" + prefix + "quantile=\"0.999\"}", latency.getP999() / 1e9);
+        String suffix = labels.isEmpty() ? "" : "{" + labels + "}";
+        appendLine(text, name + "_sum" + suffix, latency.getMean() * latency.getCount() / 1e9);
+        text.append(name).append("_count").append(suffix).append(' ').append(latency.getCount()).append('\n');
+    }
+
+    private static void appendLine(StringBuilder text, String series, double value) {
+        text.append(series).append(' ').append(String.format(Locale.ROOT, "%.9f", value)).append('\n');
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+        export();
+    }
+}
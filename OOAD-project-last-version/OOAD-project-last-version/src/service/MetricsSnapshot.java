@@ -0,0 +1,89 @@
+package service;
+
+import util.LatencyHistogram;
+import java.util.Collections;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Immutable copy of the registration metrics at one point in time
+ */
+public class MetricsSnapshot {
+    private final long takenAtMillis;
+    private final Map<RegistrationOutcome, Long> outcomes;
+    private final Map<RegistrationMetrics.Stage, Latency> stages;
+    private final Latency requests;
+
+    MetricsSnapshot(long takenAtMillis, Map<RegistrationOutcome, Long> outcomes,
+                    Map<RegistrationMetrics.Stage, Latency> stages, Latency requests) {
+        this.takenAtMillis = takenAtMillis;
+        this.outcomes = Collections.unmodifiableMap(outcomes);
+        this.stages = Collections.unmodifiableMap(stages);
+        this.requests = requests;
+    }
+
+    public long getTakenAtMillis() { return takenAtMillis; }
+    public Map<RegistrationOutcome, Long> getOutcomes() { return outcomes; }
+    public Map<RegistrationMetrics.Stage, Latency> getStages() { return stages; }
+    public Latency getRequests() { return requests; }
+
+    public long getOutcomeCount(RegistrationOutcome outcome) {
+        return outcomes.getOrDefault(outcome, 0L);
+    }
+
+    /**
+     * Human-readable report, as shown on the System Status screen
+     */
+    public String format() {
+        StringBuilder text = new StringBuilder();
+        text.append("Registration outcomes:\n");
+        for (Map.Entry<RegistrationOutcome, Long> entry : outcomes.entrySet()) {
+            text.append(String.format("  %-22s %d%n", entry.getKey().getCode(), entry.getValue()));
+        }
+        text.append(String.format("Latency (microseconds)  %8s %8s %8s %8s %8s%n",
+                "count", "p50", "p99", "p999", "max"));
+        text.append(requests.format("request"));
+        for (Map.Entry<RegistrationMetrics.Stage, Latency> entry : stages.entrySet()) {
+            text.append(entry.getValue().format(entry.getKey().name().toLowerCase(Locale.ROOT)));
+        }
+        return text.toString();
+    }
+
+    /**
+     * Summary of one latency histogram, in nanoseconds
+     */
+    public static final class Latency {
+        private final long count;
+        private final double mean;
+        private final long p50;
+        private final long p99;
+        private final long p999;
+        private final long max;
+
+        private Latency(long count, double mean, long p50, long p99, long p999, long max) {
+            this.count = count;
+            this.mean = mean;
+            this.p50 = p50;
+            this.p99 = p99;
+            this.p999 = p999;
+            this.max = max;
+        }
+
+        static Latency of(LatencyHistogram histogram) {
+            return new Latency(histogram.getCount(), histogram.getMean(), histogram.getValueAtPercentile(50),
+                    histogram.getValueAtPercentile(99), histogram.getValueAtPercentile(99.9), histogram.getMax());
+        }
+
+        private String format(String name) {
+            return String.format("  %-22s %8d %8.1f %8.1f %8.1f %8.1f%n",
+                    name, count, p50 / 1e3, p99 / 1e3, p999 / 1e3, max / 1e3);
+        }
+
+        public long getCount() { return count; }
+        public double getMean() { return mean; }
+        public long getP50() { return p50; }
+        public long getP99() { return p99; }
+        public long getP999() { return p999; }
+        public long getMax() { return max; }
+    }
+}
@@ -0,0 +1,233 @@
+package service;
+
+import model.Notification;
+import model.User;
+import monitoring.NotificationDispatchEvent;
+import repository.NotificationRepository;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Asynchronous notification delivery.
+ * Producers only enqueue; a background thread drains the queue in batches
+ * and appends each notification to its recipient's inbox.
+ */
+public class NotificationDispatcher {
+    private static final int BATCH_SIZE = 256;
+
+    private final BlockingQueue<Notification> queue;
+    private final ConcurrentMap<Integer, Inbox> inboxes;
+    private final AtomicInteger nextNotificationID;
+    private final AtomicLong enqueued;
+    private final AtomicLong delivered;
+    private final Object deliveryMonitor;
+    private final Thread worker;
+    private volatile boolean running;
+    private volatile boolean echoToConsole;
+    private final NotificationRepository notificationRepository;
+
+    public NotificationDispatcher() {
+        this(null);
+    }
+
+    /**
+     * @param notificationRepository Receives every delivered batch in one JDBC batch, or null
+     */
+    public NotificationDispatcher(NotificationRepository notificationRepository) {
+        this.notificationRepository = notificationRepository;
+        this.queue = new LinkedBlockingQueue<>();
+        this.inboxes = new ConcurrentHashMap<>();
+        this.nextNotificationID = new AtomicInteger(0);
+        this.enqueued = new AtomicLong(0);
+        this.delivered = new AtomicLong(0);
+        this.deliveryMonitor = new Object();
+        this.running = true;
+        this.echoToConsole = false;
+        this.worker = new Thread(this::run, "notification-dispatcher");
+        this.worker.setDaemon(true);
+        this.worker.start();
+    }
+
+    /**
+     * Queue a notification for a user without blocking the caller
+     * @param user Recipient
+     * @param message Notification text
+     * @return The queued notification
+     */
+    public Notification send(User user, String message) {
+        Notification notification = new Notification(nextNotificationID.incrementAndGet(), user, message);
+        enqueued.incrementAndGet();
+        queue.offer(notification);
+        return notification;
+    }
+
+    private void run() {
+        List<Notification> batch = new ArrayList<>(BATCH_SIZE);
+        while (running || !queue.isEmpty()) {
+            try {
+                Notification first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, BATCH_SIZE - 1);
+                deliver(batch);
+            } catch (InterruptedException e) {
+                // Shutdown requested; the loop condition drains what is left
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void deliver(List<Notification> batch) {
+        NotificationDispatchEvent event = new NotificationDispatchEvent();
+        event.begin();
+        StringBuilder console = echoToConsole ? new StringBuilder() : null;
+        for (Notification notification : batch) {
+            inboxes.computeIfAbsent(notification.getUser().getUserID(), id -> new Inbox())
+                    .add(notification);
+            if (console != null) {
+                console.append('[').append(notification.getDate()).append("] ")
+                        .append(notification.getMessage()).append(System.lineSeparator());
+            }
+        }
+        if (console != null) {
+            System.out.print(console);
+        }
+        if (notificationRepository != null) {
+            notificationRepository.saveAll(batch);
+        }
+        delivered.addAndGet(batch.size());
+        event.record(batch.size(), queue.size());
+        synchronized (deliveryMonitor) {
+            deliveryMonitor.notifyAll();
+        }
+    }
+
+    /**
+     * Wait until everything queued before this call has reached an inbox
+     * @param timeoutMillis Maximum time to wait
+     * @return true if all earlier notifications were delivered in time
+     */
+    public boolean flush(long timeoutMillis) {
+        long target = enqueued.get();
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        synchronized (deliveryMonitor) {
+            while (delivered.get() < target) {
+                long remaining = deadline - System.currentTimeMillis();
+                if (remaining <= 0) {
+                    return false;
+                }
+                try {
+                    deliveryMonitor.wait(remaining);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Get a user's notifications, oldest first
+     * @return Snapshot of the user's inbox
+     */
+    public List<Notification> getNotifications(User user) {
+        Inbox inbox = inboxes.get(user.getUserID());
+        return inbox == null ? Collections.emptyList() : inbox.snapshot();
+    }
+
+    public int getUnreadCount(User user) {
+        Inbox inbox = inboxes.get(user.getUserID());
+        return inbox == null ? 0 : inbox.getUnreadCount();
+    }
+
+    public void markAllRead(User user) {
+        Inbox inbox = inboxes.get(user.getUserID());
+        if (inbox != null) {
+            inbox.markAllRead();
+            if (notificationRepository != null) {
+                notificationRepository.markAllRead(user.getUserID());
+            }
+        }
+    }
+
+    /**
+     * Put previously stored notifications back into their inboxes
+     * New notifications get IDs after the highest restored one
+     */
+    public void restore(List<Notification> stored) {
+        for (Notification notification : stored) {
+            inboxes.computeIfAbsent(notification.getUser().getUserID(), id -> new Inbox())
+                    .add(notification);
+            nextNotificationID.accumulateAndGet(notification.getNotificationID(), Math::max);
+        }
+    }
+
+    /**
+     * Also print each delivered batch to the console (off by default)
+     */
+    public void setEchoToConsole(boolean echoToConsole) {
+        this.echoToConsole = echoToConsole;
+    }
+
+    public int getPendingCount() {
+        return queue.size();
+    }
+
+    /**
+     * Stop the dispatcher after delivering everything already queued
+     */
+    public void shutdown() {
+        running = false;
+        worker.interrupt();
+        try {
+            worker.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // One user's notifications plus an unread counter
+    private static class Inbox {
+        private final List<Notification> notifications = new ArrayList<>();
+        private int unread;
+
+        synchronized void add(Notification notification) {
+            notifications.add(notification);
+            if (!notification.isRead()) {
+                unread++;
+            }
+        }
+
+        synchronized List<Notification> snapshot() {
+            return new ArrayList<>(notifications);
+        }
+
+        synchronized int getUnreadCount() {
+            return unread;
+        }
+
+        synchronized void markAllRead() {
+            // Unread notifications cluster at the end, so walk back until all are marked
+            for (int i = notifications.size() - 1; i >= 0 && unread > 0; i--) {
+                Notification notification = notifications.get(i);
+                if (!notification.isRead()) {
+                    notification.markAsRead();
+                    unread--;
+                }
+            }
+            unread = 0;
+        }
+    }
+}
@@ -0,0 +1,360 @@
+package service;
+
+import model.CourseOffering;
+import model.Schedule;
+import util.IntHashMap;
+import util.Page;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * Secondary indexes over course offerings for OfferingQuery.
+ * Every offering gets a dense slot number; each index maps a value (department,
+ * credits, semester, meeting day, start hour, open seats) to the set of slots
+ * holding it. A query starts from the smallest index its conditions select,
+ * narrows it with the other selective ones, then checks each candidate exactly.
+ *
+ * The open-seats index follows the offerings through their availability listeners,
+ * so it only changes when an offering fills up or a seat frees up again. Those
+ * changes come from the registration path, so they are applied with a CAS on the
+ * bit's word instead of the index lock; readers treat the bits as a hint because
+ * OfferingQuery.matches rechecks availability anyway.
+ */
+class OfferingIndex {
+    private static final int INITIAL_SLOTS = 64;
+    private static final String[] DAY_NAMES = {"Mon", "Tue", "Wed", "Thu", "Fri", "Sat", "Sun"};
+
+    private final IntHashMap<Integer> slotsById = new IntHashMap<>();
+    // Written under the write lock; read without it when streaming results
+    private volatile AtomicReferenceArray<CourseOffering> offeringsBySlot = new AtomicReferenceArray<>(INITIAL_SLOTS);
+    private final BitSet live = new BitSet();
+    private int slotLimit;
+    private final List<Integer> freeSlots = new ArrayList<>();
+
+    private final Map<String, BitSet> byDepartment = new HashMap<>();
+    private final IntHashMap<BitSet> byCredits = new IntHashMap<>();
+    private final Map<String, BitSet> bySemester = new HashMap<>();
+    private final BitSet[] byDay = newBitSets(7);
+    private final BitSet[] byStartHour = newBitSets(24);
+    // Written lock-free by the availability listeners; replaced under the write lock when it grows
+    private volatile AtomicLongArray available = new AtomicLongArray(INITIAL_SLOTS / 64);
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * Index an offering, replacing any earlier offering with the same ID
+     */
+    void add(CourseOffering offering) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(offering.getOfferingID());
+            int slot = freeSlots.isEmpty() ? slotLimit++ : freeSlots.remove(freeSlots.size() - 1);
+            if (slot >= offeringsBySlot.length()) {
+                AtomicReferenceArray<CourseOffering> grown = new AtomicReferenceArray<>(offeringsBySlot.length() * 2);
+                for (int i = 0; i < offeringsBySlot.length(); i++) {
+                    grown.set(i, offeringsBySlot.get(i));
+                }
+                offeringsBySlot = grown;
+                AtomicLongArray grownAvailable = new AtomicLongArray(grown.length() / 64);
+                AtomicLongArray oldAvailable = available;
+                for (int i = 0; i < oldAvailable.length(); i++) {
+                    grownAvailable.set(i, oldAvailable.get(i));
+                }
+                // A listener that wrote to the old words after the copy notices the swap and writes again
+                available = grownAvailable;
+            }
+            offeringsBySlot.set(slot, offering);
+            slotsById.put(offering.getOfferingID(), slot);
+            live.set(slot);
+            forEachIndex(offering, slot, true);
+            // Listen first so a seat freed right after this read still reaches the index
+            int listenedSlot = slot;
+            offering.setAvailabilityListener(changed -> refreshAvailability(listenedSlot));
+            refreshAvailability(slot);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void remove(int offeringID) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(offeringID);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void removeLocked(int offeringID) {
+        Integer slot = slotsById.remove(offeringID);
+        if (slot == null) {
+            return;
+        }
+        CourseOffering offering = offeringsBySlot.get(slot);
+        forEachIndex(offering, slot, false);
+        live.clear(slot);
+        offeringsBySlot.set(slot, null);
+        offering.setAvailabilityListener(null);
+        refreshAvailability(slot);
+        freeSlots.add(slot);
+    }
+
+    /**
+     * Set or clear the offering's slot in each value index
+     */
+    private void forEachIndex(CourseOffering offering, int slot, boolean set) {
+        String department = key(offering.getInstructor().getDepartment());
+        if (department != null) {
+            update(byDepartment.computeIfAbsent(department, k -> new BitSet()), slot, set);
+        }
+        int credits = offering.getCourse().getCredits();
+        BitSet creditSlots = byCredits.get(credits);
+        if (creditSlots == null) {
+            creditSlots = new BitSet();
+            byCredits.put(credits, creditSlots);
+        }
+        update(creditSlots, slot, set);
+        String semester = key(offering.getSemester().getTermName());
+        if (semester != null) {
+            update(bySemester.computeIfAbsent(semester, k -> new BitSet()), slot, set);
+        }
+        Schedule schedule = offering.getSchedule();
+        if (schedule.isParsed()) {
+            for (int day = 0; day < 7; day++) {
+                if ((schedule.getDayMask() & (1 << day)) != 0) {
+                    update(byDay[day], slot, set);
+                }
+            }
+            update(byStartHour[Math.min(schedule.getStartMinute() / 60, 23)], slot, set);
+        }
+    }
+
+    private static void update(BitSet bits, int slot, boolean set) {
+        if (set) {
+            bits.set(slot);
+        } else {
+            bits.clear(slot);
+        }
+    }
+
+    /**
+     * Set a slot's open-seats bit from its current occupant, without the index lock.
+     * Re-read rather than trust the event, and go again if the seats, the occupant or
+     * the word array changed meanwhile, so the last writer always leaves the truth.
+     */
+    private void refreshAvailability(int slot) {
+        int index = slot >>> 6;
+        long bit = 1L << slot;
+        while (true) {
+            AtomicLongArray words = available;
+            CourseOffering offering = offeringsBySlot.get(slot);
+            boolean open = offering != null && offering.checkAvailability();
+            long word = words.get(index);
+            long updated = open ? word | bit : word & ~bit;
+            if (word != updated && !words.compareAndSet(index, word, updated)) {
+                continue;
+            }
+            if (words == available && offeringsBySlot.get(slot) == offering
+                    && (offering == null || offering.checkAvailability() == open)) {
+                return;
+            }
+        }
+    }
+
+    // Plain copy of the open-seats bits for planning; may trail a concurrent seat change
+    private BitSet availableSnapshot() {
+        AtomicLongArray words = available;
+        long[] copy = new long[words.length()];
+        for (int i = 0; i < copy.length; i++) {
+            copy[i] = words.get(i);
+        }
+        return BitSet.valueOf(copy);
+    }
+
+    /**
+     * Stream the matching offerings in slot order.
+     * Only the candidate slot set is computed up front; offerings are looked up
+     * and checked as the stream is consumed.
+     */
+    Stream<CourseOffering> stream(OfferingQuery query) {
+        BitSet candidates;
+        lock.readLock().lock();
+        try {
+            candidates = plan(query).candidates();
+        } finally {
+            lock.readLock().unlock();
+        }
+        AtomicReferenceArray<CourseOffering> slots = offeringsBySlot;
+        return candidates.stream()
+                .filter(slot -> slot < slots.length())
+                .mapToObj(slots::get)
+                .filter(offering -> offering != null && query.matches(offering));
+    }
+
+    /**
+     * One page of matching offerings in slot order
+     * @param cursor Page.FIRST, or the cursor returned with the previous page
+     */
+    Page<CourseOffering> page(OfferingQuery query, int cursor, int pageSize) {
+        lock.readLock().lock();
+        try {
+            BitSet candidates = plan(query).candidates();
+            List<CourseOffering> items = new ArrayList<>(Math.min(pageSize, 64));
+            int lastSlot = cursor;
+            for (int slot = candidates.nextSetBit(cursor + 1); slot >= 0; slot = candidates.nextSetBit(slot + 1)) {
+                CourseOffering offering = offeringsBySlot.get(slot);
+                if (!query.matches(offering)) {
+                    continue;
+                }
+                if (items.size() == pageSize) {
+                    return new Page<>(items, lastSlot);
+                }
+                items.add(offering);
+                lastSlot = slot;
+            }
+            return Page.last(items);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Describe how a query would be answered, e.g. for the admin console
+     */
+    String explain(OfferingQuery query) {
+        lock.readLock().lock();
+        try {
+            return plan(query).toString();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    int size() {
+        lock.readLock().lock();
+        try {
+            return slotsById.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Pick the indexes a query can use. Called under the read lock.
+     */
+    private Plan plan(OfferingQuery query) {
+        Plan plan = new Plan(live);
+        if (query.department != null) {
+            plan.use("department=" + query.department, byDepartment.get(query.department));
+        }
+        if (query.credits != OfferingQuery.ANY) {
+            plan.use("credits=" + query.credits, byCredits.get(query.credits));
+        }
+        if (query.semester != null) {
+            plan.use("semester=" + query.semester, bySemester.get(query.semester));
+        }
+        for (int day = 0; day < 7; day++) {
+            if ((query.dayMask & (1 << day)) != 0) {
+                plan.use("day=" + DAY_NAMES[day], byDay[day]);
+            }
+        }
+        if (query.startsAfter != OfferingQuery.ANY) {
+            int firstHour = query.startsAfter / 60;
+            if (firstHour > 0) {
+                // The first hour bucket may still hold earlier starts; matches() drops those
+                BitSet startSlots = new BitSet();
+                for (int hour = Math.min(firstHour, 23); hour < 24; hour++) {
+                    startSlots.or(byStartHour[hour]);
+                }
+                plan.use("start>=" + String.format("%02d:00", firstHour), startSlots);
+            }
+        }
+        if (query.openSeatsOnly) {
+            plan.use("open seats", availableSnapshot());
+        }
+        return plan;
+    }
+
+    /**
+     * Index sets chosen for a query, smallest first
+     */
+    private static class Plan {
+        private final BitSet live;
+        private final List<String> names = new ArrayList<>();
+        private final List<BitSet> sets = new ArrayList<>();
+        private final List<Integer> sizes = new ArrayList<>();
+
+        Plan(BitSet live) {
+            this.live = live;
+        }
+
+        void use(String name, BitSet set) {
+            BitSet bits = set == null ? new BitSet() : set;
+            int size = bits.cardinality();
+            int at = 0;
+            while (at < sizes.size() && sizes.get(at) <= size) {
+                at++;
+            }
+            names.add(at, name);
+            sets.add(at, bits);
+            sizes.add(at, size);
+        }
+
+        /**
+         * Start from the most selective index and AND in the others that cut the
+         * population at least in half; weaker ones are left to the per-candidate check
+         */
+        BitSet candidates() {
+            if (sets.isEmpty()) {
+                return (BitSet) live.clone();
+            }
+            BitSet result = (BitSet) sets.get(0).clone();
+            int population = live.cardinality();
+            for (int i = 1; i < sets.size() && !result.isEmpty(); i++) {
+                if (sizes.get(i) * 2 <= population) {
+                    result.and(sets.get(i));
+                }
+            }
+            return result;
+        }
+
+        @Override
+        public String toString() {
+            if (sets.isEmpty()) {
+                return "scan all " + live.cardinality() + " offerings";
+            }
+            int population = live.cardinality();
+            StringBuilder text = new StringBuilder("start from ").append(names.get(0))
+                    .append(" (").append(sizes.get(0)).append(")");
+            for (int i = 1; i < sets.size(); i++) {
+                text.append(sizes.get(i) * 2 <= population ? ", and " : ", check ")
+                        .append(names.get(i)).append(" (").append(sizes.get(i)).append(")");
+            }
+            return text.append(" of ").append(population).append(" offerings").toString();
+        }
+    }
+
+    /**
+     * Normalized form of a department or term name used as an index key
+     */
+    static String key(String value) {
+        return value == null ? null : value.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static BitSet[] newBitSets(int count) {
+        BitSet[] sets = new BitSet[count];
+        for (int i = 0; i < count; i++) {
+            sets[i] = new BitSet();
+        }
+        return sets;
+    }
+}
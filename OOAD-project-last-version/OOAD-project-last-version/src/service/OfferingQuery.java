@@ -0,0 +1,191 @@
+package service;
+
+import model.CourseOffering;
+import model.Schedule;
+import java.util.Locale;
+import java.util.function.Predicate;
+
+/**
+ * Conditions on course offerings, combined with AND.
+ * Queries are immutable; each method returns a narrowed copy, e.g.
+ * OfferingQuery.all().department("Computer Science").credits(3).onDays("Tue, Thu")
+ * .startingAfter("13:00").withOpenSeats().
+ *
+ * Department, credits, semester, days, start time and open seats are backed
+ * by OfferingIndex; anything else can be added with where() and is checked
+ * per candidate.
+ */
+public final class OfferingQuery {
+    static final int ANY = -1;
+
+    final String department;
+    final int credits;
+    final String semester;
+    final int dayMask;
+    final int startsAfter;
+    final int endsBy;
+    final boolean openSeatsOnly;
+    final Predicate<CourseOffering> condition;
+
+    private OfferingQuery(String department, int credits, String semester, int dayMask, int startsAfter, int endsBy,
+                          boolean openSeatsOnly, Predicate<CourseOffering> condition) {
+        this.department = department;
+        this.credits = credits;
+        this.semester = semester;
+        this.dayMask = dayMask;
+        this.startsAfter = startsAfter;
+        this.endsBy = endsBy;
+        this.openSeatsOnly = openSeatsOnly;
+        this.condition = condition;
+    }
+
+    public static OfferingQuery all() {
+        return new OfferingQuery(null, ANY, null, 0, ANY, ANY, false, null);
+    }
+
+    /**
+     * @param department The instructor's department, case-insensitive
+     */
+    public OfferingQuery department(String department) {
+        return new OfferingQuery(OfferingIndex.key(department), credits, semester, dayMask, startsAfter, endsBy,
+                openSeatsOnly, condition);
+    }
+
+    public OfferingQuery credits(int credits) {
+        return new OfferingQuery(department, credits, semester, dayMask, startsAfter, endsBy, openSeatsOnly,
+                condition);
+    }
+
+    /**
+     * @param termName e.g. "Fall 2024", case-insensitive
+     */
+    public OfferingQuery semester(String termName) {
+        return new OfferingQuery(department, credits, OfferingIndex.key(termName), dayMask, startsAfter, endsBy,
+                openSeatsOnly, condition);
+    }
+
+    /**
+     * Offerings that meet on every one of the given days
+     * @param days e.g. "Tue, Thu", "Tue/Thu" or "TR"
+     * @throws IllegalArgumentException If the days cannot be read
+     */
+    public OfferingQuery onDays(String days) {
+        int mask = new Schedule(days, "00:00", "00:01").getDayMask();
+        if (mask == 0) {
+            throw new IllegalArgumentException("Unknown days '" + days + "'");
+        }
+        return new OfferingQuery(department, credits, semester, dayMask | mask, startsAfter, endsBy, openSeatsOnly,
+                condition);
+    }
+
+    /**
+     * Offerings starting at or after a time of day
+     * @param time "HH:mm"
+     */
+    public OfferingQuery startingAfter(String time) {
+        return new OfferingQuery(department, credits, semester, dayMask, minuteOf(time), endsBy, openSeatsOnly,
+                condition);
+    }
+
+    /**
+     * Offerings ending at or before a time of day
+     * @param time "HH:mm"
+     */
+    public OfferingQuery endingBy(String time) {
+        return new OfferingQuery(department, credits, semester, dayMask, startsAfter, minuteOf(time), openSeatsOnly,
+                condition);
+    }
+
+    public OfferingQuery withOpenSeats() {
+        return new OfferingQuery(department, credits, semester, dayMask, startsAfter, endsBy, true, condition);
+    }
+
+    /**
+     * Add a condition no index covers; it is checked on each candidate
+     */
+    public OfferingQuery where(Predicate<CourseOffering> extra) {
+        Predicate<CourseOffering> combined = condition == null ? extra : condition.and(extra);
+        return new OfferingQuery(department, credits, semester, dayMask, startsAfter, endsBy, openSeatsOnly,
+                combined);
+    }
+
+    /**
+     * Read a query such as "department=Computer Science; credits=3; days=Tue/Thu; after=13:00; open".
+     * Keys: department, credits, semester, days, after, before (end time), open.
+     * @throws IllegalArgumentException If a part cannot be read
+     */
+    public static OfferingQuery parse(String text) {
+        OfferingQuery query = all();
+        for (String part : text.split(";")) {
+            String trimmed = part.trim();
+            if (trimmed.isEmpty()) {
+                continue;
+            }
+            if (trimmed.equalsIgnoreCase("open")) {
+                query = query.withOpenSeats();
+                continue;
+            }
+            int equals = trimmed.indexOf('=');
+            if (equals <= 0) {
+                throw new IllegalArgumentException("Expected key=value but got '" + trimmed + "'");
+            }
+            String key = trimmed.substring(0, equals).trim().toLowerCase(Locale.ROOT);
+            String value = trimmed.substring(equals + 1).trim();
+            switch (key) {
+                case "department": query = query.department(value); break;
+                case "credits": query = query.credits(parseCredits(value)); break;
+                case "semester": query = query.semester(value); break;
+                case "days": query = query.onDays(value); break;
+                case "after": query = query.startingAfter(value); break;
+                case "before": query = query.endingBy(value); break;
+                default: throw new IllegalArgumentException("Unknown query key '" + key + "'");
+            }
+        }
+        return query;
+    }
+
+    private static int parseCredits(String value) {
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Credits must be a number but got '" + value + "'");
+        }
+    }
+
+    private static int minuteOf(String time) {
+        Schedule probe = new Schedule("Mon", time, "24:00");
+        if (!probe.isParsed()) {
+            throw new IllegalArgumentException("Expected a time like 13:00 but got '" + time + "'");
+        }
+        return probe.getStartMinute();
+    }
+
+    /**
+     * Exact check of every condition against the offering's current state
+     */
+    boolean matches(CourseOffering offering) {
+        if (department != null && !department.equals(OfferingIndex.key(offering.getInstructor().getDepartment()))) {
+            return false;
+        }
+        if (credits != ANY && offering.getCourse().getCredits() != credits) {
+            return false;
+        }
+        if (semester != null && !semester.equals(OfferingIndex.key(offering.getSemester().getTermName()))) {
+            return false;
+        }
+        Schedule schedule = offering.getSchedule();
+        if (dayMask != 0 && (schedule.getDayMask() & dayMask) != dayMask) {
+            return false;
+        }
+        if (startsAfter != ANY && (!schedule.isParsed() || schedule.getStartMinute() < startsAfter)) {
+            return false;
+        }
+        if (endsBy != ANY && (!schedule.isParsed() || schedule.getEndMinute() > endsBy)) {
+            return false;
+        }
+        if (openSeatsOnly && !offering.checkAvailability()) {
+            return false;
+        }
+        return condition == null || condition.test(offering);
+    }
+}
@@ -0,0 +1,347 @@
+package service;
+
+import model.Course;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Course dependency graph.
+ * Every course is a node with a dense integer ID, which also becomes the course's
+ * ordinal (see Course.getOrdinal()); for each node the graph keeps
+ * its direct prerequisites and the full transitive closure as bitsets.
+ * Edges that would create a cycle are rejected, and the closure is updated
+ * incrementally when prerequisites are added or removed.
+ */
+public class PrerequisiteGraph {
+    private final Map<String, Integer> nodesByCode;
+    private final List<Course> courses;
+    private final List<BitSet> directPrerequisites;
+    private final List<BitSet> allPrerequisites;
+    private final List<BitSet> directDependents;
+    private final ReadWriteLock lock;
+
+    public PrerequisiteGraph() {
+        this.nodesByCode = new HashMap<>();
+        this.courses = new ArrayList<>();
+        this.directPrerequisites = new ArrayList<>();
+        this.allPrerequisites = new ArrayList<>();
+        this.directDependents = new ArrayList<>();
+        this.lock = new ReentrantReadWriteLock();
+    }
+
+    /**
+     * Register a course, importing any prerequisites it already lists
+     * @param course The course to add
+     * @return The node ID of the course
+     */
+    public int addCourse(Course course) {
+        lock.writeLock().lock();
+        try {
+            return register(course);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private int register(Course course) {
+        Integer existing = nodesByCode.get(course.getCourseCode());
+        if (existing != null) {
+            return existing;
+        }
+        int node = courses.size();
+        nodesByCode.put(course.getCourseCode(), node);
+        courses.add(course);
+        directPrerequisites.add(new BitSet());
+        allPrerequisites.add(new BitSet());
+        directDependents.add(new BitSet());
+        course.setOrdinal(node);
+
+        for (Course prerequisite : new ArrayList<>(course.getPrerequisites())) {
+            int prereqNode = register(prerequisite);
+            if (!link(node, prereqNode)) {
+                System.out.println("Error: Prerequisite " + prerequisite.getCourseCode() + " of " +
+                        course.getCourseCode() + " would create a cycle and was ignored");
+                course.removePrerequisite(prerequisite);
+            }
+        }
+        return node;
+    }
+
+    /**
+     * Add a prerequisite edge: course requires prerequisite
+     * @return true if added (or already present), false if it would create a cycle
+     */
+    public boolean addPrerequisite(Course course, Course prerequisite) {
+        lock.writeLock().lock();
+        try {
+            int node = register(course);
+            int prereqNode = register(prerequisite);
+            if (directPrerequisites.get(node).get(prereqNode)) {
+                return true;
+            }
+            if (!link(node, prereqNode)) {
+                return false;
+            }
+            course.addPrerequisite(prerequisite);
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private boolean link(int node, int prereqNode) {
+        if (node == prereqNode || allPrerequisites.get(prereqNode).get(node)) {
+            return false;
+        }
+        directPrerequisites.get(node).set(prereqNode);
+        directDependents.get(prereqNode).set(node);
+        publishMask(node);
+
+        BitSet added = (BitSet) allPrerequisites.get(prereqNode).clone();
+        added.set(prereqNode);
+        // The new requirements flow to the course itself and to everything that depends on it
+        for (int other = 0; other < courses.size(); other++) {
+            if (other == node || allPrerequisites.get(other).get(node)) {
+                allPrerequisites.get(other).or(added);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Remove a direct prerequisite edge
+     * @return true if the edge existed
+     */
+    public boolean removePrerequisite(Course course, Course prerequisite) {
+        lock.writeLock().lock();
+        try {
+            Integer node = nodesByCode.get(course.getCourseCode());
+            Integer prereqNode = nodesByCode.get(prerequisite.getCourseCode());
+            if (node == null || prereqNode == null || !directPrerequisites.get(node).get(prereqNode)) {
+                return false;
+            }
+            directPrerequisites.get(node).clear(prereqNode);
+            directDependents.get(prereqNode).clear(node);
+            publishMask(node);
+            course.removePrerequisite(prerequisite);
+            recomputeDependentsOf(node);
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Remove a course and every edge pointing at it
+     */
+    public void removeCourse(Course course) {
+        lock.writeLock().lock();
+        try {
+            Integer node = nodesByCode.remove(course.getCourseCode());
+            if (node == null) {
+                return;
+            }
+            BitSet dependents = directDependents.get(node);
+            for (int other = dependents.nextSetBit(0); other >= 0; other = dependents.nextSetBit(other + 1)) {
+                directPrerequisites.get(other).clear(node);
+                publishMask(other);
+                courses.get(other).removePrerequisite(course);
+            }
+            dependents.clear();
+            BitSet prerequisites = directPrerequisites.get(node);
+            for (int prereq = prerequisites.nextSetBit(0); prereq >= 0; prereq = prerequisites.nextSetBit(prereq + 1)) {
+                directDependents.get(prereq).clear(node);
+            }
+            recomputeDependentsOf(node);
+            prerequisites.clear();
+            allPrerequisites.get(node).clear();
+            publishMask(node);
+            course.setOrdinal(-1);
+            // Node IDs stay dense and stable; the slot is simply left empty
+            courses.set(node, null);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Hand the course an immutable copy of its direct prerequisites for lock-free checks
+    private void publishMask(int node) {
+        courses.get(node).setPrerequisiteMask(directPrerequisites.get(node).toLongArray());
+    }
+
+    // Rebuild the closure of a node and of every course that (transitively) required it
+    private void recomputeDependentsOf(int node) {
+        BitSet affected = new BitSet();
+        affected.set(node);
+        for (int other = 0; other < courses.size(); other++) {
+            if (allPrerequisites.get(other).get(node)) {
+                affected.set(other);
+            }
+        }
+        for (int other = affected.nextSetBit(0); other >= 0; other = affected.nextSetBit(other + 1)) {
+            allPrerequisites.get(other).clear();
+        }
+        BitSet done = new BitSet();
+        for (int other = affected.nextSetBit(0); other >= 0; other = affected.nextSetBit(other + 1)) {
+            recompute(other, affected, done);
+        }
+    }
+
+    private void recompute(int node, BitSet affected, BitSet done) {
+        if (done.get(node)) {
+            return;
+        }
+        BitSet closure = allPrerequisites.get(node);
+        BitSet direct = directPrerequisites.get(node);
+        for (int prereq = direct.nextSetBit(0); prereq >= 0; prereq = direct.nextSetBit(prereq + 1)) {
+            if (affected.get(prereq)) {
+                recompute(prereq, affected, done);
+            }
+            closure.or(allPrerequisites.get(prereq));
+            closure.set(prereq);
+        }
+        done.set(node);
+    }
+
+    /**
+     * @return true if course requires prerequisite directly or transitively
+     */
+    public boolean requires(Course course, Course prerequisite) {
+        lock.readLock().lock();
+        try {
+            Integer node = nodesByCode.get(course.getCourseCode());
+            Integer prereqNode = nodesByCode.get(prerequisite.getCourseCode());
+            return node != null && prereqNode != null && allPrerequisites.get(node).get(prereqNode);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Get every course that must be taken before the given one
+     * @return Transitive prerequisites ordered by node ID, or an empty list if unknown
+     */
+    public List<Course> getAllPrerequisites(Course course) {
+        lock.readLock().lock();
+        try {
+            Integer node = nodesByCode.get(course.getCourseCode());
+            if (node == null) {
+                return Collections.emptyList();
+            }
+            BitSet closure = allPrerequisites.get(node);
+            List<Course> result = new ArrayList<>(closure.cardinality());
+            for (int prereq = closure.nextSetBit(0); prereq >= 0; prereq = closure.nextSetBit(prereq + 1)) {
+                result.add(courses.get(prereq));
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Get a topological "degree path" leading to a target course
+     * @param target The course the student wants to reach
+     * @return All required courses plus the target, every course after its prerequisites
+     */
+    public List<Course> getDegreePath(Course target) {
+        return getDegreePath(Collections.singletonList(target));
+    }
+
+    /**
+     * Get one topological path covering several target courses
+     * Courses are grouped by how early they can be taken, then by node ID
+     * @param targets Courses the student wants to reach
+     * @return Ordered list of all required courses plus the targets
+     */
+    public List<Course> getDegreePath(Collection<Course> targets) {
+        lock.readLock().lock();
+        try {
+            BitSet needed = new BitSet();
+            for (Course target : targets) {
+                Integer node = nodesByCode.get(target.getCourseCode());
+                if (node != null) {
+                    needed.or(allPrerequisites.get(node));
+                    needed.set(node);
+                }
+            }
+            return topologicalOrder(needed);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Bulk variant for advisors: one degree path per target, computed under a single read lock
+     * @param targets Target courses
+     * @return Map from target course to its degree path, in input order
+     */
+    public Map<Course, List<Course>> getDegreePaths(Collection<Course> targets) {
+        Map<Course, List<Course>> paths = new LinkedHashMap<>();
+        lock.readLock().lock();
+        try {
+            for (Course target : targets) {
+                Integer node = nodesByCode.get(target.getCourseCode());
+                if (node == null) {
+                    paths.put(target, Collections.emptyList());
+                    continue;
+                }
+                BitSet needed = (BitSet) allPrerequisites.get(node).clone();
+                needed.set(node);
+                paths.put(target, topologicalOrder(needed));
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return paths;
+    }
+
+    // Kahn's algorithm restricted to a prerequisite-closed node set, processed level by level
+    private List<Course> topologicalOrder(BitSet nodes) {
+        List<Course> order = new ArrayList<>(nodes.cardinality());
+        int[] pending = new int[courses.size()];
+        BitSet level = new BitSet();
+        for (int node = nodes.nextSetBit(0); node >= 0; node = nodes.nextSetBit(node + 1)) {
+            pending[node] = directPrerequisites.get(node).cardinality();
+            if (pending[node] == 0) {
+                level.set(node);
+            }
+        }
+        while (!level.isEmpty()) {
+            BitSet next = new BitSet();
+            for (int node = level.nextSetBit(0); node >= 0; node = level.nextSetBit(node + 1)) {
+                order.add(courses.get(node));
+                BitSet dependents = directDependents.get(node);
+                for (int dependent = dependents.nextSetBit(0); dependent >= 0;
+                     dependent = dependents.nextSetBit(dependent + 1)) {
+                    if (nodes.get(dependent) && --pending[dependent] == 0) {
+                        next.set(dependent);
+                    }
+                }
+            }
+            level = next;
+        }
+        return order;
+    }
+
+    /**
+     * @return The node ID of a course, or -1 if it is not in the graph
+     */
+    public int nodeOf(Course course) {
+        lock.readLock().lock();
+        try {
+            Integer node = nodesByCode.get(course.getCourseCode());
+            return node == null ? -1 : node;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package service;
+
+import util.LatencyHistogram;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters and latency histograms for the registration path.
+ * Each outcome has a LongAdder, which stripes its count over cells so
+ * concurrent registrations never contend on one counter; each stage has
+ * its own LatencyHistogram. Recording takes no locks.
+ */
+public class RegistrationMetrics {
+    /**
+     * The steps of a registration, timed separately
+     */
+    public enum Stage {
+        LOOKUP,
+        PREREQUISITES,
+        CAPACITY,
+        CONFLICT,
+        COMMIT
+    }
+
+    private final Map<Stage, LatencyHistogram> stages;
+    private final Map<RegistrationOutcome, LongAdder> outcomes;
+    private final LatencyHistogram requests;
+
+    public RegistrationMetrics() {
+        this.stages = new EnumMap<>(Stage.class);
+        this.outcomes = new EnumMap<>(RegistrationOutcome.class);
+        this.requests = new LatencyHistogram();
+        for (Stage stage : Stage.values()) {
+            stages.put(stage, new LatencyHistogram());
+        }
+        for (RegistrationOutcome outcome : RegistrationOutcome.values()) {
+            outcomes.put(outcome, new LongAdder());
+        }
+    }
+
+    /**
+     * Record the time a stage took
+     * @param startedAt System.nanoTime() when the stage began
+     * @return The current System.nanoTime(), i.e. the start of the next stage
+     */
+    public long stage(Stage stage, long startedAt) {
+        long now = System.nanoTime();
+        stages.get(stage).record(now - startedAt);
+        return now;
+    }
+
+    /**
+     * Count an outcome without timing it
+     */
+    public void outcome(RegistrationOutcome outcome) {
+        outcomes.get(outcome).increment();
+    }
+
+    /**
+     * Count the outcome of a whole registration request and record its end-to-end latency
+     * @param startedAt System.nanoTime() when the request arrived
+     */
+    public void request(RegistrationOutcome outcome, long startedAt) {
+        requests.record(System.nanoTime() - startedAt);
+        outcomes.get(outcome).increment();
+    }
+
+    /**
+     * Copy the current values; recording continues while the snapshot is taken,
+     * so concurrent counts may be off by the requests in flight
+     */
+    public MetricsSnapshot snapshot() {
+        Map<RegistrationOutcome, Long> outcomeCounts = new EnumMap<>(RegistrationOutcome.class);
+        for (Map.Entry<RegistrationOutcome, LongAdder> entry : outcomes.entrySet()) {
+            outcomeCounts.put(entry.getKey(), entry.getValue().sum());
+        }
+        Map<Stage, MetricsSnapshot.Latency> stageLatencies = new EnumMap<>(Stage.class);
+        for (Map.Entry<Stage, LatencyHistogram> entry : stages.entrySet()) {
+            stageLatencies.put(entry.getKey(), MetricsSnapshot.Latency.of(entry.getValue()));
+        }
+        return new MetricsSnapshot(System.currentTimeMillis(), outcomeCounts, stageLatencies,
+                MetricsSnapshot.Latency.of(requests));
+    }
+}
@@ -0,0 +1,26 @@
+package service;
+
+import java.util.Locale;
+
+/**
+ * Machine-readable result of a registration attempt
+ */
+public enum RegistrationOutcome {
+    SUCCESS,
+    OFFERING_NOT_FOUND,
+    PREREQUISITES_NOT_MET,
+    NO_CAPACITY,
+    SCHEDULE_CONFLICT,
+    ALREADY_REGISTERED,
+    ALREADY_WAITLISTED,
+    WAITLISTED,
+    // Checkout only: the item was fine but another item in the same cart failed
+    CANCELLED;
+
+    /**
+     * @return Lower-case name used as a metric label, e.g. "no_capacity"
+     */
+    public String getCode() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+}
@@ -1,85 +1,575 @@
 package service;
 
 import model.*;
+import monitoring.DropEvent;
+import monitoring.RegistrationEvent;
+import monitoring.SpecialRequestEvent;
+import repository.NotificationRepository;
+import repository.RegistrationRepository;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
 
 public class RegistrationService {
+    private static final String NO_CAPACITY = "No capacity available.";
+
     private CourseService courseService;
-    private List<Registration> allRegistrations;
-    private List<SpecialRequest> specialRequests;
-    private List<Notification> notifications;
+    private final RegistrationStore registrationStore;
+    private Queue<SpecialRequest> specialRequests;
+    private NotificationDispatcher notificationDispatcher;
+    private final AtomicInteger nextRequestID;
+    private RegistrationRepository registrationRepository;
+    private NotificationRepository notificationRepository;
+    private final RegistrationMetrics metrics;
 
     public RegistrationService(CourseService courseService) {
+        this(courseService, null, null);
+    }
+
+    /**
+     * @param courseService Catalog used for offering lookups and checks
+     * @param registrationRepository Where registrations and special requests are persisted, or null
+     * @param notificationRepository Where delivered notifications are persisted, or null
+     */
+    public RegistrationService(CourseService courseService, RegistrationRepository registrationRepository,
+                               NotificationRepository notificationRepository) {
         this.courseService = courseService;
-        this.allRegistrations = new ArrayList<>();
-        this.specialRequests = new ArrayList<>();
-        this.notifications = new ArrayList<>();
+        this.registrationStore = new RegistrationStore();
+        this.metrics = new RegistrationMetrics();
+        this.specialRequests = new ConcurrentLinkedQueue<>();
+        this.notificationDispatcher = new NotificationDispatcher(notificationRepository);
+        this.nextRequestID = new AtomicInteger(0);
+        this.registrationRepository = registrationRepository;
+        this.notificationRepository = notificationRepository;
+    }
+
+    /**
+     * Rebuild registrations, special requests and notifications from the repositories.
+     * Seats, weekly occupancy and transcripts are re-derived from the stored statuses.
+     * @param userLookup Resolves user IDs, e.g. AuthService::findUserById
+     */
+    public void loadState(IntFunction<User> userLookup) {
+        if (registrationRepository != null) {
+            IntFunction<CourseOffering> offeringLookup = courseService::findOfferingById;
+            for (Registration registration : registrationRepository.findAllRegistrations(registrationStore,
+                    userLookup, offeringLookup)) {
+                restoreRegistration(registration);
+            }
+            for (SpecialRequest request : registrationRepository.findAllSpecialRequests(userLookup, offeringLookup)) {
+                specialRequests.add(request);
+                request.getCourseOffering().getInstructor().addSpecialRequest(request);
+                request.getStudent().addSpecialRequest(request);
+                nextRequestID.accumulateAndGet(request.getRequestID(), Math::max);
+            }
+        }
+        if (notificationRepository != null) {
+            notificationDispatcher.restore(notificationRepository.findAll(userLookup));
+        }
+    }
+
+    /**
+     * Add a registration created outside this service (e.g. generated data),
+     * keeping its ID, status and creation time
+     * @return The stored registration
+     * @throws IllegalArgumentException If the ID is not positive or the status is unknown
+     */
+    public Registration importRegistration(int registrationID, Student student, CourseOffering offering,
+                                           String status, long createdAtMillis) {
+        Registration registration = registrationStore.restore(registrationID, student, offering, status,
+                createdAtMillis);
+        restoreRegistration(registration);
+        return registration;
+    }
+
+    private void restoreRegistration(Registration registration) {
+        Student student = registration.getStudent();
+        CourseOffering offering = registration.getCourseOffering();
+        student.addRegistration(registration);
+
+        if (registration.getStatus().equals("registered")) {
+            offering.increaseEnrollment();
+            offering.addToRoster(registration);
+            student.getOccupancy().add(offering.getSchedule());
+            student.getTranscript().markInProgress(offering.getCourse());
+        } else if (registration.getStatus().equals("completed")) {
+            offering.increaseEnrollment();
+            student.getTranscript().markCompleted(offering.getCourse());
+        }
+    }
+
+    // Called under the student's lock: queue the write there, wait for it with awaitDurable after the lock is released
+    private CompletableFuture<Boolean> persist(Registration registration) {
+        return registrationRepository == null ? null : registrationRepository.saveAsync(registration);
+    }
+
+    private static void awaitDurable(CompletableFuture<Boolean> written) {
+        if (written != null) {
+            written.join();
+        }
     }
 
     public RegistrationResult registerCourse(Student student, int offeringID) {
+        RegistrationEvent event = new RegistrationEvent();
+        event.begin();
+        long startedAt = System.nanoTime();
+        RegistrationResult result = attemptRegistration(student, offeringID, startedAt);
+        metrics.request(result.getOutcome(), startedAt);
+        event.record(student.getUserID(), offeringID, result.getOutcome().getCode());
+        return result;
+    }
+
+    private RegistrationResult attemptRegistration(Student student, int offeringID, long startedAt) {
         CourseOffering offering = courseService.findOfferingById(offeringID);
+        metrics.stage(RegistrationMetrics.Stage.LOOKUP, startedAt);
 
         if (offering == null) {
-            return new RegistrationResult(false, "Course offering not found.");
+            return new RegistrationResult(RegistrationOutcome.OFFERING_NOT_FOUND, "Course offering not found.");
         }
 
-        // Check prerequisites
-        if (!courseService.checkPrerequisites(student, offering.getCourse())) {
-            sendNotification(student, "Registration failed: Prerequisites not met for " +
+        // Seats freed by drops belong to the waitlist; newcomers cannot jump the queue
+        if (!offering.getWaitlist().isEmpty()) {
+            sendNotification(student, "Registration failed: No capacity available for " +
                     offering.getCourse().getTitle());
-            return new RegistrationResult(false, "Prerequisites not met.");
+            return new RegistrationResult(RegistrationOutcome.NO_CAPACITY, NO_CAPACITY);
         }
 
-        // Check capacity
-        if (!offering.checkAvailability()) {
-            sendNotification(student, "Registration failed: No capacity available for " +
-                    offering.getCourse().getTitle());
-            return new RegistrationResult(false, "No capacity available.");
+        RegistrationResult result = register(student, offering, true);
+        if (result.isSuccess()) {
+            sendNotification(student, "Successfully registered for " + offering.getCourse().getTitle());
+        } else if (!offering.getWaitlist().isEmpty()) {
+            // Someone may have queued while a released seat looked taken, as in checkout
+            promoteFromWaitlist(offering);
         }
+        return result;
+    }
 
-        // Check schedule conflicts
-        if (courseService.checkScheduleConflict(student, offering)) {
-            sendNotification(student, "Registration failed: Schedule conflict for " +
-                    offering.getCourse().getTitle());
-            return new RegistrationResult(false, "Schedule conflict.");
+    private RegistrationResult register(Student student, CourseOffering offering, boolean notifyFailure) {
+        // Per-student lock: different students never contend with each other,
+        // seat accounting on the offering itself is lock-free
+        CompletableFuture<Boolean> written;
+        synchronized (student) {
+            // Check prerequisites
+            long stageStart = System.nanoTime();
+            boolean prerequisitesMet = courseService.checkPrerequisites(student, offering.getCourse());
+            stageStart = metrics.stage(RegistrationMetrics.Stage.PREREQUISITES, stageStart);
+            if (!prerequisitesMet) {
+                if (notifyFailure) {
+                    sendNotification(student, "Registration failed: Prerequisites not met for " +
+                            offering.getCourse().getTitle());
+                }
+                return new RegistrationResult(RegistrationOutcome.PREREQUISITES_NOT_MET, "Prerequisites not met.");
+            }
+
+            // Reserve a seat up front; the reservation is released if a later check fails
+            boolean seatReserved = offering.tryReserveSeat();
+            stageStart = metrics.stage(RegistrationMetrics.Stage.CAPACITY, stageStart);
+            if (!seatReserved) {
+                if (notifyFailure) {
+                    sendNotification(student, "Registration failed: No capacity available for " +
+                            offering.getCourse().getTitle());
+                }
+                return new RegistrationResult(RegistrationOutcome.NO_CAPACITY, NO_CAPACITY);
+            }
+
+            // Check schedule conflicts
+            boolean conflict = courseService.checkScheduleConflict(student, offering);
+            stageStart = metrics.stage(RegistrationMetrics.Stage.CONFLICT, stageStart);
+            if (conflict) {
+                offering.releaseSeat();
+                if (notifyFailure) {
+                    sendNotification(student, "Registration failed: Schedule conflict for " +
+                            offering.getCourse().getTitle());
+                }
+                return new RegistrationResult(RegistrationOutcome.SCHEDULE_CONFLICT, "Schedule conflict.");
+            }
+
+            // The store holds the only copy; student and roster share the same view
+            Registration registration = registrationStore.create(student, offering, "registered");
+
+            offering.commitSeat();
+            offering.addToRoster(registration);
+            student.addRegistration(registration);
+            student.getOccupancy().add(offering.getSchedule());
+            student.getTranscript().markInProgress(offering.getCourse());
+            written = persist(registration);
+            metrics.stage(RegistrationMetrics.Stage.COMMIT, stageStart);
         }
+        awaitDurable(written);
+        return new RegistrationResult(RegistrationOutcome.SUCCESS, "Registration successful!");
+    }
 
-        // Create registration
-        Registration registration = new Registration(
-                allRegistrations.size() + 1,
-                student,
-                offering,
-                "registered"
-        );
+    /**
+     * Register for a whole cart of offerings at once: every item is registered or none is.
+     * All items are checked together under one hold of the student's lock, including
+     * against each other, and a course in the cart counts as held for the prerequisites
+     * of the others, just as if they were registered one after another. Seats are then
+     * claimed in ascending offering ID order and given back if any claim fails, so two
+     * carts wanting the same offerings always meet on the same one first.
+     * @param student The student checking out
+     * @param offeringIDs The offerings in the cart
+     * @return One result per distinct offering ID, in cart order
+     */
+    public CheckoutResult checkout(Student student, Collection<Integer> offeringIDs) {
+        long startedAt = System.nanoTime();
+        // Cart order for reporting; a null result means the item is still undecided
+        Map<Integer, RegistrationResult> results = new LinkedHashMap<>();
+        List<CourseOffering> cart = new ArrayList<>();
+        boolean failed = false;
+        for (int offeringID : new LinkedHashSet<>(offeringIDs)) {
+            CourseOffering offering = courseService.findOfferingById(offeringID);
+            if (offering == null) {
+                results.put(offeringID, new RegistrationResult(RegistrationOutcome.OFFERING_NOT_FOUND,
+                        "Course offering not found."));
+                failed = true;
+            } else if (!offering.getWaitlist().isEmpty()) {
+                // Seats freed by drops belong to the waitlist, as in registerCourse
+                results.put(offeringID, new RegistrationResult(RegistrationOutcome.NO_CAPACITY, NO_CAPACITY));
+                failed = true;
+            } else {
+                results.put(offeringID, null);
+                cart.add(offering);
+            }
+        }
+        cart.sort(Comparator.comparingInt(CourseOffering::getOfferingID));
+        long stageStart = metrics.stage(RegistrationMetrics.Stage.LOOKUP, startedAt);
 
-        allRegistrations.add(registration);
-        offering.addRegistration(registration);
-        student.registerCourse(offering);
+        // Every item is queued under one lock hold, so they usually share a single group commit
+        List<CompletableFuture<Boolean>> written = new ArrayList<>(cart.size());
+        synchronized (student) {
+            if (!failed) {
+                failed = !checkCartPrerequisites(student, cart, results);
+                stageStart = metrics.stage(RegistrationMetrics.Stage.PREREQUISITES, stageStart);
+            }
+            if (!failed) {
+                failed = !checkCartConflicts(student, cart, results);
+                stageStart = metrics.stage(RegistrationMetrics.Stage.CONFLICT, stageStart);
+            }
+            if (!failed) {
+                failed = !reserveCartSeats(cart, results);
+                stageStart = metrics.stage(RegistrationMetrics.Stage.CAPACITY, stageStart);
+            }
+            if (!failed) {
+                for (CourseOffering offering : cart) {
+                    Registration registration = registrationStore.create(student, offering, "registered");
+                    offering.commitSeat();
+                    offering.addToRoster(registration);
+                    student.addRegistration(registration);
+                    student.getOccupancy().add(offering.getSchedule());
+                    student.getTranscript().markInProgress(offering.getCourse());
+                    written.add(persist(registration));
+                    results.put(offering.getOfferingID(),
+                            new RegistrationResult(RegistrationOutcome.SUCCESS, "Registration successful!"));
+                }
+                metrics.stage(RegistrationMetrics.Stage.COMMIT, stageStart);
+            }
+        }
+        for (CompletableFuture<Boolean> write : written) {
+            awaitDurable(write);
+        }
 
-        sendNotification(student, "Successfully registered for " + offering.getCourse().getTitle());
-        return new RegistrationResult(true, "Registration successful!");
+        StringBuilder titles = new StringBuilder();
+        for (CourseOffering offering : cart) {
+            if (results.get(offering.getOfferingID()) == null) {
+                results.put(offering.getOfferingID(), new RegistrationResult(RegistrationOutcome.CANCELLED,
+                        "Not registered because another course in the cart could not be."));
+            }
+            titles.append(titles.length() == 0 ? "" : ", ").append(offering.getCourse().getTitle());
+        }
+        for (RegistrationResult result : results.values()) {
+            metrics.outcome(result.getOutcome());
+        }
+        if (!failed) {
+            sendNotification(student, "Successfully registered for " + titles);
+        } else if (!cart.isEmpty()) {
+            sendNotification(student, "Checkout failed: no courses were registered");
+            // Someone may have queued while a rolled-back seat looked taken; promotion locks
+            // other students, so it runs after this student's lock is released
+            for (CourseOffering offering : cart) {
+                if (!offering.getWaitlist().isEmpty()) {
+                    promoteFromWaitlist(offering);
+                }
+            }
+        }
+        return new CheckoutResult(!failed && !results.isEmpty(), results);
+    }
+
+    /**
+     * Already registered, another section of the same course in the cart, or missing prerequisites.
+     * Cart courses are marked in progress while checking, then unmarked; the commit marks them for good.
+     */
+    private boolean checkCartPrerequisites(Student student, List<CourseOffering> cart,
+                                           Map<Integer, RegistrationResult> results) {
+        boolean ok = true;
+        List<Course> courses = new ArrayList<>();
+        for (CourseOffering offering : cart) {
+            if (offering.isOnRoster(student)) {
+                results.put(offering.getOfferingID(), new RegistrationResult(RegistrationOutcome.ALREADY_REGISTERED,
+                        "Already registered for this course."));
+                ok = false;
+            } else if (courses.contains(offering.getCourse())) {
+                results.put(offering.getOfferingID(), new RegistrationResult(RegistrationOutcome.ALREADY_REGISTERED,
+                        "Another section of this course is in the cart."));
+                ok = false;
+            } else {
+                courses.add(offering.getCourse());
+            }
+        }
+        if (!ok) {
+            return false;
+        }
+
+        Transcript transcript = student.getTranscript();
+        List<Course> marked = new ArrayList<>();
+        for (Course course : courses) {
+            if (!transcript.isInProgress(course)) {
+                transcript.markInProgress(course);
+                marked.add(course);
+            }
+        }
+        try {
+            for (CourseOffering offering : cart) {
+                if (!courseService.checkPrerequisites(student, offering.getCourse())) {
+                    results.put(offering.getOfferingID(), new RegistrationResult(
+                            RegistrationOutcome.PREREQUISITES_NOT_MET, "Prerequisites not met."));
+                    ok = false;
+                }
+            }
+        } finally {
+            for (Course course : marked) {
+                transcript.clearInProgress(course);
+            }
+        }
+        return ok;
+    }
+
+    /**
+     * Clashes with the student's timetable or with another item in the cart
+     */
+    private boolean checkCartConflicts(Student student, List<CourseOffering> cart,
+                                       Map<Integer, RegistrationResult> results) {
+        boolean ok = true;
+        WeeklyOccupancy cartOccupancy = new WeeklyOccupancy();
+        for (CourseOffering offering : cart) {
+            if (courseService.checkScheduleConflict(student, offering)) {
+                results.put(offering.getOfferingID(), new RegistrationResult(RegistrationOutcome.SCHEDULE_CONFLICT,
+                        "Schedule conflict."));
+                ok = false;
+            } else if (cartOccupancy.conflictsWith(offering.getSchedule())) {
+                results.put(offering.getOfferingID(), new RegistrationResult(RegistrationOutcome.SCHEDULE_CONFLICT,
+                        "Schedule conflict with another course in the cart."));
+                ok = false;
+            } else {
+                cartOccupancy.add(offering.getSchedule());
+            }
+        }
+        return ok;
+    }
+
+    /**
+     * Claim one seat per item in cart order (ascending offering ID); on the first full
+     * offering, give back every seat claimed so far
+     */
+    private boolean reserveCartSeats(List<CourseOffering> cart, Map<Integer, RegistrationResult> results) {
+        for (int i = 0; i < cart.size(); i++) {
+            CourseOffering offering = cart.get(i);
+            if (!offering.tryReserveSeat()) {
+                for (int j = i - 1; j >= 0; j--) {
+                    cart.get(j).releaseSeat();
+                }
+                results.put(offering.getOfferingID(), new RegistrationResult(RegistrationOutcome.NO_CAPACITY,
+                        NO_CAPACITY));
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Queue a student for a full offering instead of retrying registerCourse
+     * The student is registered automatically when a seat frees up
+     * @param student The student to queue
+     * @param offeringID The offering to wait for
+     * @return Registration result if a seat was free, otherwise the waitlist position
+     */
+    public RegistrationResult joinWaitlist(Student student, int offeringID) {
+        CourseOffering offering = courseService.findOfferingById(offeringID);
+        if (offering != null && offering.getWaitlist().isEmpty() && offering.checkAvailability() &&
+                !offering.isOnRoster(student)) {
+            // Counted by registerCourse itself
+            return registerCourse(student, offeringID);
+        }
+        RegistrationResult result = queue(student, offering);
+        metrics.outcome(result.getOutcome());
+        return result;
+    }
+
+    private RegistrationResult queue(Student student, CourseOffering offering) {
+        if (offering == null) {
+            return new RegistrationResult(RegistrationOutcome.OFFERING_NOT_FOUND, "Course offering not found.");
+        }
+        if (offering.isOnRoster(student)) {
+            return new RegistrationResult(RegistrationOutcome.ALREADY_REGISTERED,
+                    "Already registered for this course.");
+        }
+        // Fail fast on checks that a free seat would not change; the transcript and
+        // weekly occupancy are only safe to read under the student's lock
+        synchronized (student) {
+            if (!courseService.checkPrerequisites(student, offering.getCourse())) {
+                return new RegistrationResult(RegistrationOutcome.PREREQUISITES_NOT_MET, "Prerequisites not met.");
+            }
+            if (courseService.checkScheduleConflict(student, offering)) {
+                return new RegistrationResult(RegistrationOutcome.SCHEDULE_CONFLICT, "Schedule conflict.");
+            }
+        }
+
+        int position = offering.getWaitlist().add(student);
+        if (position < 0) {
+            return new RegistrationResult(RegistrationOutcome.ALREADY_WAITLISTED,
+                    "Already on the waitlist at position " + offering.getWaitlist().getPosition(student) + ".");
+        }
+        sendNotification(student, "Added to the waitlist for " + offering.getCourse().getTitle() +
+                " at position " + position);
+        // A seat may have been freed while we were queueing
+        promoteFromWaitlist(offering);
+        return new RegistrationResult(RegistrationOutcome.WAITLISTED,
+                "Course is full. Added to the waitlist at position " + position + ".");
+    }
+
+    public boolean leaveWaitlist(Student student, int offeringID) {
+        CourseOffering offering = courseService.findOfferingById(offeringID);
+        return offering != null && offering.getWaitlist().remove(student);
+    }
+
+    // Fill free seats from the head of the waitlist, re-running every check for each candidate
+    private void promoteFromWaitlist(CourseOffering offering) {
+        Waitlist waitlist = offering.getWaitlist();
+        while (offering.checkAvailability()) {
+            Waitlist.Entry entry = waitlist.poll();
+            if (entry == null) {
+                return;
+            }
+            Student student = entry.getStudent();
+            RegistrationResult result = register(student, offering, false);
+            if (result.isSuccess()) {
+                sendNotification(student, "A seat opened up: you are now registered for " +
+                        offering.getCourse().getTitle());
+            } else if (result.getOutcome() == RegistrationOutcome.NO_CAPACITY) {
+                // The seat went to someone else first; keep our place in line
+                waitlist.requeue(entry);
+                return;
+            } else {
+                sendNotification(student, "Removed from the waitlist for " + offering.getCourse().getTitle() +
+                        ": " + result.getMessage());
+            }
+        }
     }
 
     public boolean dropCourse(Student student, int registrationID) {
-        for (Registration reg : student.getRegistrations()) {
-            if (reg.getRegistrationID() == registrationID) {
-                reg.setStatus("dropped");
-                reg.getCourseOffering().decreaseEnrollment();
-                sendNotification(student, "Successfully dropped " +
-                        reg.getCourseOffering().getCourse().getTitle());
+        DropEvent event = new DropEvent();
+        event.begin();
+        Registration reg = findOwnRegistration(student, registrationID);
+        boolean dropped = reg != null && drop(student, reg);
+        event.record(student.getUserID(), registrationID, reg == null ? -1 : reg.getOfferingID(), dropped);
+        return dropped;
+    }
+
+    private boolean drop(Student student, Registration reg) {
+        CourseOffering offering = reg.getCourseOffering();
+        CompletableFuture<Boolean> written;
+        synchronized (student) {
+            if (!reg.changeStatus("registered", "dropped")) {
+                return false;
+            }
+            offering.removeFromRoster(reg);
+            offering.releaseEnrollment();
+            student.getOccupancy().remove(offering.getSchedule());
+            if (!isTakingCourse(student, offering.getCourse())) {
+                student.getTranscript().clearInProgress(offering.getCourse());
+            }
+            written = persist(reg);
+        }
+        awaitDurable(written);
+        sendNotification(student, "Successfully dropped " + offering.getCourse().getTitle());
+        // Promote outside the dropping student's lock; promotion locks the promoted student
+        promoteFromWaitlist(offering);
+        return true;
+    }
+
+    // Another section of the same course may still be registered; call under the student's lock
+    private static boolean isTakingCourse(Student student, Course course) {
+        for (Registration registration : student.getRegistrations()) {
+            if (registration.getCourseOffering().getCourse() == course
+                    && registration.getStatus().equals("registered")) {
                 return true;
             }
         }
         return false;
     }
 
+    /**
+     * Mark a registration as completed at the end of the term
+     * The course moves from in-progress to completed on the student's transcript
+     * @param student The student who took the course
+     * @param registrationID The registration to complete
+     * @return true if the registration was found and was still active
+     */
+    public boolean completeCourse(Student student, int registrationID) {
+        Registration reg = findOwnRegistration(student, registrationID);
+        if (reg == null) {
+            return false;
+        }
+        CourseOffering offering = reg.getCourseOffering();
+        CompletableFuture<Boolean> written;
+        synchronized (student) {
+            if (!reg.changeStatus("registered", "completed")) {
+                return false;
+            }
+            offering.removeFromRoster(reg);
+            student.getOccupancy().remove(offering.getSchedule());
+            student.getTranscript().markCompleted(offering.getCourse());
+            written = persist(reg);
+        }
+        awaitDurable(written);
+        return true;
+    }
+
+    // Direct lookup in the store instead of scanning the student's registrations
+    private Registration findOwnRegistration(Student student, int registrationID) {
+        Registration reg = registrationStore.get(registrationID);
+        if (reg == null || reg.getStudentID() != student.getUserID()) {
+            return null;
+        }
+        return reg;
+    }
+
+    public RegistrationStore getRegistrationStore() {
+        return registrationStore;
+    }
+
     public boolean submitSpecialRequest(Student student, int offeringID, String reason) {
+        SpecialRequestEvent event = new SpecialRequestEvent();
+        event.begin();
+        SpecialRequest request = createSpecialRequest(student, offeringID, reason);
+        event.record(student.getUserID(), offeringID, request == null ? -1 : request.getRequestID(), request != null);
+        return request != null;
+    }
+
+    private SpecialRequest createSpecialRequest(Student student, int offeringID, String reason) {
         CourseOffering offering = courseService.findOfferingById(offeringID);
-        if (offering == null) return false;
+        if (offering == null) return null;
 
         SpecialRequest request = new SpecialRequest(
-                specialRequests.size() + 1,
+                nextRequestID.incrementAndGet(),
                 student,
                 offering,
                 reason,
@@ -87,69 +577,134 @@ public class RegistrationService {
         );
 
         specialRequests.add(request);
-        offering.getInstructor().addSpecialRequest(request);
-        student.submitSpecialRequest(offering, reason);
+        synchronized (offering.getInstructor()) {
+            offering.getInstructor().addSpecialRequest(request);
+        }
+        synchronized (student) {
+            student.addSpecialRequest(request);
+        }
+        if (registrationRepository != null) {
+            registrationRepository.saveSpecialRequest(request);
+        }
 
         sendNotification(student, "Special request submitted for " + offering.getCourse().getTitle());
         sendNotification(offering.getInstructor(), "New special request from " + student.getName());
 
-        return true;
+        return request;
+    }
+
+    /**
+     * Approve or reject a pending special request on behalf of its instructor
+     * @param instructor The instructor processing the request
+     * @param requestID The request to process
+     * @param approve true to approve, false to reject
+     * @return true if the request was found among the instructor's requests
+     */
+    public boolean processSpecialRequest(Instructor instructor, int requestID, boolean approve) {
+        synchronized (instructor) {
+            for (SpecialRequest request : instructor.getPendingRequests()) {
+                if (request.getRequestID() == requestID) {
+                    if (approve) {
+                        instructor.approveRequest(requestID);
+                    } else {
+                        instructor.rejectRequest(requestID);
+                    }
+                    if (registrationRepository != null) {
+                        registrationRepository.saveSpecialRequest(request);
+                    }
+                    sendNotification(request.getStudent(), "Your special request for " +
+                            request.getCourseOffering().getCourse().getTitle() + " was " + request.getStatus());
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Write out everything still buffered and stop background threads
+     */
+    public void shutdown() {
+        notificationDispatcher.shutdown();
+        if (registrationRepository != null) {
+            registrationRepository.close();
+        }
     }
 
     private void sendNotification(User user, String message) {
-        Notification notification = new Notification(
-                notifications.size() + 1,
-                user,
-                message
-        );
-        notifications.add(notification);
-        notification.showNotification();
+        notificationDispatcher.send(user, message);
     }
 
+    /**
+     * Get a user's notifications from their inbox
+     * Cost depends only on the size of this user's inbox
+     * @param user The recipient
+     * @return The user's notifications, oldest first
+     */
     public List<Notification> getUserNotifications(User user) {
-        List<Notification> userNotifications = new ArrayList<>();
-        for (Notification notification : notifications) {
-            if (notification.getUser().getUserID() == user.getUserID()) {
-                userNotifications.add(notification);
-            }
-        }
-        return userNotifications;
+        return notificationDispatcher.getNotifications(user);
+    }
+
+    public int getUnreadNotificationCount(User user) {
+        return notificationDispatcher.getUnreadCount(user);
+    }
+
+    public void markNotificationsRead(User user) {
+        notificationDispatcher.markAllRead(user);
+    }
+
+    public NotificationDispatcher getNotificationDispatcher() {
+        return notificationDispatcher;
+    }
+
+    public RegistrationMetrics getMetrics() {
+        return metrics;
     }
 
     // Helper class for registration results
     public static class RegistrationResult {
-        private boolean success;
+        private RegistrationOutcome outcome;
         private String message;
 
-        public RegistrationResult(boolean success, String message) {
-            this.success = success;
+        public RegistrationResult(RegistrationOutcome outcome, String message) {
+            this.outcome = outcome;
             this.message = message;
         }
 
-        public boolean isSuccess() { return success; }
+        public boolean isSuccess() { return outcome == RegistrationOutcome.SUCCESS; }
+        public RegistrationOutcome getOutcome() { return outcome; }
         public String getMessage() { return message; }
     }
 
+    /**
+     * Outcome of a cart checkout: all items registered, or none
+     */
+    public static class CheckoutResult {
+        private final boolean success;
+        private final Map<Integer, RegistrationResult> results;
+
+        CheckoutResult(boolean success, Map<Integer, RegistrationResult> results) {
+            this.success = success;
+            this.results = Collections.unmodifiableMap(results);
+        }
+
+        public boolean isSuccess() { return success; }
+        /** @return Result per offering ID, in cart order */
+        public Map<Integer, RegistrationResult> getResults() { return results; }
+    }
+
     /**
      * Get all students registered in a specific course offering
-     * This method queries all registrations and returns students
-     * who are successfully registered in the given course
+     * Reads the offering's live roster, so the cost depends only on the roster size
      * @param offeringID The ID of the course offering to check
      * @return List of Student objects registered in the course
      */
     public List<Student> getStudentsInCourse(int offeringID) {
-        List<Student> students = new ArrayList<>();
-
-        // Loop through all registrations in the system
-        for (Registration reg : allRegistrations) {
-            // Check if registration is for the requested course AND status is registered
-            if (reg.getCourseOffering().getOfferingID() == offeringID &&
-                    reg.getStatus().equals("registered")) {
-                students.add(reg.getStudent());
-            }
+        CourseOffering offering = courseService.findOfferingById(offeringID);
+        if (offering == null) {
+            return new ArrayList<>();
         }
-
-        return students;
+        return offering.getRosterStudents();
     }
 
     /**
@@ -159,11 +714,6 @@ public class RegistrationService {
      * @return CourseOffering object or null if not found
      */
     public CourseOffering getCourseOffering(int offeringID) {
-        for (CourseOffering offering : courseService.getCourseOfferings()) {
-            if (offering.getOfferingID() == offeringID) {
-                return offering;
-            }
-        }
-        return null;
+        return courseService.findOfferingById(offeringID);
     }
 }
\ No newline at end of file
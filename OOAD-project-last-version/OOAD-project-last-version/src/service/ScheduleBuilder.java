@@ -0,0 +1,567 @@
+package service;
+
+import model.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.PriorityQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Builds conflict-free timetables from a wishlist of course codes.
+ *
+ * Each wished course contributes one of its sections or is left out. The sections
+ * of every course are numbered and kept as a bitmask, and a precomputed table says
+ * which sections of each later course are compatible with a given section. Choosing
+ * a section therefore ANDs the remaining courses' masks, so conflicting branches
+ * are never entered. Timetables are ranked by credits (highest first, within the
+ * credit limit) and then by the SchedulePreferences penalty. A branch is cut as soon
+ * as it can no longer beat the worst of the top results kept so far.
+ *
+ * The first levels of the search are split into fork-join tasks; the rest runs
+ * sequentially inside each task. The search stops at the time budget and returns
+ * the best timetables found until then.
+ */
+public class ScheduleBuilder {
+    public static final long DEFAULT_BUDGET_MILLIS = 250;
+    private static final int TASKS_PER_THREAD = 16;
+    private static final int DEADLINE_CHECK_INTERVAL = 1 << 10;
+
+    private final CourseService courseService;
+    private final ForkJoinPool pool;
+
+    public ScheduleBuilder(CourseService courseService) {
+        this(courseService, ForkJoinPool.commonPool());
+    }
+
+    public ScheduleBuilder(CourseService courseService, ForkJoinPool pool) {
+        this.courseService = courseService;
+        this.pool = pool;
+    }
+
+    /**
+     * Find the best timetables for a wishlist
+     * @param courseCodes Courses the student would like to take
+     * @param student Whose current registrations stay fixed, or null to start from an empty week
+     * @param rules Supplies the credit limit, which includes credits already registered
+     * @param preferences Ranking wishes, or SchedulePreferences.NONE
+     * @param limit Maximum number of timetables to return
+     * @param budgetMillis How long the search may run
+     */
+    public Result build(Collection<String> courseCodes, Student student, RegistrationRules rules,
+                        SchedulePreferences preferences, int limit, long budgetMillis) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Limit must be positive");
+        }
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(budgetMillis);
+        List<String> notes = new ArrayList<>();
+
+        List<Course> wished = new ArrayList<>();
+        for (String code : new LinkedHashSet<>(courseCodes)) {
+            String trimmed = code.trim();
+            Course course = courseService.findCourseByCode(trimmed);
+            if (course == null) {
+                course = courseService.findCourseByCode(trimmed.toUpperCase(Locale.ROOT));
+            }
+            if (course == null) {
+                notes.add(trimmed + ": not in the catalog");
+            } else if (!wished.contains(course)) {
+                wished.add(course);
+            }
+        }
+
+        List<Schedule> fixed = new ArrayList<>();
+        List<CourseOffering[]> sectionsByCourse = new ArrayList<>();
+        int registeredCredits = 0;
+        Object guard = student != null ? student : new Object();
+        synchronized (guard) {
+            List<Course> registeredCourses = new ArrayList<>();
+            if (student != null) {
+                for (Registration registration : student.getRegistrations()) {
+                    if (registration.getStatus().equals("registered")) {
+                        CourseOffering offering = registration.getCourseOffering();
+                        fixed.add(offering.getSchedule());
+                        registeredCourses.add(offering.getCourse());
+                        registeredCredits += offering.getCourse().getCredits();
+                    }
+                }
+            }
+            int available = rules.getMaxCredits() - registeredCredits;
+            for (Course course : wished) {
+                if (registeredCourses.contains(course)) {
+                    notes.add(course.getCourseCode() + ": already registered");
+                    continue;
+                }
+                if (course.getCredits() > available) {
+                    notes.add(course.getCourseCode() + ": would exceed the credit limit");
+                    continue;
+                }
+                List<CourseOffering> fitting = new ArrayList<>();
+                for (CourseOffering offering : new ArrayList<>(course.getOfferings())) {
+                    if (preferences.isOpenSeatsOnly() && !offering.checkAvailability()) {
+                        continue;
+                    }
+                    if (student != null && student.getOccupancy().conflictsWith(offering.getSchedule())) {
+                        continue;
+                    }
+                    fitting.add(offering);
+                }
+                if (fitting.isEmpty()) {
+                    notes.add(course.getCourseCode() + ": no section fits");
+                    continue;
+                }
+                sectionsByCourse.add(fitting.toArray(new CourseOffering[0]));
+            }
+        }
+        if (sectionsByCourse.isEmpty()) {
+            return new Result(Collections.emptyList(), true, notes);
+        }
+
+        Search search = new Search(sectionsByCourse, fixed, rules.getMaxCredits() - registeredCredits,
+                preferences, limit, deadline);
+        pool.invoke(search.rootTask());
+        return new Result(search.results(), !search.timedOut, notes);
+    }
+
+    /**
+     * One search over fixed inputs; shared by all of its fork-join tasks
+     */
+    private final class Search {
+        private final int courseCount;
+        private final CourseOffering[][] sections;
+        private final int[] credits;
+        private final int[] words;
+        // compatible[c][s][later]: sections of a later course that do not clash with section s of course c
+        private final long[][][][] compatible;
+        private final int[][] earlyMinutes;
+        private final int[][] dayMasks;
+        private final int fixedDayMask;
+        private final List<Schedule> fixed;
+        private final int availableCredits;
+        private final SchedulePreferences preferences;
+        private final int limit;
+        private final long deadline;
+        private final int splitDepth;
+
+        private final PriorityQueue<Timetable> best;
+        // Key of the worst kept timetable once the top list is full; branches must beat it
+        private volatile long worstKey = Long.MIN_VALUE;
+        private volatile boolean timedOut;
+
+        Search(List<CourseOffering[]> sectionsByCourse, List<Schedule> fixed, int availableCredits,
+               SchedulePreferences preferences, int limit, long deadline) {
+            this.fixed = fixed;
+            this.availableCredits = availableCredits;
+            this.preferences = preferences;
+            // Fewest sections first: the top levels branch least and prune the most.
+            // Within a course, sections with the lowest penalty of their own come first,
+            // so good timetables are found early and raise the bar for the rest.
+            List<CourseOffering[]> ordered = new ArrayList<>(sectionsByCourse);
+            ordered.sort(Comparator.comparingInt(courseSections -> courseSections.length));
+            this.courseCount = ordered.size();
+            this.sections = ordered.toArray(new CourseOffering[0][]);
+            for (CourseOffering[] courseSections : sections) {
+                Arrays.sort(courseSections, Comparator.comparingInt(offering -> ownPenalty(offering.getSchedule())));
+            }
+            this.limit = limit;
+            this.deadline = deadline;
+            this.best = new PriorityQueue<>(limit + 1, Comparator.comparingLong(timetable -> timetable.key));
+
+            credits = new int[courseCount];
+            words = new int[courseCount];
+            earlyMinutes = new int[courseCount][];
+            dayMasks = new int[courseCount][];
+            for (int c = 0; c < courseCount; c++) {
+                credits[c] = sections[c][0].getCourse().getCredits();
+                words[c] = (sections[c].length + 63) >>> 6;
+                earlyMinutes[c] = new int[sections[c].length];
+                dayMasks[c] = new int[sections[c].length];
+                for (int s = 0; s < sections[c].length; s++) {
+                    earlyMinutes[c][s] = earlyMinutes(sections[c][s].getSchedule());
+                    dayMasks[c][s] = sections[c][s].getSchedule().getDayMask();
+                }
+            }
+            int fixedDays = 0;
+            for (Schedule schedule : fixed) {
+                fixedDays |= schedule.getDayMask();
+            }
+            this.fixedDayMask = fixedDays;
+
+            compatible = new long[courseCount][][][];
+            for (int c = 0; c < courseCount; c++) {
+                compatible[c] = new long[sections[c].length][courseCount][];
+                for (int s = 0; s < sections[c].length; s++) {
+                    Schedule schedule = sections[c][s].getSchedule();
+                    for (int later = c + 1; later < courseCount; later++) {
+                        long[] mask = new long[words[later]];
+                        for (int other = 0; other < sections[later].length; other++) {
+                            if (!schedule.conflictsWith(sections[later][other].getSchedule())) {
+                                mask[other >>> 6] |= 1L << other;
+                            }
+                        }
+                        compatible[c][s][later] = mask;
+                    }
+                }
+            }
+
+            long branches = 1;
+            int depth = 0;
+            while (depth < courseCount && branches < (long) pool.getParallelism() * TASKS_PER_THREAD) {
+                branches *= sections[depth].length + 1;
+                depth++;
+            }
+            this.splitDepth = depth;
+        }
+
+        RecursiveAction rootTask() {
+            long[][] domains = new long[courseCount][];
+            for (int c = 0; c < courseCount; c++) {
+                domains[c] = new long[words[c]];
+                for (int s = 0; s < sections[c].length; s++) {
+                    domains[c][s >>> 6] |= 1L << s;
+                }
+            }
+            int[] chosen = new int[courseCount];
+            return new SearchTask(this, 0, chosen, domains, 0, 0, fixedDayMask);
+        }
+
+        /**
+         * Most credits still reachable from a node: the chosen ones plus every
+         * remaining course that has a compatible section left
+         */
+        int creditBound(int depth, long[][] domains, int chosenCredits) {
+            int bound = chosenCredits;
+            for (int c = depth; c < courseCount; c++) {
+                if (!isEmpty(domains[c])) {
+                    bound += credits[c];
+                }
+            }
+            return Math.min(bound, availableCredits);
+        }
+
+        /**
+         * Early-morning minutes and days on campus only grow as sections are added,
+         * so they bound the final penalty from below; idle time can still shrink
+         */
+        boolean canBeat(int creditBound, int early, int dayMask) {
+            int penaltyBound = early + (preferences.isFewerDays()
+                    ? Integer.bitCount(dayMask) * SchedulePreferences.DAY_PENALTY_MINUTES : 0);
+            return key(creditBound, penaltyBound) > worstKey;
+        }
+
+        boolean pastDeadline() {
+            if (!timedOut && System.nanoTime() - deadline > 0) {
+                timedOut = true;
+            }
+            return timedOut;
+        }
+
+        void offer(int[] chosen, int chosenCredits, int early, int[] first, int[] last, int[] busy) {
+            if (chosenCredits == 0) {
+                return;
+            }
+            Arrays.fill(first, Integer.MAX_VALUE);
+            Arrays.fill(last, Integer.MIN_VALUE);
+            Arrays.fill(busy, 0);
+            for (int c = 0; c < courseCount; c++) {
+                if (chosen[c] >= 0) {
+                    occupy(sections[c][chosen[c]].getSchedule(), first, last, busy);
+                }
+            }
+            for (Schedule schedule : fixed) {
+                occupy(schedule, first, last, busy);
+            }
+            int idle = 0;
+            int days = 0;
+            for (int day = 0; day < 7; day++) {
+                if (busy[day] > 0) {
+                    days++;
+                    idle += last[day] - first[day] - busy[day];
+                }
+            }
+            int penalty = early
+                    + (preferences.isCompactDays() ? idle : 0)
+                    + (preferences.isFewerDays() ? days * SchedulePreferences.DAY_PENALTY_MINUTES : 0);
+            long key = key(chosenCredits, penalty);
+            if (key <= worstKey) {
+                return;
+            }
+            List<CourseOffering> picked = new ArrayList<>(courseCount);
+            for (int c = 0; c < courseCount; c++) {
+                if (chosen[c] >= 0) {
+                    picked.add(sections[c][chosen[c]]);
+                }
+            }
+            picked.sort(Comparator.comparing(offering -> offering.getCourse().getCourseCode()));
+            Timetable timetable = new Timetable(picked, chosenCredits, penalty, early, idle, days, key);
+            synchronized (best) {
+                if (best.size() == limit) {
+                    if (key <= best.peek().key) {
+                        return;
+                    }
+                    best.poll();
+                }
+                best.add(timetable);
+                if (best.size() == limit) {
+                    worstKey = best.peek().key;
+                }
+            }
+        }
+
+        List<Timetable> results() {
+            List<Timetable> results;
+            synchronized (best) {
+                results = new ArrayList<>(best);
+            }
+            results.sort(Comparator.comparingLong((Timetable timetable) -> timetable.key).reversed());
+            return results;
+        }
+
+        private int ownPenalty(Schedule schedule) {
+            return earlyMinutes(schedule) + (preferences.isFewerDays()
+                    ? Integer.bitCount(schedule.getDayMask()) * SchedulePreferences.DAY_PENALTY_MINUTES : 0);
+        }
+
+        private int earlyMinutes(Schedule schedule) {
+            int notBefore = preferences.getNotBeforeMinute();
+            if (notBefore < 0 || !schedule.isParsed() || schedule.getStartMinute() >= notBefore) {
+                return 0;
+            }
+            int perDay = Math.min(schedule.getEndMinute(), notBefore) - schedule.getStartMinute();
+            return perDay * Integer.bitCount(schedule.getDayMask());
+        }
+
+        private void occupy(Schedule schedule, int[] first, int[] last, int[] busy) {
+            if (!schedule.isParsed()) {
+                return;
+            }
+            int mask = schedule.getDayMask();
+            for (int day = 0; day < 7; day++) {
+                if ((mask & (1 << day)) != 0) {
+                    first[day] = Math.min(first[day], schedule.getStartMinute());
+                    last[day] = Math.max(last[day], schedule.getEndMinute());
+                    busy[day] += schedule.getEndMinute() - schedule.getStartMinute();
+                }
+            }
+        }
+    }
+
+    /**
+     * Splits the top levels of the search into one subtask per choice,
+     * then walks its subtree sequentially with preallocated buffers
+     */
+    private static final class SearchTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final Search search;
+        private final int depth;
+        private final int[] chosen;
+        private final long[][] domains;
+        private final int chosenCredits;
+        private final int early;
+        private final int dayMask;
+
+        SearchTask(Search search, int depth, int[] chosen, long[][] domains, int chosenCredits, int early,
+                   int dayMask) {
+            this.search = search;
+            this.depth = depth;
+            this.chosen = chosen;
+            this.domains = domains;
+            this.chosenCredits = chosenCredits;
+            this.early = early;
+            this.dayMask = dayMask;
+        }
+
+        @Override
+        protected void compute() {
+            if (depth >= search.splitDepth || depth == search.courseCount) {
+                new Walker(search).run(depth, chosen, domains, chosenCredits, early, dayMask);
+                return;
+            }
+            if (search.pastDeadline()
+                    || !search.canBeat(search.creditBound(depth, domains, chosenCredits), early, dayMask)) {
+                return;
+            }
+            List<SearchTask> children = new ArrayList<>();
+            int c = depth;
+            if (chosenCredits + search.credits[c] <= search.availableCredits) {
+                long[] domain = domains[c];
+                for (int w = 0; w < domain.length; w++) {
+                    for (long bits = domain[w]; bits != 0; bits &= bits - 1) {
+                        int s = (w << 6) + Long.numberOfTrailingZeros(bits);
+                        long[][] next = new long[search.courseCount][];
+                        for (int later = c + 1; later < search.courseCount; later++) {
+                            next[later] = and(domains[later], search.compatible[c][s][later]);
+                        }
+                        int[] picked = chosen.clone();
+                        picked[c] = s;
+                        children.add(new SearchTask(search, depth + 1, picked, next,
+                                chosenCredits + search.credits[c], early + search.earlyMinutes[c][s],
+                                dayMask | search.dayMasks[c][s]));
+                    }
+                }
+            }
+            int[] skipped = chosen.clone();
+            skipped[c] = -1;
+            children.add(new SearchTask(search, depth + 1, skipped, domains, chosenCredits, early, dayMask));
+            invokeAll(children);
+        }
+    }
+
+    /**
+     * Sequential backtracking below the split depth.
+     * Domains for each depth live in preallocated rows, so descending allocates nothing.
+     */
+    private static final class Walker {
+        private final Search search;
+        private final long[][][] domainsByDepth;
+        private final int[] chosen;
+        private final int[] first = new int[7];
+        private final int[] last = new int[7];
+        private final int[] busy = new int[7];
+        private int visited;
+
+        Walker(Search search) {
+            this.search = search;
+            int count = search.courseCount;
+            domainsByDepth = new long[count + 1][count][];
+            for (int depth = 0; depth <= count; depth++) {
+                for (int c = 0; c < count; c++) {
+                    domainsByDepth[depth][c] = new long[search.words[c]];
+                }
+            }
+            chosen = new int[count];
+        }
+
+        void run(int depth, int[] chosenSoFar, long[][] domains, int chosenCredits, int early, int dayMask) {
+            System.arraycopy(chosenSoFar, 0, chosen, 0, chosen.length);
+            for (int c = depth; c < search.courseCount; c++) {
+                System.arraycopy(domains[c], 0, domainsByDepth[depth][c], 0, domains[c].length);
+            }
+            walk(depth, chosenCredits, early, dayMask);
+        }
+
+        private void walk(int depth, int chosenCredits, int early, int dayMask) {
+            if ((++visited & (DEADLINE_CHECK_INTERVAL - 1)) == 0 ? search.pastDeadline() : search.timedOut) {
+                return;
+            }
+            if (depth == search.courseCount) {
+                search.offer(chosen, chosenCredits, early, first, last, busy);
+                return;
+            }
+            long[][] here = domainsByDepth[depth];
+            if (!search.canBeat(search.creditBound(depth, here, chosenCredits), early, dayMask)) {
+                return;
+            }
+            long[][] next = domainsByDepth[depth + 1];
+            int c = depth;
+            if (chosenCredits + search.credits[c] <= search.availableCredits) {
+                long[] domain = here[c];
+                for (int w = 0; w < domain.length; w++) {
+                    for (long bits = domain[w]; bits != 0; bits &= bits - 1) {
+                        int s = (w << 6) + Long.numberOfTrailingZeros(bits);
+                        long[][] compatible = search.compatible[c][s];
+                        for (int later = c + 1; later < search.courseCount; later++) {
+                            long[] from = here[later];
+                            long[] mask = compatible[later];
+                            long[] into = next[later];
+                            for (int i = 0; i < into.length; i++) {
+                                into[i] = from[i] & mask[i];
+                            }
+                        }
+                        chosen[c] = s;
+                        walk(depth + 1, chosenCredits + search.credits[c], early + search.earlyMinutes[c][s],
+                                dayMask | search.dayMasks[c][s]);
+                    }
+                }
+            }
+            for (int later = c + 1; later < search.courseCount; later++) {
+                System.arraycopy(here[later], 0, next[later], 0, here[later].length);
+            }
+            chosen[c] = -1;
+            walk(depth + 1, chosenCredits, early, dayMask);
+        }
+    }
+
+    /**
+     * Higher is better: credits first, then a lower penalty
+     */
+    private static long key(int credits, int penalty) {
+        return ((long) credits << 32) | (Integer.MAX_VALUE - Math.max(0, penalty));
+    }
+
+    private static boolean isEmpty(long[] words) {
+        for (long word : words) {
+            if (word != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static long[] and(long[] a, long[] b) {
+        long[] result = new long[a.length];
+        for (int i = 0; i < a.length; i++) {
+            result[i] = a[i] & b[i];
+        }
+        return result;
+    }
+
+    /**
+     * One conflict-free combination of sections
+     */
+    public static class Timetable {
+        private final List<CourseOffering> sections;
+        private final int credits;
+        private final int penalty;
+        private final int earlyMinutes;
+        private final int idleMinutes;
+        private final int daysOnCampus;
+        private final long key;
+
+        Timetable(List<CourseOffering> sections, int credits, int penalty, int earlyMinutes, int idleMinutes,
+                  int daysOnCampus, long key) {
+            this.sections = Collections.unmodifiableList(sections);
+            this.credits = credits;
+            this.penalty = penalty;
+            this.earlyMinutes = earlyMinutes;
+            this.idleMinutes = idleMinutes;
+            this.daysOnCampus = daysOnCampus;
+            this.key = key;
+        }
+
+        public List<CourseOffering> getSections() { return sections; }
+        public int getCredits() { return credits; }
+        public int getPenalty() { return penalty; }
+        public int getEarlyMinutes() { return earlyMinutes; }
+        public int getIdleMinutes() { return idleMinutes; }
+        public int getDaysOnCampus() { return daysOnCampus; }
+    }
+
+    /**
+     * Best timetables first, plus why any wished course was left out of the search
+     */
+    public static class Result {
+        private final List<Timetable> timetables;
+        private final boolean complete;
+        private final List<String> notes;
+
+        Result(List<Timetable> timetables, boolean complete, List<String> notes) {
+            this.timetables = Collections.unmodifiableList(timetables);
+            this.complete = complete;
+            this.notes = Collections.unmodifiableList(notes);
+        }
+
+        public List<Timetable> getTimetables() { return timetables; }
+        /** @return false if the time budget ran out before every combination was ruled in or out */
+        public boolean isComplete() { return complete; }
+        public List<String> getNotes() { return notes; }
+    }
+}
@@ -0,0 +1,68 @@
+package service;
+
+import model.Schedule;
+
+/**
+ * How ScheduleBuilder ranks timetables that carry the same number of credits.
+ * Preferences are immutable; each method returns a copy with one more wish,
+ * e.g. SchedulePreferences.NONE.noClassesBefore("10:00").compactDays().
+ *
+ * Every wish is a penalty in minutes and the lowest total wins:
+ * each minute of class before the cut-off, each idle minute between two classes
+ * on the same day, and DAY_PENALTY_MINUTES for every day spent on campus.
+ */
+public final class SchedulePreferences {
+    public static final SchedulePreferences NONE = new SchedulePreferences(-1, false, false, false);
+    static final int DAY_PENALTY_MINUTES = 120;
+
+    private final int notBeforeMinute;
+    private final boolean compactDays;
+    private final boolean fewerDays;
+    private final boolean openSeatsOnly;
+
+    private SchedulePreferences(int notBeforeMinute, boolean compactDays, boolean fewerDays, boolean openSeatsOnly) {
+        this.notBeforeMinute = notBeforeMinute;
+        this.compactDays = compactDays;
+        this.fewerDays = fewerDays;
+        this.openSeatsOnly = openSeatsOnly;
+    }
+
+    /**
+     * Avoid early mornings
+     * @param time "HH:mm"
+     * @throws IllegalArgumentException If the time cannot be read
+     */
+    public SchedulePreferences noClassesBefore(String time) {
+        Schedule probe = new Schedule("Mon", time, "24:00");
+        if (!probe.isParsed()) {
+            throw new IllegalArgumentException("Expected a time like 10:00 but got '" + time + "'");
+        }
+        return new SchedulePreferences(probe.getStartMinute(), compactDays, fewerDays, openSeatsOnly);
+    }
+
+    /**
+     * Avoid idle time between classes on the same day
+     */
+    public SchedulePreferences compactDays() {
+        return new SchedulePreferences(notBeforeMinute, true, fewerDays, openSeatsOnly);
+    }
+
+    /**
+     * Avoid coming to campus on more days than needed
+     */
+    public SchedulePreferences fewerDays() {
+        return new SchedulePreferences(notBeforeMinute, compactDays, true, openSeatsOnly);
+    }
+
+    /**
+     * Only consider sections that still have a free seat (a hard rule, not a penalty)
+     */
+    public SchedulePreferences withOpenSeats() {
+        return new SchedulePreferences(notBeforeMinute, compactDays, fewerDays, true);
+    }
+
+    int getNotBeforeMinute() { return notBeforeMinute; }
+    boolean isCompactDays() { return compactDays; }
+    boolean isFewerDays() { return fewerDays; }
+    boolean isOpenSeatsOnly() { return openSeatsOnly; }
+}
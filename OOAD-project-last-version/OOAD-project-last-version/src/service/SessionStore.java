@@ -0,0 +1,204 @@
+package service;
+
+import model.User;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Logged in sessions, keyed by an opaque random token.
+ * Resolving a token is a single hash lookup; the password is only checked
+ * when the session is opened.
+ *
+ * Idle sessions are expired by a hashed timer wheel. Each session sits in the
+ * slot of the tick it would expire at; a background thread visits one slot
+ * per tick and either drops the session or, if it was used since, moves it to
+ * the slot of its new deadline. Using a session therefore never touches the
+ * wheel, only its last access time.
+ */
+public class SessionStore implements AutoCloseable {
+    public static final long DEFAULT_IDLE_TIMEOUT_MILLIS = 30 * 60 * 1000;
+
+    private static final int WHEEL_SLOTS = 256;
+    private static final int TOKEN_BYTES = 32;
+
+    private final ConcurrentHashMap<String, Session> sessions = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Integer, Set<Session>> sessionsByUser = new ConcurrentHashMap<>();
+    private final List<ConcurrentLinkedQueue<Session>> wheel;
+    private final long idleTimeoutMillis;
+    private final long tickMillis;
+    private final SecureRandom random = new SecureRandom();
+    private final ScheduledExecutorService ticker;
+    private long lastTick;
+
+    public SessionStore() {
+        this(DEFAULT_IDLE_TIMEOUT_MILLIS);
+    }
+
+    /**
+     * @param idleTimeoutMillis How long a session may go unused before it is dropped
+     */
+    public SessionStore(long idleTimeoutMillis) {
+        if (idleTimeoutMillis <= 0) {
+            throw new IllegalArgumentException("Idle timeout must be positive");
+        }
+        this.idleTimeoutMillis = idleTimeoutMillis;
+        // Half a revolution covers the timeout, so a deadline never wraps past its own slot
+        this.tickMillis = Math.max(1, idleTimeoutMillis / (WHEEL_SLOTS / 2));
+        this.wheel = new ArrayList<>(WHEEL_SLOTS);
+        for (int i = 0; i < WHEEL_SLOTS; i++) {
+            wheel.add(new ConcurrentLinkedQueue<>());
+        }
+        this.lastTick = Math.floorDiv(now(), tickMillis);
+        this.ticker = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "session-expiry");
+            thread.setDaemon(true);
+            return thread;
+        });
+        ticker.scheduleAtFixedRate(this::expireIdleSessions, tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Start a session for an already authenticated user
+     * @return The token the client presents on later requests
+     */
+    public String open(User user) {
+        Session session = new Session(newToken(), user, now());
+        sessions.put(session.token, session);
+        sessionsByUser.computeIfAbsent(user.getUserID(), id -> ConcurrentHashMap.newKeySet()).add(session);
+        schedule(session, session.lastAccessMillis + idleTimeoutMillis);
+        return session.token;
+    }
+
+    /**
+     * Look up the user behind a token and mark the session as used
+     * @return The user, or null if the token is unknown, closed or idle for too long
+     */
+    public User resolve(String token) {
+        if (token == null) {
+            return null;
+        }
+        Session session = sessions.get(token);
+        if (session == null) {
+            return null;
+        }
+        long now = now();
+        if (now - session.lastAccessMillis > idleTimeoutMillis) {
+            remove(session);
+            return null;
+        }
+        // The wheel only has tick resolution; skip the shared write inside the same tick
+        if (now - session.lastAccessMillis >= tickMillis) {
+            session.lastAccessMillis = now;
+        }
+        return session.user;
+    }
+
+    /**
+     * @return true if the token belonged to an open session
+     */
+    public boolean invalidate(String token) {
+        Session session = token == null ? null : sessions.get(token);
+        return session != null && remove(session);
+    }
+
+    /**
+     * Close every session of a user, e.g. when the account is removed
+     * @return Number of sessions closed
+     */
+    public int invalidateUser(User user) {
+        Set<Session> userSessions = sessionsByUser.get(user.getUserID());
+        if (userSessions == null) {
+            return 0;
+        }
+        int closed = 0;
+        for (Session session : userSessions) {
+            if (remove(session)) {
+                closed++;
+            }
+        }
+        return closed;
+    }
+
+    public int size() {
+        return sessions.size();
+    }
+
+    @Override
+    public void close() {
+        ticker.shutdownNow();
+    }
+
+    private boolean remove(Session session) {
+        if (!sessions.remove(session.token, session)) {
+            return false;
+        }
+        sessionsByUser.computeIfPresent(session.user.getUserID(), (id, userSessions) -> {
+            userSessions.remove(session);
+            return userSessions.isEmpty() ? null : userSessions;
+        });
+        return true;
+    }
+
+    private void schedule(Session session, long deadlineMillis) {
+        wheel.get(Math.floorMod(Math.floorDiv(deadlineMillis, tickMillis), WHEEL_SLOTS)).add(session);
+    }
+
+    // Runs on the ticker thread only
+    private void expireIdleSessions() {
+        long now = now();
+        long currentTick = Math.floorDiv(now, tickMillis);
+        // After a long pause one pass over every slot is enough
+        long firstTick = Math.max(lastTick + 1, currentTick - WHEEL_SLOTS + 1);
+        for (long tick = firstTick; tick <= currentTick; tick++) {
+            ConcurrentLinkedQueue<Session> slot = wheel.get(Math.floorMod(tick, WHEEL_SLOTS));
+            // Sessions rescheduled into this same slot wait for the next revolution
+            for (int pending = slot.size(); pending > 0; pending--) {
+                Session session = slot.poll();
+                if (session == null) {
+                    break;
+                }
+                if (sessions.get(session.token) != session) {
+                    continue;
+                }
+                long deadline = session.lastAccessMillis + idleTimeoutMillis;
+                // Expire at tick resolution; rescheduling into the current tick would cost a full revolution
+                if (Math.floorDiv(deadline, tickMillis) <= currentTick) {
+                    remove(session);
+                } else {
+                    schedule(session, deadline);
+                }
+            }
+        }
+        lastTick = currentTick;
+    }
+
+    private String newToken() {
+        byte[] bytes = new byte[TOKEN_BYTES];
+        random.nextBytes(bytes);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    private static long now() {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime());
+    }
+
+    private static final class Session {
+        final String token;
+        final User user;
+        volatile long lastAccessMillis;
+
+        Session(String token, User user, long lastAccessMillis) {
+            this.token = token;
+            this.user = user;
+            this.lastAccessMillis = lastAccessMillis;
+        }
+    }
+}
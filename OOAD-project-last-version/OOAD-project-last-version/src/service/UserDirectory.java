@@ -0,0 +1,129 @@
+package service;
+
+import model.User;
+import util.Page;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Thread-safe directory of all user accounts.
+ * Users are indexed by normalized email (hash lookup) and by userID
+ * (ordered, so listings come out sorted by ID without copying).
+ */
+public class UserDirectory {
+    private final ConcurrentMap<String, User> usersByEmail;
+    private final ConcurrentNavigableMap<Integer, User> usersById;
+    private final Collection<User> usersView;
+    private final AtomicInteger highestUserID;
+    // Kept alongside the skip list, whose size() walks every entry
+    private final AtomicInteger userCount;
+
+    public UserDirectory() {
+        this.usersByEmail = new ConcurrentHashMap<>();
+        this.usersById = new ConcurrentSkipListMap<>();
+        this.usersView = Collections.unmodifiableCollection(usersById.values());
+        this.highestUserID = new AtomicInteger(0);
+        this.userCount = new AtomicInteger(0);
+    }
+
+    /**
+     * Normalize an email address for index lookups
+     * @param email Raw email as typed by the user
+     * @return Trimmed, lower-case email, or null if email is null
+     */
+    public static String normalizeEmail(String email) {
+        if (email == null) return null;
+        return email.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Add a user to the directory
+     * @param user The user to add
+     * @return true if added, false if the email or the user ID is already taken
+     */
+    public boolean add(User user) {
+        String key = normalizeEmail(user.getEmail());
+        if (usersByEmail.putIfAbsent(key, user) != null) {
+            return false;
+        }
+        if (usersById.putIfAbsent(user.getUserID(), user) != null) {
+            usersByEmail.remove(key, user);
+            return false;
+        }
+        userCount.incrementAndGet();
+        highestUserID.accumulateAndGet(user.getUserID(), Math::max);
+        return true;
+    }
+
+    /**
+     * Remove a user by email
+     * @param email Email of the user to remove
+     * @return The removed user, or null if not found
+     */
+    public User remove(String email) {
+        String key = normalizeEmail(email);
+        if (key == null) return null;
+        User removed = usersByEmail.remove(key);
+        if (removed != null) {
+            if (usersById.remove(removed.getUserID(), removed)) {
+                userCount.decrementAndGet();
+            }
+        }
+        return removed;
+    }
+
+    public User findByEmail(String email) {
+        String key = normalizeEmail(email);
+        return key == null ? null : usersByEmail.get(key);
+    }
+
+    public User findById(int userID) {
+        return usersById.get(userID);
+    }
+
+    /**
+     * Reserve the next free user ID
+     * @return An ID higher than any ID handed out or registered so far
+     */
+    public int nextUserID() {
+        return highestUserID.incrementAndGet();
+    }
+
+    /**
+     * Live, read-only view of all users ordered by userID
+     * @return Unmodifiable view backed by the directory
+     */
+    public Collection<User> getAll() {
+        return usersView;
+    }
+
+    /**
+     * Users with IDs above a cursor, in ID order; only the page itself is copied
+     * @param afterUserID Page.FIRST, or the cursor returned with the previous page
+     * @param pageSize Maximum number of users on the page
+     */
+    public Page<User> getPage(int afterUserID, int pageSize) {
+        List<User> items = new ArrayList<>(Math.min(pageSize, 64));
+        Iterator<User> remaining = usersById.tailMap(afterUserID, false).values().iterator();
+        while (remaining.hasNext() && items.size() < pageSize) {
+            items.add(remaining.next());
+        }
+        if (!remaining.hasNext()) {
+            return Page.last(items);
+        }
+        return new Page<>(items, items.get(items.size() - 1).getUserID());
+    }
+
+    public int size() {
+        return userCount.get();
+    }
+}
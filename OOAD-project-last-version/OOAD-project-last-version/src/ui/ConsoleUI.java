@@ -1,24 +1,169 @@
 package ui;
 
+import journal.EventJournal;
 import model.*;
+import repository.*;
+import server.RegistrationServer;
 import service.*;
+import util.ConnectionPool;
+import util.DatabaseConnection;
+import util.PooledConnection;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Scanner;
 
 public class ConsoleUI {
     private Scanner scanner;
+    private PagedRenderer pages;
     private AuthService authService;
     private CourseService courseService;
     private RegistrationService registrationService;
 
+    private static final String JOURNAL_DIRECTORY = "registration_journal";
+    private static final long SNAPSHOT_INTERVAL = 100_000;
+    private static final long METRICS_EXPORT_SECONDS = 15;
+    private static final int SEARCH_RESULT_LIMIT = 20;
+    private static final int SCHEDULE_OPTIONS = 5;
+
     public ConsoleUI() {
+        this(Storage.MEMORY);
+    }
+
+    /**
+     * @param useDatabase true to persist everything to H2 and reload it on the next start
+     */
+    public ConsoleUI(boolean useDatabase) {
+        this(useDatabase ? Storage.DATABASE : Storage.MEMORY);
+    }
+
+    /**
+     * Where the system keeps its state between runs
+     */
+    public enum Storage {
+        MEMORY,
+        DATABASE,
+        JOURNAL
+    }
+
+    /**
+     * @param storage MEMORY for sample data only, DATABASE for H2, JOURNAL for the event journal
+     */
+    public ConsoleUI(Storage storage) {
         this.scanner = new Scanner(System.in);
-        this.authService = new AuthService();
-        this.courseService = new CourseService();
-        this.registrationService = new RegistrationService(courseService);
-        initializeUsers();
-        initializeCourseOfferings();
+        this.pages = new PagedRenderer(scanner, System.out);
+
+        boolean persistent = false;
+        if (storage == Storage.DATABASE) {
+            persistent = openDatabase();
+        } else if (storage == Storage.JOURNAL) {
+            persistent = openJournal();
+        }
+        if (!persistent) {
+            if (storage != Storage.MEMORY) {
+                System.out.println("Continuing without persistence.");
+            }
+            this.authService = new AuthService();
+            this.courseService = new CourseService();
+            this.registrationService = new RegistrationService(courseService);
+        }
+
+        // Stored data wins; sample data only fills an empty system
+        if (authService.getAllUsers().isEmpty()) {
+            initializeUsers();
+        }
+        courseService.loadOfferings(authService::findUserById);
+        if (courseService.getCourseOfferings().isEmpty()) {
+            initializeCourseOfferings();
+        }
+        registrationService.loadState(authService::findUserById);
+    }
+
+    /**
+     * Keep writing the registration metrics to a file until the program exits
+     * @param file Target file, rewritten every METRICS_EXPORT_SECONDS
+     */
+    public void exportMetrics(Path file) {
+        MetricsExporter exporter = new MetricsExporter(registrationService.getMetrics(), file,
+                METRICS_EXPORT_SECONDS);
+        Runtime.getRuntime().addShutdownHook(new Thread(exporter::close));
+    }
+
+    /**
+     * Serve the same services to network clients instead of the console menu
+     * Runs until Enter is pressed, or until the process is stopped when there is no console
+     * @param port TCP port to listen on
+     */
+    public void serve(int port) {
+        RegistrationServer server = new RegistrationServer(authService, courseService, registrationService);
+        try {
+            server.start(port);
+        } catch (IOException e) {
+            System.out.println("Error: Could not listen on port " + port + ": " + e.getMessage());
+            return;
+        }
+        System.out.println("Serving on port " + server.getPort() + " with "
+                + (server.usesVirtualThreads() ? "virtual" : "platform") + " threads. Press Enter to stop.");
+        try {
+            if (scanner.hasNextLine()) {
+                scanner.nextLine();
+                server.close();
+            } else {
+                server.awaitClose();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            server.close();
+        }
+    }
+
+    private boolean openDatabase() {
+        ConnectionPool pool = DatabaseConnection.getPool();
+        if (pool == null || !createSchema()) {
+            return false;
+        }
+        this.authService = new AuthService(new JdbcUserRepository(pool));
+        this.courseService = new CourseService(new JdbcCourseRepository(pool));
+        this.registrationService = new RegistrationService(courseService,
+                new JdbcRegistrationRepository(pool), new JdbcNotificationRepository(pool));
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            registrationService.shutdown();
+            DatabaseConnection.closeConnection();
+        }));
+        return true;
+    }
+
+    private boolean createSchema() {
+        try (PooledConnection connection = DatabaseConnection.getConnection()) {
+            return connection != null && SchemaInitializer.createSchema(connection.getConnection());
+        }
+    }
+
+    private boolean openJournal() {
+        EventJournal journal;
+        try {
+            journal = new EventJournal(Paths.get(JOURNAL_DIRECTORY), SNAPSHOT_INTERVAL);
+        } catch (IOException e) {
+            System.out.println("Error: Could not open the journal: " + e.getMessage());
+            return false;
+        }
+        System.out.println(journal.getRecoverySummary());
+        this.authService = new AuthService(new JournalUserRepository(journal));
+        this.courseService = new CourseService(new JournalCourseRepository(journal));
+        // Notifications are not journaled; inboxes start empty after a restart
+        this.registrationService = new RegistrationService(courseService,
+                new JournalRegistrationRepository(journal), null);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            registrationService.shutdown();
+            journal.close();
+        }));
+        return true;
     }
 
     private void initializeUsers() {
@@ -42,7 +187,8 @@ public class ConsoleUI {
             Course cs301 = courses.get(2);
 
             // Create instructor
-            Instructor instructor = (Instructor) authService.getCurrentUser();
+            User registered = authService.findUserByEmail("smith@univ.edu");
+            Instructor instructor = registered instanceof Instructor ? (Instructor) registered : null;
             if (instructor == null) {
                 instructor = new Instructor(2, "Dr. Smith", "smith@univ.edu", "password", "Computer Science");
             }
@@ -146,8 +292,11 @@ public class ConsoleUI {
             System.out.println("2. Register for Course");
             System.out.println("3. View My Schedule");
             System.out.println("4. Submit Special Request");
-            System.out.println("5. View Notifications");
-            System.out.println("6. Logout");
+            System.out.println("5. View Notifications (" +
+                    registrationService.getUnreadNotificationCount(student) + " unread)");
+            System.out.println("6. Search Courses");
+            System.out.println("7. Build Schedule");
+            System.out.println("8. Logout");
             System.out.print("Choose an option: ");
 
             try {
@@ -155,7 +304,7 @@ public class ConsoleUI {
 
 
                 if (input.isEmpty()) {
-                    System.out.println("Please enter a number (1-6).");
+                    System.out.println("Please enter a number (1-8).");
                     continue;
                 }
 
@@ -178,14 +327,20 @@ public class ConsoleUI {
                         viewNotifications(student);
                         break;
                     case 6:
+                        searchCourses();
+                        break;
+                    case 7:
+                        buildSchedule(student);
+                        break;
+                    case 8:
                         authService.logout();
                         System.out.println("Logged out successfully.");
                         return; // خروج من الدالة
                     default:
-                        System.out.println("Invalid option. Please choose 1-6.");
+                        System.out.println("Invalid option. Please choose 1-8.");
                 }
             } catch (NumberFormatException e) {
-                System.out.println("Invalid input. Please enter a number between 1 and 6.");
+                System.out.println("Invalid input. Please enter a number between 1 and 8.");
             }
         }
 
@@ -193,26 +348,196 @@ public class ConsoleUI {
 
     private void browseCourses() {
         System.out.println("\n=== Available Courses ===");
-        List<CourseOffering> offerings = courseService.getCourseOfferings();
+        OfferingQuery everything = OfferingQuery.all();
+        pages.render((cursor, pageSize) -> courseService.queryOfferings(everything, cursor, pageSize),
+                (CourseOffering offering, StringBuilder row) -> {
+                    row.append("ID: ").append(offering.getOfferingID()).append('\n');
+                    appendOfferingInfo(offering, row);
+                    row.append("\n------------------------");
+                });
+    }
+
+    /**
+     * Same text as CourseOffering.getOfferingInfo(), appended to a reused row buffer
+     */
+    private static void appendOfferingInfo(CourseOffering offering, StringBuilder row) {
+        row.append("Offering ID: ").append(offering.getOfferingID())
+                .append("\nCourse: ").append(offering.getCourse().getTitle())
+                .append("\nInstructor: ").append(offering.getInstructor().getName())
+                .append("\nSchedule: ").append(offering.getSchedule().getSchedule())
+                .append("\nCapacity: ").append(offering.getCurrentEnrollment())
+                .append('/').append(offering.getCapacity());
+    }
+
+    private void searchCourses() {
+        System.out.println("\n=== Search Courses ===");
+        System.out.print("Search (code, title or keywords; end with * to autocomplete): ");
+        String text = scanner.nextLine().trim();
+
+        List<Course> results;
+        if (text.endsWith("*")) {
+            results = courseService.suggestCourses(text.substring(0, text.length() - 1), SEARCH_RESULT_LIMIT);
+        } else {
+            CourseFilter filter = CourseFilter.ANY;
+            System.out.print("Department (e.g. CS, blank for any): ");
+            String department = scanner.nextLine().trim();
+            if (!department.isEmpty()) {
+                filter = filter.inDepartment(department);
+            }
+            System.out.print("Level (1-4, blank for any): ");
+            String level = scanner.nextLine().trim();
+            if (!level.isEmpty()) {
+                filter = filter.atLevel(Integer.parseInt(level));
+            }
+            System.out.print("Only courses with open seats? (y/n): ");
+            if (scanner.nextLine().trim().equalsIgnoreCase("y")) {
+                filter = filter.withOpenSeats();
+            }
+            results = courseService.searchCourses(text, filter, SEARCH_RESULT_LIMIT);
+        }
 
-        for (CourseOffering offering : offerings) {
-            System.out.println("ID: " + offering.getOfferingID());
-            System.out.println(offering.getOfferingInfo());
-            System.out.println("------------------------");
+        if (results.isEmpty()) {
+            System.out.println("No matching courses.");
+            return;
+        }
+        for (Course course : results) {
+            System.out.println(course.getCourseCode() + ": " + course.getTitle() + " (" + course.getCredits() +
+                    " credits)");
+            for (CourseOffering offering : course.getOfferings()) {
+                System.out.println("    Offering " + offering.getOfferingID() + ", " +
+                        offering.getSchedule().getSchedule() + ", " + offering.getCurrentEnrollment() + "/" +
+                        offering.getCapacity());
+            }
+        }
+    }
+
+    /**
+     * Suggest conflict-free timetables for a wishlist and optionally register for one
+     */
+    private void buildSchedule(Student student) {
+        System.out.println("\n=== Build Schedule ===");
+        System.out.print("Course codes you would like to take (e.g. CS101 CS201): ");
+        List<String> codes = Arrays.asList(scanner.nextLine().trim().split("[,\\s]+"));
+
+        SchedulePreferences preferences = SchedulePreferences.NONE;
+        System.out.print("No classes before (HH:mm, blank for any time): ");
+        String notBefore = scanner.nextLine().trim();
+        if (!notBefore.isEmpty()) {
+            try {
+                preferences = preferences.noClassesBefore(notBefore);
+            } catch (IllegalArgumentException e) {
+                System.out.println("Error: " + e.getMessage());
+                return;
+            }
+        }
+        System.out.print("Prefer compact days? (y/n): ");
+        if (scanner.nextLine().trim().equalsIgnoreCase("y")) {
+            preferences = preferences.compactDays();
+        }
+        System.out.print("Prefer fewer days on campus? (y/n): ");
+        if (scanner.nextLine().trim().equalsIgnoreCase("y")) {
+            preferences = preferences.fewerDays();
+        }
+        preferences = preferences.withOpenSeats();
+
+        ScheduleBuilder.Result result = new ScheduleBuilder(courseService).build(codes, student,
+                currentRegistrationRules(), preferences, SCHEDULE_OPTIONS, ScheduleBuilder.DEFAULT_BUDGET_MILLIS);
+        for (String note : result.getNotes()) {
+            System.out.println("Note: " + note);
+        }
+        List<ScheduleBuilder.Timetable> timetables = result.getTimetables();
+        if (timetables.isEmpty()) {
+            System.out.println("No conflict-free schedule found.");
+            return;
         }
+        if (!result.isComplete()) {
+            System.out.println("(Search stopped at its time limit; these are the best schedules found.)");
+        }
+        for (int i = 0; i < timetables.size(); i++) {
+            ScheduleBuilder.Timetable timetable = timetables.get(i);
+            System.out.println("\nOption " + (i + 1) + ": " + timetable.getCredits() + " credits, " +
+                    timetable.getDaysOnCampus() + " day(s) on campus, " + timetable.getIdleMinutes() +
+                    " idle min, " + timetable.getEarlyMinutes() + " early min");
+            for (CourseOffering offering : timetable.getSections()) {
+                System.out.println("    " + offering.getOfferingID() + ": " + offering.getCourse().getCourseCode() +
+                        " " + offering.getCourse().getTitle() + ", " + offering.getSchedule().getSchedule());
+            }
+        }
+
+        System.out.print("\nRegister for an option? (number, blank to skip): ");
+        String choice = scanner.nextLine().trim();
+        if (choice.isEmpty()) {
+            return;
+        }
+        int option = Integer.parseInt(choice);
+        if (option < 1 || option > timetables.size()) {
+            System.out.println("Error: No option " + option);
+            return;
+        }
+        List<Integer> cart = new ArrayList<>();
+        for (CourseOffering offering : timetables.get(option - 1).getSections()) {
+            cart.add(offering.getOfferingID());
+        }
+        checkout(student, cart);
+    }
+
+    /**
+     * Register for several offerings at once, all or nothing, and show each one's outcome
+     */
+    private void checkout(Student student, List<Integer> cart) {
+        RegistrationService.CheckoutResult checkout = registrationService.checkout(student, cart);
+        for (Map.Entry<Integer, RegistrationService.RegistrationResult> item : checkout.getResults().entrySet()) {
+            CourseOffering offering = registrationService.getCourseOffering(item.getKey());
+            String label = offering != null ? offering.getCourse().getCourseCode() : "Offering " + item.getKey();
+            System.out.println(label + ": " + item.getValue().getMessage());
+        }
+        System.out.println(checkout.isSuccess()
+                ? "All " + checkout.getResults().size() + " courses registered."
+                : "Checkout failed; no courses were registered.");
+    }
+
+    /**
+     * Rules set by the administrators, or the defaults if there is no administrator account
+     */
+    private RegistrationRules currentRegistrationRules() {
+        for (User user : authService.getAllUsers()) {
+            if (user instanceof Administrator) {
+                return ((Administrator) user).getRegistrationRules();
+            }
+        }
+        return new RegistrationRules(18, false, false);
     }
 
     private void registerForCourse(Student student) {
         System.out.println("\n=== Register for Course ===");
         browseCourses();
 
-        System.out.print("Enter course offering ID: ");
-        int offeringID = Integer.parseInt(scanner.nextLine());
+        System.out.print("Enter course offering ID (several separated by spaces to register them together): ");
+        String[] ids = scanner.nextLine().trim().split("[,\\s]+");
+        if (ids.length > 1) {
+            List<Integer> cart = new ArrayList<>();
+            for (String id : ids) {
+                cart.add(Integer.parseInt(id));
+            }
+            checkout(student, cart);
+            return;
+        }
+        int offeringID = Integer.parseInt(ids[0]);
 
         RegistrationService.RegistrationResult result =
                 registrationService.registerCourse(student, offeringID);
 
         System.out.println(result.getMessage());
+
+        // Offer a single queued request instead of retrying a full course
+        CourseOffering offering = registrationService.getCourseOffering(offeringID);
+        if (!result.isSuccess() && offering != null &&
+                (!offering.checkAvailability() || !offering.getWaitlist().isEmpty())) {
+            System.out.print("Join the waitlist for this course? (y/n): ");
+            if (scanner.nextLine().trim().equalsIgnoreCase("y")) {
+                System.out.println(registrationService.joinWaitlist(student, offeringID).getMessage());
+            }
+        }
     }
 
     private void viewStudentSchedule(Student student) {
@@ -225,21 +550,18 @@ public class ConsoleUI {
             return;
         }
 
-        System.out.println("Registered Courses:");
-        System.out.println("=".repeat(50));
-        System.out.println(String.format("%-20s %-25s %-15s",
-                "Course", "Schedule", "Status"));
-        System.out.println("=".repeat(50));
+        pages.line("Registered Courses:");
+        pages.line("=".repeat(50));
+        pages.line(String.format("%-20s %-25s %-15s", "Course", "Schedule", "Status"));
+        pages.line("=".repeat(50));
 
-        for (Registration reg : registrations) {
-            if (reg.getStatus().equals("registered")) {
-                CourseOffering offering = reg.getCourseOffering();
-                System.out.println(String.format("%-20s %-25s %-15s",
-                        offering.getCourse().getTitle(),
-                        offering.getSchedule().getSchedule(),
-                        reg.getStatus()));
-            }
-        }
+        pages.render(PagedRenderer.over(registrations, reg -> reg.getStatus().equals("registered")),
+                (Registration reg, StringBuilder row) -> {
+                    CourseOffering offering = reg.getCourseOffering();
+                    PagedRenderer.cell(row, offering.getCourse().getTitle(), 20);
+                    PagedRenderer.cell(row, offering.getSchedule().getSchedule(), 25);
+                    row.append(reg.getStatus());
+                });
 
         System.out.println("=".repeat(50));
         System.out.println("Total registered courses: " +
@@ -267,6 +589,8 @@ public class ConsoleUI {
 
     private void viewNotifications(User user) {
         System.out.println("\n=== Notifications ===");
+        // Give anything queued by this user's last action a moment to reach the inbox
+        registrationService.getNotificationDispatcher().flush(200);
         List<Notification> notifications = registrationService.getUserNotifications(user);
 
         if (notifications.isEmpty()) {
@@ -275,6 +599,7 @@ public class ConsoleUI {
             for (Notification notification : notifications) {
                 notification.showNotification();
             }
+            registrationService.markNotificationsRead(user);
         }
     }
 
@@ -285,7 +610,8 @@ public class ConsoleUI {
             System.out.println("2. View Pending Requests");
             System.out.println("3. Approve Request");
             System.out.println("4. Reject Request");
-            System.out.println("5. View Notifications");
+            System.out.println("5. View Notifications (" +
+                    registrationService.getUnreadNotificationCount(instructor) + " unread)");
             System.out.println("6. Logout");
             System.out.print("Choose an option: ");
 
@@ -332,10 +658,22 @@ public class ConsoleUI {
         System.out.println("\n=== My Courses ===");
         List<CourseOffering> courses = instructor.viewCourses();
 
-        for (CourseOffering offering : courses) {
-            System.out.println(offering.getOfferingInfo());
-            System.out.println("------------------------");
-        }
+        // One offering per row; a long roster is paged separately so a page never grows unbounded
+        pages.render(PagedRenderer.over(courses, offering -> true), (CourseOffering offering, StringBuilder row) -> {
+            appendOfferingInfo(offering, row);
+            List<Student> students = instructor.viewStudents(offering);
+            row.append("\nStudents (").append(students.size()).append("):");
+            int inline = Math.min(students.size(), PagedRenderer.DEFAULT_PAGE_SIZE);
+            for (int i = 0; i < inline; i++) {
+                Student student = students.get(i);
+                row.append("\n  - ").append(student.getName()).append(" (").append(student.getEmail()).append(')');
+            }
+            if (inline < students.size()) {
+                row.append("\n  ... and ").append(students.size() - inline)
+                        .append(" more (see the roster for the full list)");
+            }
+            row.append("\n------------------------");
+        });
     }
 
     private void viewPendingRequests(Instructor instructor) {
@@ -356,11 +694,11 @@ public class ConsoleUI {
         System.out.print("Enter request ID: ");
         int requestID = Integer.parseInt(scanner.nextLine());
 
-        if (approve) {
-            instructor.approveRequest(requestID);
+        if (!registrationService.processSpecialRequest(instructor, requestID, approve)) {
+            System.out.println("Request not found.");
+        } else if (approve) {
             System.out.println("Request approved.");
         } else {
-            instructor.rejectRequest(requestID);
             System.out.println("Request rejected.");
         }
     }
@@ -376,7 +714,8 @@ public class ConsoleUI {
         System.out.println("7. Add New User");
         System.out.println("8. Remove User");
         System.out.println("9. View System Status");
-        System.out.println("10. Logout");
+        System.out.println("10. Query Offerings");
+        System.out.println("11. Logout");
         System.out.print("Choose an option: ");
 
         try {
@@ -413,17 +752,49 @@ public class ConsoleUI {
                     viewSystemStatus();
                     break;
                 case 10:
+                    queryOfferings();
+                    break;
+                case 11:
                     authService.logout();
                     System.out.println("Logged out successfully.");
                     break;
                 default:
-                    System.out.println("Invalid option. Please choose 1-10.");
+                    System.out.println("Invalid option. Please choose 1-11.");
             }
         } catch (NumberFormatException e) {
             System.out.println("Please enter a valid number.");
         }
     }
 
+    /**
+     * Administrator function: Find offerings by department, credits, semester, days, time and seats
+     * Results are shown one page at a time
+     */
+    private void queryOfferings() {
+        System.out.println("\n=== Query Offerings ===");
+        System.out.println("e.g. department=Computer Science; credits=3; days=Tue/Thu; after=13:00; open");
+        System.out.print("Query (keys: department, credits, semester, days, after, before, open): ");
+        OfferingQuery query;
+        try {
+            query = OfferingQuery.parse(scanner.nextLine());
+        } catch (IllegalArgumentException e) {
+            System.out.println("Error: " + e.getMessage());
+            return;
+        }
+        System.out.println("Plan: " + courseService.explainQuery(query));
+
+        int shown = pages.render((cursor, pageSize) -> courseService.queryOfferings(query, cursor, pageSize),
+                (CourseOffering offering, StringBuilder row) -> row
+                        .append(offering.getOfferingID()).append(": ")
+                        .append(offering.getCourse().getCourseCode()).append(' ')
+                        .append(offering.getCourse().getTitle()).append(", ")
+                        .append(offering.getInstructor().getName()).append(", ")
+                        .append(offering.getSemester().getTermName()).append(", ")
+                        .append(offering.getSchedule().getSchedule()).append(", ")
+                        .append(offering.getCurrentEnrollment()).append('/').append(offering.getCapacity()));
+        System.out.println(shown == 0 ? "No matching offerings." : shown + " offering(s) shown.");
+    }
+
     private void manageRegistrationRules(Administrator admin) {
         System.out.println("\n=== Current Registration Rules ===");
         System.out.println(admin.getRegistrationRules().getRules());
@@ -448,7 +819,9 @@ public class ConsoleUI {
         System.out.println("\n=== System Status ===");
         System.out.println("Total Courses: " + courseService.getAllCourses().size());
         System.out.println("Total Course Offerings: " + courseService.getCourseOfferings().size());
-        System.out.println("Total Users: 3 (sample data)");
+        System.out.println("Total Users: " + authService.getUserCount());
+        System.out.println("Total Registrations: " + registrationService.getRegistrationStore().size());
+        System.out.print(registrationService.getMetrics().snapshot().format());
     }
 
     /**
@@ -523,33 +896,32 @@ public class ConsoleUI {
     private void viewAllUsers() {
         System.out.println("\n=== All System Users ===");
 
-        List<User> users = authService.getAllUsers();
-        if (users.isEmpty()) {
+        if (authService.getUserCount() == 0) {
             System.out.println("No users in the system.");
             return;
         }
 
-        System.out.println(String.format("%-5s %-20s %-25s %-15s %-15s",
+        pages.line(String.format("%-5s %-20s %-25s %-15s %-15s",
                 "ID", "Name", "Email", "Role", "Details"));
-        System.out.println("-".repeat(85));
+        pages.line("-".repeat(85));
 
-        for (User user : users) {
-            String details = "";
+        pages.render(authService::getUsers, (User user, StringBuilder row) -> {
+            PagedRenderer.cell(row, user.getUserID(), 5);
+            PagedRenderer.cell(row, user.getName(), 20);
+            PagedRenderer.cell(row, user.getEmail(), 25);
+            PagedRenderer.cell(row, user.getRole(), 15);
             if (user instanceof Student) {
                 Student s = (Student) user;
-                details = "Level: " + s.getLevel() + ", Major: " + s.getMajor();
+                row.append("Level: ").append(s.getLevel()).append(", Major: ").append(s.getMajor());
             } else if (user instanceof Instructor) {
                 Instructor i = (Instructor) user;
-                details = "Dept: " + i.getDepartment();
+                row.append("Dept: ").append(i.getDepartment());
             } else if (user instanceof Administrator) {
                 Administrator a = (Administrator) user;
-                details = "Role: " + a.getAdminRole();
+                row.append("Role: ").append(a.getAdminRole());
             }
-
-            System.out.println(String.format("%-5d %-20s %-25s %-15s %-15s",
-                    user.getUserID(), user.getName(), user.getEmail(), user.getRole(), details));
-        }
-        System.out.println("Total users: " + users.size());
+        });
+        System.out.println("Total users: " + authService.getUserCount());
     }
 
     /**
@@ -601,11 +973,12 @@ public class ConsoleUI {
                     String adminRole = scanner.nextLine().trim();
 
                     // For admin, create directly
-                    int newId = authService.getAllUsers().size() + 1;
+                    int newId = authService.generateUserID();
                     Administrator newAdmin = new Administrator(newId, name, email, password, adminRole);
-                    authService.registerUser(newAdmin);
-                    success = true;
-                    System.out.println("Administrator " + name + " added successfully.");
+                    success = authService.registerUser(newAdmin);
+                    if (success) {
+                        System.out.println("Administrator " + name + " added successfully.");
+                    }
                     break;
 
                 default:
@@ -629,7 +1002,7 @@ public class ConsoleUI {
         System.out.println("\n=== Remove User ===");
 
         // Show all users
-        List<User> users = authService.getAllUsers();
+        Collection<User> users = authService.getAllUsers();
         if (users.isEmpty()) {
             System.out.println("No users in the system.");
             return;
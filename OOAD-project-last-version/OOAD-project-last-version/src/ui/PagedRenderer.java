@@ -0,0 +1,147 @@
+package ui;
+
+import util.Page;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Scanner;
+import java.util.function.Predicate;
+
+/**
+ * Writes long console listings one page at a time.
+ * Rows are formatted into a single reused StringBuilder and written through a
+ * buffered writer that is flushed once per page, and each page is fetched from
+ * its source by cursor so only the visible rows are ever materialized.
+ */
+class PagedRenderer {
+    static final int DEFAULT_PAGE_SIZE = 20;
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    /**
+     * Fetches the page after a cursor, e.g. CourseService.queryOfferings or AuthService.getUsers
+     */
+    interface PageSource<T> {
+        Page<T> fetch(int cursor, int pageSize);
+    }
+
+    /**
+     * Appends one item's text to the row buffer; the buffer may span several lines
+     */
+    interface RowFormatter<T> {
+        void format(T item, StringBuilder row);
+    }
+
+    private final Scanner scanner;
+    private final BufferedWriter out;
+    private final int pageSize;
+    private final StringBuilder row = new StringBuilder(256);
+
+    PagedRenderer(Scanner scanner, OutputStream out) {
+        this(scanner, out, DEFAULT_PAGE_SIZE);
+    }
+
+    PagedRenderer(Scanner scanner, OutputStream out, int pageSize) {
+        this.scanner = scanner;
+        this.out = new BufferedWriter(new OutputStreamWriter(out), BUFFER_SIZE);
+        this.pageSize = pageSize;
+    }
+
+    /**
+     * Write a header or footer line; it appears with the next flushed page
+     */
+    void line(CharSequence text) {
+        try {
+            out.append(text).append('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Render every page of a source, asking before each page after the first
+     * @return Number of items shown, which is less than the total if the user stopped early
+     */
+    <T> int render(PageSource<T> source, RowFormatter<? super T> formatter) {
+        int shown = 0;
+        int cursor = Page.FIRST;
+        try {
+            while (true) {
+                Page<T> page = source.fetch(cursor, pageSize);
+                for (T item : page.getItems()) {
+                    row.setLength(0);
+                    formatter.format(item, row);
+                    out.append(row).append('\n');
+                }
+                shown += page.getItems().size();
+                if (!page.hasMore()) {
+                    break;
+                }
+                out.write("-- " + shown + " shown; press Enter for more or q to stop: ");
+                out.flush();
+                if (!scanner.hasNextLine() || !scanner.nextLine().trim().isEmpty()) {
+                    break;
+                }
+                cursor = page.getNextCursor();
+            }
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return shown;
+    }
+
+    void flush() {
+        try {
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Page through an in-memory list by index, skipping items the filter rejects
+     */
+    static <T> PageSource<T> over(List<T> items, Predicate<? super T> filter) {
+        return (cursor, pageSize) -> {
+            List<T> page = new ArrayList<>(Math.min(pageSize, 64));
+            int lastIndex = cursor;
+            for (int index = cursor + 1; index < items.size(); index++) {
+                T item = items.get(index);
+                if (!filter.test(item)) {
+                    continue;
+                }
+                if (page.size() == pageSize) {
+                    return new Page<>(page, lastIndex);
+                }
+                page.add(item);
+                lastIndex = index;
+            }
+            return Page.last(page);
+        };
+    }
+
+    /**
+     * Append a left-aligned column padded to width plus a separating space, like %-Ns
+     */
+    static void cell(StringBuilder row, CharSequence value, int width) {
+        int start = row.length();
+        row.append(value);
+        while (row.length() - start < width) {
+            row.append(' ');
+        }
+        row.append(' ');
+    }
+
+    static void cell(StringBuilder row, int value, int width) {
+        int start = row.length();
+        row.append(value);
+        while (row.length() - start < width) {
+            row.append(' ');
+        }
+        row.append(' ');
+    }
+}
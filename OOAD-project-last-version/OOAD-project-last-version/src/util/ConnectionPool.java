@@ -0,0 +1,188 @@
+package util;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded JDBC connection pool.
+ * At most maxSize connections exist at once; borrowers wait up to the borrow
+ * timeout for a free one. Idle connections are validated before being handed out.
+ */
+public class ConnectionPool implements AutoCloseable {
+    private static final int VALIDATION_TIMEOUT_SECONDS = 1;
+
+    private final String url;
+    private final String user;
+    private final String password;
+    private final int maxSize;
+    private final long borrowTimeoutMillis;
+
+    private final Semaphore permits;
+    private final ConcurrentLinkedDeque<PooledConnection> idle;
+    private final AtomicInteger active;
+    private final AtomicInteger total;
+    private final LongAdder borrowCount;
+    private final LongAdder timeoutCount;
+    private final LongAdder totalWaitNanos;
+    private final AtomicLong maxWaitNanos;
+    private final LongAdder discardedCount;
+    private volatile boolean closed;
+
+    public ConnectionPool(String url, String user, String password, int maxSize, long borrowTimeoutMillis) {
+        this.url = url;
+        this.user = user;
+        this.password = password;
+        this.maxSize = maxSize;
+        this.borrowTimeoutMillis = borrowTimeoutMillis;
+        this.permits = new Semaphore(maxSize, true);
+        this.idle = new ConcurrentLinkedDeque<>();
+        this.active = new AtomicInteger(0);
+        this.total = new AtomicInteger(0);
+        this.borrowCount = new LongAdder();
+        this.timeoutCount = new LongAdder();
+        this.totalWaitNanos = new LongAdder();
+        this.maxWaitNanos = new AtomicLong(0);
+        this.discardedCount = new LongAdder();
+    }
+
+    /**
+     * Borrow a connection; close the returned object to give it back
+     * @return A validated connection
+     * @throws SQLTimeoutException if none became free within the borrow timeout
+     * @throws SQLException if a new connection could not be opened
+     */
+    public PooledConnection borrow() throws SQLException {
+        if (closed) {
+            throw new SQLException("Connection pool is closed");
+        }
+        long start = System.nanoTime();
+        try {
+            if (!permits.tryAcquire(borrowTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                timeoutCount.increment();
+                throw new SQLTimeoutException("Timed out after " + borrowTimeoutMillis +
+                        " ms waiting for a database connection");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a database connection", e);
+        }
+        long waited = System.nanoTime() - start;
+        totalWaitNanos.add(waited);
+        maxWaitNanos.accumulateAndGet(waited, Math::max);
+        borrowCount.increment();
+
+        try {
+            PooledConnection connection;
+            // Most recently used first: it is the most likely to still be alive
+            while ((connection = idle.pollFirst()) != null) {
+                if (connection.validate(VALIDATION_TIMEOUT_SECONDS)) {
+                    break;
+                }
+                discard(connection);
+            }
+            if (connection == null) {
+                connection = open();
+            }
+            active.incrementAndGet();
+            connection.onBorrow();
+            return connection;
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    private PooledConnection open() throws SQLException {
+        Connection connection = DriverManager.getConnection(url, user, password);
+        total.incrementAndGet();
+        return new PooledConnection(this, connection);
+    }
+
+    private void discard(PooledConnection connection) {
+        connection.closePhysical();
+        total.decrementAndGet();
+        discardedCount.increment();
+    }
+
+    void release(PooledConnection connection) {
+        active.decrementAndGet();
+        if (closed || !connection.resetForReuse()) {
+            discard(connection);
+        } else {
+            idle.offerFirst(connection);
+        }
+        permits.release();
+    }
+
+    public PoolMetrics getMetrics() {
+        return new PoolMetrics(maxSize, active.get(), idle.size(), permits.getQueueLength(),
+                borrowCount.sum(), timeoutCount.sum(), discardedCount.sum(),
+                totalWaitNanos.sum(), maxWaitNanos.get());
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        PooledConnection connection;
+        while ((connection = idle.pollFirst()) != null) {
+            discard(connection);
+        }
+    }
+
+    /**
+     * Point-in-time view of pool usage
+     */
+    public static class PoolMetrics {
+        private final int maxSize;
+        private final int active;
+        private final int idle;
+        private final int waiting;
+        private final long borrowCount;
+        private final long timeoutCount;
+        private final long discardedCount;
+        private final long totalWaitNanos;
+        private final long maxWaitNanos;
+
+        PoolMetrics(int maxSize, int active, int idle, int waiting, long borrowCount, long timeoutCount,
+                    long discardedCount, long totalWaitNanos, long maxWaitNanos) {
+            this.maxSize = maxSize;
+            this.active = active;
+            this.idle = idle;
+            this.waiting = waiting;
+            this.borrowCount = borrowCount;
+            this.timeoutCount = timeoutCount;
+            this.discardedCount = discardedCount;
+            this.totalWaitNanos = totalWaitNanos;
+            this.maxWaitNanos = maxWaitNanos;
+        }
+
+        public double getAverageWaitMillis() {
+            return borrowCount == 0 ? 0.0 : totalWaitNanos / 1_000_000.0 / borrowCount;
+        }
+
+        public String getSummary() {
+            return String.format("Pool: %d active, %d idle, %d waiting (max %d)\n" +
+                            "Borrows: %d, timeouts: %d, discarded: %d\nWait: avg %.3f ms, max %.3f ms",
+                    active, idle, waiting, maxSize, borrowCount, timeoutCount, discardedCount,
+                    getAverageWaitMillis(), maxWaitNanos / 1_000_000.0);
+        }
+
+        public int getMaxSize() { return maxSize; }
+        public int getActive() { return active; }
+        public int getIdle() { return idle; }
+        public int getWaiting() { return waiting; }
+        public long getBorrowCount() { return borrowCount; }
+        public long getTimeoutCount() { return timeoutCount; }
+        public long getDiscardedCount() { return discardedCount; }
+        public long getTotalWaitNanos() { return totalWaitNanos; }
+        public long getMaxWaitNanos() { return maxWaitNanos; }
+    }
+}
@@ -1,42 +1,69 @@
 package util;
 
-import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.SQLException;
 
 public class DatabaseConnection {
     private static final String URL = "jdbc:h2:./registration_db";
     private static final String USER = "sa";
     private static final String PASSWORD = "";
+    private static final int POOL_SIZE = 10;
+    private static final long BORROW_TIMEOUT_MILLIS = 5000;
 
-    private static Connection connection;
+    private static volatile ConnectionPool pool;
 
     private DatabaseConnection() {
         // Private constructor to prevent instantiation
     }
 
-    public static Connection getConnection() {
-        if (connection == null) {
-            try {
-                Class.forName("org.h2.Driver");
-                connection = DriverManager.getConnection(URL, USER, PASSWORD);
-                System.out.println("Database connection established.");
-            } catch (ClassNotFoundException | SQLException e) {
-                System.out.println("Database connection failed: " + e.getMessage());
+    /**
+     * Get the shared connection pool, creating it on first use
+     * @return The pool, or null if the H2 driver is not available
+     */
+    public static ConnectionPool getPool() {
+        ConnectionPool current = pool;
+        if (current == null) {
+            synchronized (DatabaseConnection.class) {
+                current = pool;
+                if (current == null) {
+                    try {
+                        Class.forName("org.h2.Driver");
+                        current = new ConnectionPool(URL, USER, PASSWORD, POOL_SIZE, BORROW_TIMEOUT_MILLIS);
+                        pool = current;
+                        System.out.println("Database connection pool created.");
+                    } catch (ClassNotFoundException e) {
+                        System.out.println("Database connection failed: " + e.getMessage());
+                    }
+                }
             }
         }
-        return connection;
+        return current;
+    }
+
+    /**
+     * Borrow a connection from the shared pool
+     * Close the returned connection to hand it back
+     * @return A pooled connection, or null if no connection could be obtained
+     */
+    public static PooledConnection getConnection() {
+        ConnectionPool current = getPool();
+        if (current == null) {
+            return null;
+        }
+        try {
+            return current.borrow();
+        } catch (SQLException e) {
+            System.out.println("Database connection failed: " + e.getMessage());
+            return null;
+        }
     }
 
     public static void closeConnection() {
-        if (connection != null) {
-            try {
-                connection.close();
-                connection = null;
-                System.out.println("Database connection closed.");
-            } catch (SQLException e) {
-                System.out.println("Error closing connection: " + e.getMessage());
+        synchronized (DatabaseConnection.class) {
+            if (pool != null) {
+                pool.close();
+                pool = null;
+                System.out.println("Database connection pool closed.");
             }
         }
     }
-}
\ No newline at end of file
+}
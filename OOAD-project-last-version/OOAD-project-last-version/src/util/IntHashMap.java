@@ -0,0 +1,165 @@
+package util;
+
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+/**
+ * Open-addressing hash map with primitive int keys.
+ * Avoids boxing keys into Integer objects; null values are not allowed
+ * since a null slot marks an empty bucket. Not thread-safe on its own.
+ */
+public class IntHashMap<V> {
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private int[] keys;
+    private Object[] values;
+    private int size;
+    private int mask;
+
+    public IntHashMap() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public IntHashMap(int expectedSize) {
+        int capacity = tableSizeFor(Math.max(expectedSize, 1) * 2);
+        this.keys = new int[capacity];
+        this.values = new Object[capacity];
+        this.mask = capacity - 1;
+    }
+
+    private static int tableSizeFor(int n) {
+        int capacity = Integer.highestOneBit(Math.max(n, 2) - 1) << 1;
+        return Math.max(capacity, DEFAULT_CAPACITY);
+    }
+
+    private static int hash(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    @SuppressWarnings("unchecked")
+    public V get(int key) {
+        int[] k = keys;
+        Object[] v = values;
+        if (k.length != v.length) return null; // table swapped mid-read
+        int m = k.length - 1;
+        int slot = hash(key) & m;
+        for (int probes = 0; probes <= m; probes++) {
+            Object value = v[slot];
+            if (value == null) return null;
+            if (k[slot] == key) return (V) value;
+            slot = (slot + 1) & m;
+        }
+        return null;
+    }
+
+    public boolean containsKey(int key) {
+        return get(key) != null;
+    }
+
+    /**
+     * Insert or replace a mapping
+     * @return The previous value for the key, or null if there was none
+     */
+    @SuppressWarnings("unchecked")
+    public V put(int key, V value) {
+        if (value == null) {
+            throw new IllegalArgumentException("IntHashMap does not accept null values");
+        }
+        int slot = hash(key) & mask;
+        while (values[slot] != null) {
+            if (keys[slot] == key) {
+                V previous = (V) values[slot];
+                values[slot] = value;
+                return previous;
+            }
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        values[slot] = value;
+        if (++size * 2 > keys.length) {
+            resize(keys.length * 2);
+        }
+        return null;
+    }
+
+    /**
+     * Remove a mapping, shifting later entries of the probe run back
+     * so lookups never need tombstones
+     * @return The removed value, or null if the key was absent
+     */
+    @SuppressWarnings("unchecked")
+    public V remove(int key) {
+        int slot = hash(key) & mask;
+        while (values[slot] != null) {
+            if (keys[slot] == key) {
+                V removed = (V) values[slot];
+                shiftBack(slot);
+                size--;
+                return removed;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return null;
+    }
+
+    private void shiftBack(int hole) {
+        int slot = hole;
+        while (true) {
+            slot = (slot + 1) & mask;
+            if (values[slot] == null) break;
+            int home = hash(keys[slot]) & mask;
+            // Move the entry only if its home bucket is not between the hole and its slot
+            boolean movable = hole <= slot ? (home <= hole || home > slot) : (home <= hole && home > slot);
+            if (movable) {
+                keys[hole] = keys[slot];
+                values[hole] = values[slot];
+                hole = slot;
+            }
+        }
+        values[hole] = null;
+    }
+
+    private void resize(int newCapacity) {
+        int[] oldKeys = keys;
+        Object[] oldValues = values;
+        int[] newKeys = new int[newCapacity];
+        Object[] newValues = new Object[newCapacity];
+        int newMask = newCapacity - 1;
+        for (int i = 0; i < oldValues.length; i++) {
+            if (oldValues[i] != null) {
+                int slot = hash(oldKeys[i]) & newMask;
+                while (newValues[slot] != null) {
+                    slot = (slot + 1) & newMask;
+                }
+                newKeys[slot] = oldKeys[i];
+                newValues[slot] = oldValues[i];
+            }
+        }
+        // Publish values before keys so a racing get() sees mismatched lengths, not a torn table
+        this.mask = newMask;
+        this.values = newValues;
+        this.keys = newKeys;
+    }
+
+    @SuppressWarnings("unchecked")
+    public void forEachValue(Consumer<? super V> action) {
+        Object[] v = values;
+        for (Object value : v) {
+            if (value != null) action.accept((V) value);
+        }
+    }
+
+    public void clear() {
+        Arrays.fill(values, null);
+        size = 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+}
@@ -0,0 +1,33 @@
+package util;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * One page of a larger result, with the cursor to ask for the next one.
+ * Cursors are positions, not offsets: the next page starts after the last
+ * item returned even if items before it were added or removed meanwhile.
+ */
+public class Page<T> {
+    public static final int FIRST = -1;
+    private static final int END = Integer.MIN_VALUE;
+
+    private final List<T> items;
+    private final int nextCursor;
+
+    /**
+     * @param nextCursor Where the next page starts, or Integer.MIN_VALUE if this is the last page
+     */
+    public Page(List<T> items, int nextCursor) {
+        this.items = Collections.unmodifiableList(items);
+        this.nextCursor = nextCursor;
+    }
+
+    public static <T> Page<T> last(List<T> items) {
+        return new Page<>(items, END);
+    }
+
+    public List<T> getItems() { return items; }
+    public int getNextCursor() { return nextCursor; }
+    public boolean hasMore() { return nextCursor != END; }
+}
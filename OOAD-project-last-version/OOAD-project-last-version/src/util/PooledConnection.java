@@ -0,0 +1,90 @@
+package util;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A connection borrowed from a ConnectionPool.
+ * Closing it hands the physical connection back to the pool; prepared
+ * statements are cached per physical connection and survive between borrows.
+ */
+public class PooledConnection implements AutoCloseable {
+    private final ConnectionPool pool;
+    private final Connection connection;
+    private final Map<String, PreparedStatement> statementCache;
+    private boolean borrowed;
+
+    PooledConnection(ConnectionPool pool, Connection connection) {
+        this.pool = pool;
+        this.connection = connection;
+        this.statementCache = new HashMap<>();
+    }
+
+    public Connection getConnection() {
+        return connection;
+    }
+
+    /**
+     * Get a prepared statement for this connection, reusing a cached one when possible
+     */
+    public PreparedStatement prepare(String sql) throws SQLException {
+        PreparedStatement statement = statementCache.get(sql);
+        if (statement == null || statement.isClosed()) {
+            statement = connection.prepareStatement(sql);
+            statementCache.put(sql, statement);
+        }
+        return statement;
+    }
+
+    boolean validate(int timeoutSeconds) {
+        try {
+            return !connection.isClosed() && connection.isValid(timeoutSeconds);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    void onBorrow() {
+        borrowed = true;
+    }
+
+    // Undo anything the borrower left behind so the next user starts clean
+    boolean resetForReuse() {
+        try {
+            if (!connection.getAutoCommit()) {
+                connection.rollback();
+                connection.setAutoCommit(true);
+            }
+            return true;
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    void closePhysical() {
+        for (PreparedStatement statement : statementCache.values()) {
+            try {
+                statement.close();
+            } catch (SQLException e) {
+                // Closing anyway
+            }
+        }
+        statementCache.clear();
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            System.out.println("Error closing connection: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public void close() {
+        if (borrowed) {
+            borrowed = false;
+            pool.release(this);
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package util;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Access to virtual threads while the code still builds for Java 11.
+ * The factory is looked up by reflection, so it is only used on a JVM that has it (Java 21+).
+ */
+public class VirtualThreads {
+    private VirtualThreads() {
+    }
+
+    /**
+     * @return An executor that starts a new virtual thread per task, or null if the JVM has no virtual threads
+     */
+    public static ExecutorService newPerTaskExecutor() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+}